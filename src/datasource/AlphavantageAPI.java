@@ -1,36 +1,195 @@
 package datasource;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.time.Duration;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 /**
- * Represents a data source that fetches data from Alphavantage API and implements the
+ * <p>Represents a data source that fetches data from Alphavantage API and implements the
  * DataSourceInterface which provides a method to obtain the closing price of a share on a
- * particular day.
+ * particular day.</p>
+ *
+ * <p>The price series fetched for a ticker symbol is kept in memory as well as in a cache on the
+ * local disk, which is checked before any api call. A series is refreshed only when a price is
+ * requested for a day after its latest date and it wasn't fetched within the last hour. A refresh
+ * fetches just the latest 100 days and merges them into the held series, falling back to the full
+ * history when they don't reach back to the last held day. The series in memory take at most
+ * 64 MB by default, beyond which the least recently used ones are dropped and read again from the
+ * disk when they are next needed.</p>
+ *
+ * <p>Series of several stocks can be prefetched concurrently on a pool with as many threads as
+ * the api calls allowed per minute, so the rate limit rather than the time of each call decides
+ * how long fetching them takes. Alternatively each fetch can run on a thread of its own, a
+ * virtual thread where the runtime has them, so any number of stocks can be fetched or read from
+ * the disk at once. In both cases no more API calls are in flight at a time than allowed per
+ * minute.</p>
+ *
+ * <p>Concurrent lookups of the same stock are coalesced, the first one loads the series and the
+ * others wait for it, so the API is never called twice at once for the same stock.</p>
+ *
+ * <p>Asynchronous lookups complete at once when the series in memory covers the date, join a
+ * load of the stock already running and otherwise load the series on the fetching pool, so the
+ * caller never waits for an API call or the rate limit.</p>
  */
-public class AlphavantageAPI implements DataSourceInterface {
+public class AlphavantageAPI implements AsyncDataSourceInterface {
 
-  private int counter; // Number of api calls made
-  private LocalDateTime lastReadTime; // Timestamp when the last api call was made
-  private final Map<String, String> stockData; // stores stock data obtained from api call.
+  private static final String DEFAULT_CACHE_DIRECTORY = "./price cache";
+  private static final long REFRESH_INTERVAL_MILLIS = 60L * 60L * 1000L;
+  private static final int CALLS_PER_MINUTE = 5; // api calls allowed per minute with a free key.
+  private static final int TIMEOUT_MILLIS = 30000;
+  private static final long DEFAULT_MEMORY_CACHE_BYTES = 64L * 1024L * 1024L;
+
+  private final RateLimiter rateLimiter; // keeps the api calls within the allowed quota.
+  private final PriceSeriesCache stockData; // price series parsed from api calls.
+  private final Map<String, Long> fetchTimes; // time at which each price series was fetched.
+  private final DiskPriceCache diskCache; // price series saved on the local disk.
+  private final ExecutorService fetchExecutor; // fetches price series of stocks concurrently.
+  private final Executor fetchTasks; // runs tasks on the fetchExecutor marked as fetching.
+  private final ThreadLocal<Boolean> fetching; // set while a thread runs one of the fetchTasks.
+  private final Semaphore apiCalls; // api calls that may be in flight at once.
+  private final Map<String, CompletableFuture<PriceSeries>> inFlight; // loads not yet finished.
 
   /**
-   * Constructs the AlphavantageAPI object by initializing the counter to ZERO, lastReadTime to
-   * current time and creating a hash map to store stock data.
+   * Constructs the AlphavantageAPI object by creating a hash map to store stock data and a rate
+   * limiter that allows 5 api calls per minute. Price series are cached on the disk under the
+   * directory 'price cache'.
    */
   public AlphavantageAPI() {
 
-    counter = 0;
-    lastReadTime = LocalDateTime.now();
-    stockData = new HashMap<>();
+    this(new File(DEFAULT_CACHE_DIRECTORY));
+  }
+
+  /**
+   * Constructs the AlphavantageAPI object like the default constructor that, when asked, fetches
+   * each price series on a thread of its own instead of on a pool with a thread per api call
+   * allowed per minute.
+   *
+   * @param threadPerFetch true to fetch each price series on a thread of its own.
+   */
+  public AlphavantageAPI(boolean threadPerFetch) {
+
+    this(new File(DEFAULT_CACHE_DIRECTORY), new RateLimiter(CALLS_PER_MINUTE, 1, TimeUnit.MINUTES),
+            DEFAULT_MEMORY_CACHE_BYTES, threadPerFetch);
+  }
 
+  /**
+   * Constructs the AlphavantageAPI object by creating a hash map to store stock data and a rate
+   * limiter that allows 5 api calls per minute. Price series are cached on the disk under the given
+   * directory.
+   *
+   * @param cacheDirectory the directory under which the fetched price series are saved.
+   * @throws IllegalArgumentException when the cache directory is null.
+   */
+  public AlphavantageAPI(File cacheDirectory) throws IllegalArgumentException {
+
+    this(cacheDirectory, new RateLimiter(CALLS_PER_MINUTE, 1, TimeUnit.MINUTES));
+  }
+
+  /**
+   * Constructs the AlphavantageAPI object by creating a hash map to store stock data. Price series
+   * are cached on the disk under the given directory and the api calls are limited by the given
+   * rate limiter, which can be sized to the quota of the api key.
+   *
+   * @param cacheDirectory the directory under which the fetched price series are saved.
+   * @param rateLimiter    the rate limiter that hands out a permit for each api call.
+   * @throws IllegalArgumentException when the cache directory or rate limiter is null.
+   */
+  public AlphavantageAPI(File cacheDirectory, RateLimiter rateLimiter)
+          throws IllegalArgumentException {
+
+    this(cacheDirectory, rateLimiter, DEFAULT_MEMORY_CACHE_BYTES);
+  }
+
+  /**
+   * Constructs the AlphavantageAPI object whose price series in memory take at most the given
+   * number of bytes. Price series are cached on the disk under the given directory and the api
+   * calls are limited by the given rate limiter.
+   *
+   * @param cacheDirectory  the directory under which the fetched price series are saved.
+   * @param rateLimiter     the rate limiter that hands out a permit for each api call.
+   * @param memoryCacheSize the memory the price series held in memory may take, in bytes.
+   * @throws IllegalArgumentException when the cache directory or rate limiter is null or the
+   *                                  memory cache size is negative.
+   */
+  public AlphavantageAPI(File cacheDirectory, RateLimiter rateLimiter, long memoryCacheSize)
+          throws IllegalArgumentException {
+    this(cacheDirectory, rateLimiter, memoryCacheSize, false);
+  }
+
+  /**
+   * Constructs the AlphavantageAPI object that fetches the price series of stocks either on a
+   * pool with a thread per api call allowed per minute or, when asked, each on a thread of its
+   * own. The latter uses virtual threads where the runtime has them and suits fetching hundreds
+   * of stocks at once. Price series are cached on the disk under the given directory and the api
+   * calls are limited by the given rate limiter.
+   *
+   * @param cacheDirectory  the directory under which the fetched price series are saved.
+   * @param rateLimiter     the rate limiter that hands out a permit for each api call.
+   * @param memoryCacheSize the memory the price series held in memory may take, in bytes.
+   * @param threadPerFetch  true to fetch each price series on a thread of its own.
+   * @throws IllegalArgumentException when the cache directory or rate limiter is null or the
+   *                                  memory cache size is negative.
+   */
+  public AlphavantageAPI(File cacheDirectory, RateLimiter rateLimiter, long memoryCacheSize,
+                         boolean threadPerFetch) throws IllegalArgumentException {
+
+    if (rateLimiter == null) {
+      throw new IllegalArgumentException("Rate limiter can't be null");
+    }
+    this.rateLimiter = rateLimiter;
+    stockData = new PriceSeriesCache(memoryCacheSize);
+    fetchTimes = new ConcurrentHashMap<>();
+    inFlight = new ConcurrentHashMap<>();
+    diskCache = new DiskPriceCache(cacheDirectory);
+    apiCalls = new Semaphore(rateLimiter.getPermits(), true);
+    if (threadPerFetch) {
+      fetchExecutor = TaskExecutors.newThreadPerTaskExecutor("alphavantage-fetch");
+    } else {
+      fetchExecutor = Executors.newFixedThreadPool(rateLimiter.getPermits(), runnable -> {
+        Thread thread = new Thread(runnable, "alphavantage-fetch");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    fetching = new ThreadLocal<>();
+    fetchTasks = task -> fetchExecutor.execute(() -> {
+      fetching.set(Boolean.TRUE);
+      try {
+        task.run();
+      } finally {
+        fetching.remove();
+      }
+    });
+
+  }
+
+  /**
+   * Gets the cache of the price series held in memory, whose counters of hits, misses and
+   * evictions show how well its size fits the stocks looked up.
+   *
+   * @return the memory cache of price series.
+   */
+  public PriceSeriesCache getMemoryCache() {
+    return stockData;
   }
 
   /**
@@ -50,40 +209,357 @@ public class AlphavantageAPI implements DataSourceInterface {
       return 0.00;
     }
 
-    if (stockData.containsKey(tickerSymbol)) {
-      if (LocalDate.parse(stockData.get(tickerSymbol).substring(38, 48))
-              .compareTo(LocalDate.now()) < 0) {
+    return getSeries(tickerSymbol, date).getPrice(date);
+  }
+
+  /**
+   * provides the latest closing price of a particular stock at or before the requested date, so a
+   * day the exchange was closed on gets the price of the last day it was open.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return price of the individual share on the date or the latest trading day before it, 0.00 if
+   *         the date is in the future or there is no such price.
+   * @throws IllegalArgumentException when the program is unable to fetch data provided by the API.
+   * @throws RuntimeException         when the URL related to the API call isn't working any more.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException, RuntimeException {
+
+    if (LocalDate.now().compareTo(date) < 0) {
+      return 0.00;
+    }
+
+    return getSeries(tickerSymbol, date).getPriceAsOf(date);
+  }
+
+  /**
+   * provides the closing prices of a particular stock on every trading day between the given
+   * dates, both inclusive. All the prices come from one fetched series of the stock.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the closing prices of the trading days within the range.
+   * @throws IllegalArgumentException when the dates are null or the program is unable to fetch
+   *                                  data provided by the API.
+   * @throws RuntimeException         when the URL related to the API call isn't working any more.
+   */
+  @Override
+  public PriceSeries getPrices(String tickerSymbol, LocalDate from, LocalDate to)
+          throws IllegalArgumentException, RuntimeException {
+
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Dates of the range can't be null");
+    }
+
+    LocalDate today = LocalDate.now();
+    LocalDate lastDate = to.compareTo(today) > 0 ? today : to;
+    return getSeries(tickerSymbol, lastDate).subSeries(from, to);
+  }
+
+  /**
+   * A range is read from the series of the stock, which is fetched for all its dates at once.
+   *
+   * @return true
+   */
+  @Override
+  public boolean hasRangeQueries() {
+    return true;
+  }
+
+  /**
+   * provides the closing price of a particular stock on a particular day without blocking. The
+   * future completes at once when the price is in memory and otherwise once the series of the
+   * stock is loaded.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return the future price, which is 0.00 for a date in the future and completes exceptionally
+   *         when the program is unable to fetch data provided by the API.
+   */
+  @Override
+  public CompletableFuture<Double> getPriceAsync(String tickerSymbol, LocalDate date) {
+
+    if (LocalDate.now().compareTo(date) < 0) {
+      return CompletableFuture.completedFuture(0.00);
+    }
+
+    return getSeriesAsync(tickerSymbol, date).thenApply(series -> series.getPrice(date));
+  }
+
+  /**
+   * provides the latest closing price of a particular stock at or before the requested date
+   * without blocking. The future completes at once when the price is in memory and otherwise once
+   * the series of the stock is loaded.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return the future price, which is 0.00 for a date in the future or without a price and
+   *         completes exceptionally when the program is unable to fetch data provided by the API.
+   */
+  @Override
+  public CompletableFuture<Double> getPriceAsOfAsync(String tickerSymbol, LocalDate date) {
+
+    if (LocalDate.now().compareTo(date) < 0) {
+      return CompletableFuture.completedFuture(0.00);
+    }
+
+    return getSeriesAsync(tickerSymbol, date).thenApply(series -> series.getPriceAsOf(date));
+  }
+
+  /**
+   * provides the closing prices of a particular stock on every trading day between the given
+   * dates, both inclusive, without blocking.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the future prices, which complete exceptionally when the dates are null or the program
+   *         is unable to fetch data provided by the API.
+   */
+  @Override
+  public CompletableFuture<PriceSeries> getPricesAsync(String tickerSymbol, LocalDate from,
+                                                       LocalDate to) {
+
+    if (from == null || to == null) {
+      CompletableFuture<PriceSeries> failed = new CompletableFuture<>();
+      failed.completeExceptionally(
+              new IllegalArgumentException("Dates of the range can't be null"));
+      return failed;
+    }
+
+    LocalDate today = LocalDate.now();
+    LocalDate lastDate = to.compareTo(today) > 0 ? today : to;
+    return getSeriesAsync(tickerSymbol, lastDate).thenApply(series -> series.subSeries(from, to));
+  }
+
+  /**
+   * Fetches the price series of the given stocks concurrently, calling the API only for the stocks
+   * that are neither in memory nor in the cache on the disk or are stale for the given date, and
+   * waits until all of them are fetched. Failures are ignored here as the lookups that follow
+   * report them. A prefetch made on a fetching thread, like from a callback of an asynchronous
+   * lookup, returns at once instead, as waiting there could hold the very threads the fetches
+   * need. The lookups that follow load the series then.
+   *
+   * @param tickerSymbols the ticker symbols of the companies about to be looked up
+   * @param date          the latest date for which prices will be looked up
+   */
+  @Override
+  public void prefetch(Collection<String> tickerSymbols, LocalDate date) {
+
+    if (tickerSymbols == null || date == null || fetching.get() != null) {
+      return;
+    }
+
+    LocalDate today = LocalDate.now();
+    LocalDate lastDate = date.compareTo(today) > 0 ? today : date;
+    Set<String> distinctSymbols = new LinkedHashSet<>(tickerSymbols);
+    List<CompletableFuture<PriceSeries>> fetches = new ArrayList<>();
+    for (String tickerSymbol : distinctSymbols) {
+      fetches.add(CompletableFuture.supplyAsync(() -> getSeries(tickerSymbol, lastDate),
+              fetchTasks));
+    }
+
+    try {
+      CompletableFuture.allOf(fetches.toArray(new CompletableFuture<?>[0])).join();
+    } catch (CompletionException e) {
+      // the lookup of the stock that failed throws the error to its caller.
+    }
+  }
 
-        adjustCounter();
-        stockData.put(tickerSymbol, fetchDataFromAPI(tickerSymbol));
+  /**
+   * A helper method that gives the price series of a stock that covers the given date. A series in
+   * memory that is not stale for the date is returned as it is. Otherwise only one thread loads the
+   * series of a stock at a time, and the threads that ask for the same stock meanwhile wait for
+   * that load and share its result or its error, so concurrent lookups never call the API twice
+   * for the same stock.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the latest date for which a price is needed
+   * @return the price series of the stock.
+   * @throws IllegalArgumentException when the program is unable to fetch data provided by the API.
+   * @throws RuntimeException         when the URL related to the API call isn't working any more.
+   */
+  private PriceSeries getSeries(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException, RuntimeException {
+
+    PriceSeries series = stockData.get(tickerSymbol);
+    if (series != null && !isStale(tickerSymbol, series, date)) {
+      return series;
+    }
+
+    CompletableFuture<PriceSeries> load = new CompletableFuture<>();
+    CompletableFuture<PriceSeries> runningLoad = inFlight.putIfAbsent(tickerSymbol, load);
+    if (runningLoad != null) {
+      try {
+        return runningLoad.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
       }
-    } else {
-      adjustCounter();
-      stockData.put(tickerSymbol, fetchDataFromAPI(tickerSymbol));
     }
 
-    String[] dayWiseData = stockData.get(tickerSymbol).split("\n");
-    for (String dataInaDay : dayWiseData) {
+    try {
+      series = loadSeries(tickerSymbol, date);
+      load.complete(series);
+      return series;
+    } catch (RuntimeException e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(tickerSymbol, load);
+    }
+  }
 
-      String[] data = dataInaDay.split(",");
-      if (data[0].equals(date.toString())) {
-        return Double.parseDouble(data[4]);
+  /**
+   * A helper method that gives the price series of a stock that covers the given date without
+   * blocking. A series in memory that is not stale for the date completes the future at once, a
+   * load of the stock already running is shared and otherwise the series is loaded on the fetching
+   * pool.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the latest date for which a price is needed
+   * @return the future price series of the stock.
+   */
+  private CompletableFuture<PriceSeries> getSeriesAsync(String tickerSymbol, LocalDate date) {
+
+    PriceSeries series = stockData.get(tickerSymbol);
+    if (series != null && !isStale(tickerSymbol, series, date)) {
+      return CompletableFuture.completedFuture(series);
+    }
+
+    CompletableFuture<PriceSeries> runningLoad = inFlight.get(tickerSymbol);
+    if (runningLoad != null) {
+      return runningLoad;
+    }
+    return CompletableFuture.supplyAsync(() -> getSeries(tickerSymbol, date), fetchTasks);
+  }
+
+  /**
+   * A helper method that loads the price series of a stock that covers the given date, looking in
+   * memory, then in the cache on the disk and calling the API only when neither has the series or
+   * it is stale for the date.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the latest date for which a price is needed
+   * @return the price series of the stock.
+   * @throws IllegalArgumentException when the program is unable to fetch data provided by the API.
+   * @throws RuntimeException         when the URL related to the API call isn't working any more.
+   */
+  private PriceSeries loadSeries(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException, RuntimeException {
+
+    PriceSeries series = stockData.peek(tickerSymbol);
+    if (series == null) {
+      series = diskCache.read(tickerSymbol);
+      if (series != null) {
+        stockData.put(tickerSymbol, series);
+        fetchTimes.put(tickerSymbol, diskCache.getLastWritten(tickerSymbol));
+      }
+    }
+
+    if (series == null || isStale(tickerSymbol, series, date)) {
+
+      PriceSeries fetched = series == null || series.size() == 0
+              ? fetchFullSeries(tickerSymbol)
+              : refreshSeries(tickerSymbol, series);
+      if (series == null || fetched.size() > 0) {
+        series = fetched;
+        stockData.put(tickerSymbol, series);
+      }
+      fetchTimes.put(tickerSymbol, System.currentTimeMillis());
+      if (fetched.size() > 0) {
+        diskCache.write(tickerSymbol, series);
       }
     }
-    return 0.00;
+
+    return series;
   }
 
   /**
-   * A helper method that fetches data related to a particular stock from Alphavantage API.
+   * A helper method that brings a held price series up to date by fetching only the latest 100
+   * days of the stock and merging the days after the held ones into it. The full history is
+   * fetched only when the latest days don't reach back to the last held day, as days in between
+   * would be missing otherwise.
    *
-   * @param stockSymbol represents a tickerSymbol of a stock.
-   * @return data fetched from API.
+   * @param tickerSymbol the ticker symbol of the company
+   * @param series       the price series held for the stock, which is not empty
+   * @return the updated series or an empty series if the API returned no data.
    * @throws IllegalArgumentException when the program is unable to fetch data provided by the API.
    * @throws RuntimeException         when the URL related to the API call isn't working any more.
    */
-  private String fetchDataFromAPI(String stockSymbol)
+  private PriceSeries refreshSeries(String tickerSymbol, PriceSeries series)
           throws IllegalArgumentException, RuntimeException {
 
+    PriceSeries latest = callAPI(tickerSymbol, false);
+    if (latest.size() == 0) {
+      return latest;
+    }
+    if (latest.getFirstDate().compareTo(series.getLastDate()) > 0) {
+      return fetchFullSeries(tickerSymbol);
+    }
+    return series.mergeWith(latest);
+  }
+
+  /**
+   * A helper method that fetches the full history of a stock, about 20 years of days.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @return the fetched series or an empty series if the API returned no data.
+   * @throws IllegalArgumentException when the program is unable to fetch data provided by the API.
+   * @throws RuntimeException         when the URL related to the API call isn't working any more.
+   */
+  private PriceSeries fetchFullSeries(String tickerSymbol)
+          throws IllegalArgumentException, RuntimeException {
+
+    return callAPI(tickerSymbol, true);
+  }
+
+  /**
+   * A helper method that checks whether a price series has to be fetched again to answer for the
+   * given date. The series is stale when the date is after its latest date, as prices for newer
+   * days may have been published since, unless it was fetched within the last hour.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param series       the price series held for the ticker symbol
+   * @param date         the date for which the stock price is to be found
+   * @return true if the series has to be fetched again else false.
+   */
+  private boolean isStale(String tickerSymbol, PriceSeries series, LocalDate date) {
+
+    if (series.size() > 0 && series.getLastDate().compareTo(date) >= 0) {
+      return false;
+    }
+    Long fetchTime = fetchTimes.get(tickerSymbol);
+    return fetchTime == null
+            || System.currentTimeMillis() - fetchTime >= REFRESH_INTERVAL_MILLIS;
+  }
+
+  /**
+   * A helper method that fetches data related to a particular stock from Alphavantage API. The
+   * response is requested gzip compressed and is parsed into a price series as it streams in,
+   * without holding the whole payload in memory. The response, or the error sent instead, is read
+   * to its end and only its stream is closed, never the connection, so that the connection can be
+   * kept alive and reused for the next call.
+   * It is the only method that reaches the network, so a subclass can override it to serve the
+   * series from elsewhere while keeping the caching and refreshing of this class.
+   *
+   * @param stockSymbol represents a tickerSymbol of a stock.
+   * @param fullHistory true to fetch the full history of the stock, false to fetch only the latest
+   *                    100 days.
+   * @return the price series parsed from the data fetched from API.
+   * @throws DataSourceUnavailableException when the program is unable to fetch data provided by
+   *                                        the API.
+   * @throws RuntimeException               when the URL related to the API call isn't working any
+   *                                        more.
+   */
+  protected PriceSeries fetchDataFromAPI(String stockSymbol, boolean fullHistory)
+          throws DataSourceUnavailableException, RuntimeException {
+
 
     //the API key needed to use this web service.
     //Please get your own free API key here: https://www.alphavantage.co/
@@ -101,7 +577,7 @@ public class AlphavantageAPI implements DataSourceInterface {
        */
       url = new URL("https://www.alphavantage"
               + ".co/query?function=TIME_SERIES_DAILY"
-              + "&outputsize=full"
+              + "&outputsize=" + ( fullHistory ? "full" : "compact" )
               + "&symbol"
               + "=" + stockSymbol + "&apikey=" + apiKey + "&datatype=csv");
     } catch (MalformedURLException e) {
@@ -109,54 +585,100 @@ public class AlphavantageAPI implements DataSourceInterface {
               + "no longer works");
     }
 
-    InputStream in = null;
-    StringBuilder output = new StringBuilder();
-
-
+    HttpURLConnection connection = null;
     try {
       /*
-      Execute this query. This returns an InputStream object.
-      In the csv format, it returns several lines, each line being separated
-      by commas. Each line contains the date, price at opening time, highest
-      price for that date, lowest price for that date, price at closing time
-      and the volume of trade (no. of shares bought/sold) on that date.
+      Execute this query. In the csv format, it returns several lines, each
+      line being separated by commas. Each line contains the date, price at
+      opening time, highest price for that date, lowest price for that date,
+      price at closing time and the volume of trade (no. of shares
+      bought/sold) on that date.
       */
-      in = url.openStream();
-      int byteRead;
+      connection = (HttpURLConnection) url.openConnection();
+      connection.setRequestProperty("Accept-Encoding", "gzip");
+      connection.setConnectTimeout(TIMEOUT_MILLIS);
+      connection.setReadTimeout(TIMEOUT_MILLIS);
 
-      while (( byteRead = in.read() ) != -1) {
-        output.append((char) byteRead);
+      try (InputStream response = connection.getInputStream();
+           InputStream in = "gzip".equalsIgnoreCase(connection.getContentEncoding())
+                   ? new GZIPInputStream(response) : response) {
+        PriceSeries series = PriceSeriesParser.parse(in);
+        drain(response);
+        return series;
       }
     } catch (IOException e) {
-      throw new IllegalArgumentException("No price data found for " + stockSymbol);
+      if (connection != null) {
+        try (InputStream error = connection.getErrorStream()) {
+          if (error != null) {
+            drain(error);
+          }
+        } catch (IOException ignored) {
+          // the connection is not reused then.
+        }
+      }
+      throw new DataSourceUnavailableException("No price data found for " + stockSymbol, e);
     }
 
-    return output.toString();
-
   }
 
   /**
-   * A helper method that keeps track of the number of api calls made to API. If the number of calls
-   * made to an API exceeds 5 with in a minute, then the program wait for 60 seconds.
+   * A helper method that reads what is left of a stream of a connection, which has to be read to
+   * its end for the connection to be reused.
+   *
+   * @param stream the stream of the connection.
+   * @throws IOException when the stream can't be read.
    */
-  private void adjustCounter() {
+  private static void drain(InputStream stream) throws IOException {
 
-    if (counter == 5) {
-      counter = 1;
-      Duration duration = Duration.between(lastReadTime, LocalDateTime.now());
-      if (duration.toMinutes() < 1) {
-        try {
-          Thread.sleep(60000);
-        } catch (InterruptedException e) {
-          e.printStackTrace();
-        }
-      }
-    } else {
+    byte[] buffer = new byte[8192];
+    while (stream.read(buffer) != -1) {
+      // the bytes left, like the end of a gzip stream, are of no use.
+    }
+  }
+
+  /**
+   * A helper method that calls the API once the number of calls in flight and the rate limiter
+   * allow it. Bounding the calls in flight by the quota keeps threads beyond it waiting here
+   * rather than on open connections, however many fetches run at once.
+   *
+   * @param stockSymbol the ticker symbol of the company
+   * @param fullHistory true to fetch the full history, false to fetch only the latest 100 days
+   * @return the fetched series or an empty series if the API returned no data.
+   * @throws IllegalArgumentException when the program is unable to fetch data provided by the API.
+   * @throws IllegalStateException    when the thread is interrupted while waiting.
+   * @throws RuntimeException         when the URL related to the API call isn't working any more.
+   */
+  private PriceSeries callAPI(String stockSymbol, boolean fullHistory)
+          throws IllegalArgumentException, IllegalStateException, RuntimeException {
 
-      counter++;
+    try {
+      apiCalls.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting to call the alphavantage API");
     }
+    try {
+      waitForPermit();
+      return fetchDataFromAPI(stockSymbol, fullHistory);
+    } finally {
+      apiCalls.release();
+    }
+  }
 
-    lastReadTime = LocalDateTime.now();
+  /**
+   * A helper method that waits until the rate limiter allows one more call to the API, which is at
+   * most 5 calls within any minute by default.
+   *
+   * @throws IllegalStateException when the thread is interrupted while waiting.
+   */
+  private void waitForPermit() throws IllegalStateException {
+
+    try {
+      rateLimiter.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting to call the alphavantage API");
+    }
   }
 
 }
@@ -0,0 +1,29 @@
+package datasource;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Makes a data source asynchronous by running its lookups on a shared pool of daemon threads. The
+ * pool grows with the lookups in flight and its idle threads end after a minute, so it takes no
+ * resources while no lookup is made.
+ */
+class AsyncDataSourceAdapter extends DataSourceDecorator implements AsyncDataSourceInterface {
+
+  static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "async-price-lookup");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Constructs the adapter around the given data source.
+   *
+   * @param dataSource the data source to make asynchronous.
+   * @throws IllegalArgumentException when the data source is null.
+   */
+  AsyncDataSourceAdapter(DataSourceInterface dataSource) throws IllegalArgumentException {
+    super(dataSource);
+  }
+
+}
@@ -0,0 +1,75 @@
+package datasource;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>The interface of a data source whose lookups can be made without blocking the caller. Each
+ * lookup returns a CompletableFuture that completes with the price once it is known, so a caller
+ * like the GUI stays responsive while the data is fetched, and many lookups can be started at once
+ * and combined.</p>
+ *
+ * <p>The default implementations run the blocking lookups of the data source on a shared pool of
+ * daemon threads. A data source that knows when a price is already in memory overrides them to
+ * complete at once for those lookups. Any data source can be made asynchronous through of.</p>
+ */
+public interface AsyncDataSourceInterface extends DataSourceInterface {
+
+  /**
+   * Looks up the share price for the given ticker symbol and the date without blocking.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return the future price, which completes exceptionally when the price can't be fetched
+   */
+  default CompletableFuture<Double> getPriceAsync(String tickerSymbol, LocalDate date) {
+    return CompletableFuture.supplyAsync(() -> getPriceOfShare(tickerSymbol, date),
+            AsyncDataSourceAdapter.EXECUTOR);
+  }
+
+  /**
+   * Looks up the latest share price for the given ticker symbol at or before the date without
+   * blocking.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return the future price, which completes exceptionally when the price can't be fetched
+   */
+  default CompletableFuture<Double> getPriceAsOfAsync(String tickerSymbol, LocalDate date) {
+    return CompletableFuture.supplyAsync(() -> getPriceOfShareAsOf(tickerSymbol, date),
+            AsyncDataSourceAdapter.EXECUTOR);
+  }
+
+  /**
+   * Looks up the share prices for the given ticker symbol on every day between the given dates,
+   * both inclusive, without blocking.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the future prices, which complete exceptionally when the prices can't be fetched
+   */
+  default CompletableFuture<PriceSeries> getPricesAsync(String tickerSymbol, LocalDate from,
+                                                        LocalDate to) {
+    return CompletableFuture.supplyAsync(() -> getPrices(tickerSymbol, from, to),
+            AsyncDataSourceAdapter.EXECUTOR);
+  }
+
+  /**
+   * Gives an asynchronous view of the given data source, which is the data source itself if it
+   * is already asynchronous.
+   *
+   * @param dataSource the data source.
+   * @return the asynchronous data source.
+   * @throws IllegalArgumentException when the data source is null.
+   */
+  static AsyncDataSourceInterface of(DataSourceInterface dataSource)
+          throws IllegalArgumentException {
+
+    if (dataSource instanceof AsyncDataSourceInterface) {
+      return (AsyncDataSourceInterface) dataSource;
+    }
+    return new AsyncDataSourceAdapter(dataSource);
+  }
+
+}
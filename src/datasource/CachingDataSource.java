@@ -0,0 +1,93 @@
+package datasource;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Represents a stage that keeps the share prices looked up through it in memory, so that a price
+ * is asked of the decorated data source only once. Only prices that were found are kept, as a
+ * price that is missing today may be published later.
+ */
+public class CachingDataSource extends DataSourceDecorator {
+
+  private final Map<String, Map<Long, Double>> prices; // prices found keyed by ticker and day.
+  private final Map<String, Map<Long, Double>> pricesAsOf; // latest prices at or before a day.
+
+  /**
+   * Constructs the caching stage around the given data source.
+   *
+   * @param dataSource the data source whose prices are cached.
+   * @throws IllegalArgumentException when the data source is null.
+   */
+  public CachingDataSource(DataSourceInterface dataSource) throws IllegalArgumentException {
+
+    super(dataSource);
+    prices = new ConcurrentHashMap<>();
+    pricesAsOf = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Gets the share price from memory if it was looked up before, else from the decorated data
+   * source.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the decorated data source
+   * @throws IllegalArgumentException when the decorated data source can't find the price.
+   */
+  @Override
+  public double getPriceOfShare(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+
+    return lookUp(prices, tickerSymbol, date,
+        () -> dataSource.getPriceOfShare(tickerSymbol, date));
+  }
+
+  /**
+   * Gets the latest share price at or before the date from memory if it was looked up before, else
+   * from the decorated data source.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the decorated data source
+   * @throws IllegalArgumentException when the decorated data source can't fetch the price.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+
+    return lookUp(pricesAsOf, tickerSymbol, date,
+        () -> dataSource.getPriceOfShareAsOf(tickerSymbol, date));
+  }
+
+  /**
+   * A helper method that gives a price from the given cache, asking the decorated data source for
+   * it and keeping it if it is found when it isn't cached yet.
+   *
+   * @param cache        the cache of the kind of lookup.
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @param lookUp       the lookup of the price from the decorated data source.
+   * @return the price.
+   */
+  private static double lookUp(Map<String, Map<Long, Double>> cache, String tickerSymbol,
+                               LocalDate date, DoubleSupplier lookUp) {
+
+    Map<Long, Double> tickerPrices = cache.computeIfAbsent(tickerSymbol,
+        symbol -> new ConcurrentHashMap<>());
+    Long epochDay = date.toEpochDay();
+    Double price = tickerPrices.get(epochDay);
+    if (price != null) {
+      return price;
+    }
+
+    double fetched = lookUp.getAsDouble();
+    if (fetched != 0.00) {
+      tickerPrices.put(epochDay, fetched);
+    }
+    return fetched;
+  }
+
+}
@@ -0,0 +1,182 @@
+package datasource;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * <p>Represents a stage that stops calling the decorated data source for a while once it has been
+ * unavailable for a number of calls in a row, so that lookups fail at once instead of each waiting
+ * for a source that is down. The calls that fail at once throw a DataSourceUnavailableException.
+ * </p>
+ *
+ * <p>When the wait is over, a single call is let through to try the source. If it succeeds the
+ * source is called as usual again, and if it finds the source unavailable the stage waits again.
+ * Prefetches are skipped while the stage waits.</p>
+ */
+public class CircuitBreakerDataSource extends DataSourceDecorator {
+
+  private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+  private static final long DEFAULT_OPEN_SECONDS = 30;
+
+  private final int failureThreshold; // failures in a row after which the calls are stopped.
+  private final long openNanos; // time for which the calls are stopped.
+  private final AtomicInteger consecutiveFailures; // calls in a row that found the source down.
+  private final AtomicBoolean trialRunning; // whether a call is trying the source after the wait.
+  private volatile long openedAt; // the time the calls were last stopped, from System.nanoTime.
+
+  /**
+   * Constructs the circuit breaker stage around the given data source that stops calling it for
+   * 30 seconds after 5 failures in a row.
+   *
+   * @param dataSource the data source whose calls are guarded.
+   * @throws IllegalArgumentException when the data source is null.
+   */
+  public CircuitBreakerDataSource(DataSourceInterface dataSource)
+          throws IllegalArgumentException {
+
+    this(dataSource, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Constructs the circuit breaker stage around the given data source.
+   *
+   * @param dataSource       the data source whose calls are guarded.
+   * @param failureThreshold the number of failures in a row after which the calls are stopped.
+   * @param openTime         the time for which the calls are stopped.
+   * @param unit             the unit of the time.
+   * @throws IllegalArgumentException when the data source or unit is null, the threshold is less
+   *                                  than 1 or the time is negative.
+   */
+  public CircuitBreakerDataSource(DataSourceInterface dataSource, int failureThreshold,
+                                  long openTime, TimeUnit unit) throws IllegalArgumentException {
+
+    super(dataSource);
+    if (failureThreshold < 1) {
+      throw new IllegalArgumentException("Failure threshold should be at least 1");
+    }
+    if (unit == null || openTime < 0) {
+      throw new IllegalArgumentException("Open time should be a non negative time");
+    }
+    this.failureThreshold = failureThreshold;
+    this.openNanos = unit.toNanos(openTime);
+    this.consecutiveFailures = new AtomicInteger();
+    this.trialRunning = new AtomicBoolean();
+  }
+
+  /**
+   * Gets the share price from the decorated data source unless the calls to it are stopped.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the decorated data source
+   * @throws IllegalArgumentException when the decorated data source can't find the price or the
+   *                                  calls to it are stopped.
+   */
+  @Override
+  public double getPriceOfShare(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+
+    return guard(() -> dataSource.getPriceOfShare(tickerSymbol, date));
+  }
+
+  /**
+   * Gets the latest share price at or before the date from the decorated data source unless the
+   * calls to it are stopped.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the decorated data source
+   * @throws IllegalArgumentException when the decorated data source can't fetch the price or the
+   *                                  calls to it are stopped.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+
+    return guard(() -> dataSource.getPriceOfShareAsOf(tickerSymbol, date));
+  }
+
+  /**
+   * Gets the share prices within the range from the decorated data source unless the calls to it
+   * are stopped.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the share prices given by the decorated data source
+   * @throws IllegalArgumentException when the dates are null, the decorated data source can't
+   *                                  fetch the prices or the calls to it are stopped.
+   */
+  @Override
+  public PriceSeries getPrices(String tickerSymbol, LocalDate from, LocalDate to)
+          throws IllegalArgumentException {
+
+    return guard(() -> dataSource.getPrices(tickerSymbol, from, to));
+  }
+
+  /**
+   * Passes the prefetch on to the decorated data source unless the calls to it are stopped.
+   *
+   * @param tickerSymbols the ticker symbols of the companies about to be looked up
+   * @param date          the latest date for which prices will be looked up
+   */
+  @Override
+  public void prefetch(Collection<String> tickerSymbols, LocalDate date) {
+
+    if (!isOpen()) {
+      dataSource.prefetch(tickerSymbols, date);
+    }
+  }
+
+  /**
+   * Checks whether the calls to the decorated data source are stopped at the moment.
+   *
+   * @return true if the calls are stopped else false.
+   */
+  public boolean isOpen() {
+    return consecutiveFailures.get() >= failureThreshold
+            && System.nanoTime() - openedAt < openNanos;
+  }
+
+  /**
+   * A helper method that makes a call to the decorated data source if the calls to it are not
+   * stopped, and keeps count of the calls in a row that find it unavailable.
+   *
+   * @param call the call to the decorated data source.
+   * @param <T>  the type of the result of the call.
+   * @return the result of the call.
+   * @throws DataSourceUnavailableException when the calls are stopped or the call finds the source
+   *                                        unavailable.
+   */
+  private <T> T guard(Supplier<T> call) throws DataSourceUnavailableException {
+
+    boolean trial = false;
+    if (consecutiveFailures.get() >= failureThreshold) {
+      if (System.nanoTime() - openedAt < openNanos || !trialRunning.compareAndSet(false, true)) {
+        throw new DataSourceUnavailableException("Data source is unavailable, calls to it are"
+                + " paused after repeated failures");
+      }
+      trial = true;
+    }
+
+    try {
+      T result = call.get();
+      consecutiveFailures.set(0);
+      return result;
+    } catch (DataSourceUnavailableException e) {
+      if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+        openedAt = System.nanoTime();
+      }
+      throw e;
+    } finally {
+      if (trial) {
+        trialRunning.set(false);
+      }
+    }
+  }
+
+}
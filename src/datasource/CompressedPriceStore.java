@@ -0,0 +1,604 @@
+package datasource;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Represents a data source that holds the price series of many stocks compressed in memory, so
+ * that decades of daily prices of the whole ticker universe fit in one process for backtests. The
+ * series are put into the store directly or loaded from another data source.</p>
+ *
+ * <p>Each series is cut into blocks of 512 days that are compressed on their own. Within a block
+ * the dates are stored as the difference between consecutive gaps between days, which is 0 for
+ * most days and takes a single bit. Prices are quoted with at most 4 decimals, so when every price
+ * of a block is exactly such a number the block stores the change of the price in ten-thousandths
+ * from the previous day. Otherwise each price is stored as the bits that changed from the previous
+ * price, as done for the values of the Gorilla time series database. Either way the decoded prices
+ * are exactly the prices put in.</p>
+ *
+ * <p>The first date of each block is kept in an index, so a lookup finds its block by a binary
+ * search and decodes only that block, and only up to the date looked up.</p>
+ */
+public class CompressedPriceStore implements DataSourceInterface {
+
+  private static final int BLOCK_SIZE = 512;
+  private static final double DECIMAL_SCALE = 10000.0; // prices are quoted to 4 decimals.
+  private static final double MAX_DECIMAL_PRICE = 1e11; // largest price stored as a decimal.
+  private static final int[] GAP_CHANGE_WIDTHS = {7, 9, 12};
+  private static final int[] PRICE_CHANGE_WIDTHS = {8, 14, 20};
+
+  private final Map<String, CompressedSeries> stockData; // compressed series of each stock.
+
+  /**
+   * Constructs an empty CompressedPriceStore.
+   */
+  public CompressedPriceStore() {
+    stockData = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Compresses the given price series into the store, replacing any series held for the ticker
+   * symbol.
+   *
+   * @param tickerSymbol the ticker symbol of the company.
+   * @param series       the price series of the stock.
+   * @throws IllegalArgumentException when the ticker symbol or series is null.
+   */
+  public void put(String tickerSymbol, PriceSeries series) throws IllegalArgumentException {
+
+    if (tickerSymbol == null || series == null) {
+      throw new IllegalArgumentException("Ticker symbol and price series can't be null");
+    }
+    stockData.put(tickerSymbol, CompressedSeries.encode(series));
+  }
+
+  /**
+   * Loads the price series of the given stocks between the given dates from another data source
+   * into the store. The stocks are prefetched from the source first and those it has no prices
+   * for are left out.
+   *
+   * @param dataSource    the data source to load the price series from.
+   * @param tickerSymbols the ticker symbols of the companies to load.
+   * @param from          the first date to load.
+   * @param to            the last date to load.
+   * @return the number of stocks loaded.
+   * @throws IllegalArgumentException when an argument is null or the source fails to give the
+   *                                  prices of a stock.
+   */
+  public int load(DataSourceInterface dataSource, Collection<String> tickerSymbols,
+                  LocalDate from, LocalDate to) throws IllegalArgumentException {
+
+    if (dataSource == null || tickerSymbols == null || from == null || to == null) {
+      throw new IllegalArgumentException("Data source, ticker symbols and dates can't be null");
+    }
+
+    int loaded = 0;
+    dataSource.prefetch(tickerSymbols, to);
+    for (String tickerSymbol : new LinkedHashSet<>(tickerSymbols)) {
+      PriceSeries series = dataSource.getPrices(tickerSymbol, from, to);
+      if (series.size() > 0) {
+        put(tickerSymbol, series);
+        loaded++;
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Gets the number of days held in the store over all the stocks.
+   *
+   * @return the number of days held.
+   */
+  public long getDayCount() {
+
+    long days = 0;
+    for (CompressedSeries series : stockData.values()) {
+      days += series.size;
+    }
+    return days;
+  }
+
+  /**
+   * Gets the memory taken by the compressed series and their block indexes, leaving out the fixed
+   * overhead of the objects holding them.
+   *
+   * @return the size of the compressed data in bytes.
+   */
+  public long getSizeInBytes() {
+
+    long bytes = 0;
+    for (CompressedSeries series : stockData.values()) {
+      bytes += 8L * series.bits.length + 4L * series.blockFirstDays.length
+              + 8L * series.blockOffsets.length;
+    }
+    return bytes;
+  }
+
+  /**
+   * Provides the closing price of a share on the requested date from the store.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return the closing price on the date or 0.00 if the store has no price for it.
+   */
+  public double getPriceOfShare(String tickerSymbol, LocalDate date) {
+
+    CompressedSeries series = stockData.get(tickerSymbol);
+    return series == null ? 0.00 : series.getPrice(date.toEpochDay(), false);
+  }
+
+  /**
+   * Provides the latest closing price of a share at or before the requested date from the store.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return the closing price on the date or the latest day before it, 0.00 if there is no such
+   *         price within PriceSeries.LOOK_BACK_DAYS days before the date.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date) {
+
+    CompressedSeries series = stockData.get(tickerSymbol);
+    return series == null ? 0.00 : series.getPrice(date.toEpochDay(), true);
+  }
+
+  /**
+   * Provides the closing prices of a share on every day between the given dates, both inclusive,
+   * decoding only the blocks that hold them.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the closing prices held within the range.
+   * @throws IllegalArgumentException when the dates are null.
+   */
+  @Override
+  public PriceSeries getPrices(String tickerSymbol, LocalDate from, LocalDate to)
+          throws IllegalArgumentException {
+
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Dates of the range can't be null");
+    }
+
+    CompressedSeries series = stockData.get(tickerSymbol);
+    if (series == null || from.compareTo(to) > 0) {
+      return new PriceSeries(new int[0], new double[0]);
+    }
+    return series.decode(from.toEpochDay(), to.toEpochDay());
+  }
+
+  /**
+   * A range is decoded from just the blocks of the stock that hold it.
+   *
+   * @return true
+   */
+  @Override
+  public boolean hasRangeQueries() {
+    return true;
+  }
+
+  /**
+   * A price series compressed in independent blocks of days.
+   */
+  private static class CompressedSeries {
+
+    private final int size; // number of days in the series.
+    private final int lastDay; // last date of the series as an epoch day.
+    private final int[] blockFirstDays; // first date of each block as an epoch day.
+    private final long[] blockOffsets; // position of the first bit of each block.
+    private final long[] bits; // the compressed blocks one after another.
+
+    /**
+     * Constructs the compressed series from its encoded parts.
+     *
+     * @param size           number of days in the series.
+     * @param lastDay        last date of the series as an epoch day.
+     * @param blockFirstDays first date of each block as an epoch day.
+     * @param blockOffsets   position of the first bit of each block.
+     * @param bits           the compressed blocks.
+     */
+    private CompressedSeries(int size, int lastDay, int[] blockFirstDays, long[] blockOffsets,
+                             long[] bits) {
+      this.size = size;
+      this.lastDay = lastDay;
+      this.blockFirstDays = blockFirstDays;
+      this.blockOffsets = blockOffsets;
+      this.bits = bits;
+    }
+
+    /**
+     * Compresses a price series block by block. The first price of a block is written as it is
+     * and every later day as the difference of its gap from the previous gap followed by the bits
+     * of its price that differ from the previous price.
+     *
+     * @param series the price series.
+     * @return the compressed series.
+     */
+    private static CompressedSeries encode(PriceSeries series) {
+
+      int size = series.size();
+      int blocks = ( size + BLOCK_SIZE - 1 ) / BLOCK_SIZE;
+      int[] blockFirstDays = new int[blocks];
+      long[] blockOffsets = new long[blocks];
+      BitWriter writer = new BitWriter(size);
+
+      for (int block = 0; block < blocks; block++) {
+        int start = block * BLOCK_SIZE;
+        int end = Math.min(size, start + BLOCK_SIZE);
+        blockFirstDays[block] = series.getEpochDay(start);
+        blockOffsets[block] = writer.position;
+
+        boolean decimal = isDecimal(series, start, end);
+        writer.write(decimal ? 1 : 0, 1);
+        long previousBits = decimal ? toDecimal(series.getClosingPrice(start))
+                : Double.doubleToRawLongBits(series.getClosingPrice(start));
+        writer.write(previousBits, 64);
+        long previousDay = series.getEpochDay(start);
+        long previousGap = 0;
+        int leading = -1; // leading zeros of the window of changed bits, -1 before the first one.
+        int trailing = 0;
+
+        for (int i = start + 1; i < end; i++) {
+          long gap = series.getEpochDay(i) - previousDay;
+          writeChange(writer, gap - previousGap, GAP_CHANGE_WIDTHS);
+          previousGap = gap;
+          previousDay = series.getEpochDay(i);
+
+          if (decimal) {
+            long priceBits = toDecimal(series.getClosingPrice(i));
+            writeChange(writer, priceBits - previousBits, PRICE_CHANGE_WIDTHS);
+            previousBits = priceBits;
+            continue;
+          }
+
+          long priceBits = Double.doubleToRawLongBits(series.getClosingPrice(i));
+          long changed = priceBits ^ previousBits;
+          if (changed == 0) {
+            writer.write(0, 1);
+          } else {
+            int leadingZeros = Math.min(Long.numberOfLeadingZeros(changed), 31);
+            int trailingZeros = Long.numberOfTrailingZeros(changed);
+            if (leading >= 0 && leadingZeros >= leading && trailingZeros >= trailing) {
+              // the changed bits fit in the window of the previous price.
+              writer.write(0b10, 2);
+              writer.write(changed >>> trailing, 64 - leading - trailing);
+            } else {
+              int meaningful = 64 - leadingZeros - trailingZeros;
+              writer.write(0b11, 2);
+              writer.write(leadingZeros, 5);
+              writer.write(meaningful - 1, 6);
+              writer.write(changed >>> trailingZeros, meaningful);
+              leading = leadingZeros;
+              trailing = trailingZeros;
+            }
+          }
+          previousBits = priceBits;
+        }
+      }
+
+      int lastDay = size == 0 ? 0 : series.getEpochDay(size - 1);
+      return new CompressedSeries(size, lastDay, blockFirstDays, blockOffsets,
+              writer.toArray());
+    }
+
+    /**
+     * Finds the price of a day by decoding its block up to the day.
+     *
+     * @param epochDay the date as an epoch day.
+     * @param asOf     true to take the latest price within PriceSeries.LOOK_BACK_DAYS days before
+     *                 the date when the date has none.
+     * @return the price or 0.00 if there is none.
+     */
+    private double getPrice(long epochDay, boolean asOf) {
+
+      if (size == 0 || epochDay < blockFirstDays[0] || ( !asOf && epochDay > lastDay )) {
+        return 0.00;
+      }
+      long day = Math.min(epochDay, lastDay);
+      BlockCursor cursor = new BlockCursor(this, blockOf(day));
+      double price = cursor.price;
+      long priceDay = cursor.day;
+      while (cursor.day < day && cursor.next()) {
+        if (cursor.day <= day) {
+          price = cursor.price;
+          priceDay = cursor.day;
+        }
+      }
+      if (cursor.day == epochDay) {
+        return cursor.price;
+      }
+      return asOf && epochDay - priceDay <= PriceSeries.LOOK_BACK_DAYS ? price : 0.00;
+    }
+
+    /**
+     * Decodes the days of the series between the given dates, both inclusive.
+     *
+     * @param from the first date as an epoch day.
+     * @param to   the last date as an epoch day.
+     * @return the price series of the days within the range.
+     */
+    private PriceSeries decode(long from, long to) {
+
+      if (size == 0 || to < blockFirstDays[0] || from > lastDay) {
+        return new PriceSeries(new int[0], new double[0]);
+      }
+
+      int[] days = new int[16];
+      double[] prices = new double[16];
+      int count = 0;
+      BlockCursor cursor = new BlockCursor(this, from < blockFirstDays[0] ? 0 : blockOf(from));
+      boolean more = true;
+      while (more && cursor.day <= to) {
+        if (cursor.day >= from) {
+          if (count == days.length) {
+            days = Arrays.copyOf(days, count * 2);
+            prices = Arrays.copyOf(prices, count * 2);
+          }
+          days[count] = (int) cursor.day;
+          prices[count] = cursor.price;
+          count++;
+        }
+        more = cursor.next();
+      }
+      return new PriceSeries(Arrays.copyOf(days, count), Arrays.copyOf(prices, count));
+    }
+
+    /**
+     * Finds the block that holds a date, which is the last block starting on or before it.
+     *
+     * @param epochDay the date as an epoch day, not before the first date of the series.
+     * @return the index of the block.
+     */
+    private int blockOf(long epochDay) {
+
+      if (epochDay > Integer.MAX_VALUE) {
+        return blockFirstDays.length - 1;
+      }
+      int index = Arrays.binarySearch(blockFirstDays, (int) epochDay);
+      return index < 0 ? -index - 2 : index;
+    }
+
+    /**
+     * Checks whether every price of a part of the series is a number of at most 4 decimals that
+     * is decoded back to exactly the same double.
+     *
+     * @param series the price series.
+     * @param start  the position of the first day of the part.
+     * @param end    the position after the last day of the part.
+     * @return true if the prices can be stored as decimals else false.
+     */
+    private static boolean isDecimal(PriceSeries series, int start, int end) {
+
+      for (int i = start; i < end; i++) {
+        double price = series.getClosingPrice(i);
+        if (!( Math.abs(price) < MAX_DECIMAL_PRICE )
+                || Double.doubleToRawLongBits(toDecimal(price) / DECIMAL_SCALE)
+                != Double.doubleToRawLongBits(price)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Converts a price of at most 4 decimals to a number of ten-thousandths.
+     *
+     * @param price the price.
+     * @return the price in ten-thousandths.
+     */
+    private static long toDecimal(double price) {
+      return Math.round(price * DECIMAL_SCALE);
+    }
+
+    /**
+     * Writes a change in as few bits as it needs, a single 0 bit for no change. A change that fits
+     * in one of the given widths is written as 1 to 3 one bits, a zero bit and the change in that
+     * width, and any other change as four one bits and all its 64 bits.
+     *
+     * @param writer the writer of the block.
+     * @param change the change from the previous value.
+     * @param widths the three widths tried in turn.
+     */
+    private static void writeChange(BitWriter writer, long change, int[] widths) {
+
+      if (change == 0) {
+        writer.write(0, 1);
+        return;
+      }
+      for (int k = 0; k < widths.length; k++) {
+        long offset = ( 1L << ( widths[k] - 1 ) ) - 1;
+        if (change >= -offset && change <= offset + 1) {
+          writer.write(( ( 1L << ( k + 1 ) ) - 1 ) << 1, k + 2);
+          writer.write(change + offset, widths[k]);
+          return;
+        }
+      }
+      writer.write(0b1111, 4);
+      writer.write(change, 64);
+    }
+  }
+
+  /**
+   * Decodes the days of a block one after another, continuing into the following blocks.
+   */
+  private static class BlockCursor {
+
+    private final CompressedSeries series;
+    private int block;
+    private int remaining; // days of the block left to decode.
+    private long position; // position of the next bit to read.
+    private long day; // current date as an epoch day.
+    private double price; // price of the current date.
+    private boolean decimal; // whether the block stores its prices as decimals.
+    private long priceBits; // bits of the price or the price in ten-thousandths.
+    private long gap;
+    private int leading;
+    private int trailing;
+
+    /**
+     * Constructs the cursor on the first day of the given block.
+     *
+     * @param series the compressed series.
+     * @param block  the block to start at.
+     */
+    private BlockCursor(CompressedSeries series, int block) {
+      this.series = series;
+      startBlock(block);
+    }
+
+    /**
+     * Moves to the next day of the series.
+     *
+     * @return true if there was a next day, else false and the cursor stays on the last day.
+     */
+    private boolean next() {
+
+      if (remaining == 0) {
+        if (block + 1 >= series.blockFirstDays.length) {
+          return false;
+        }
+        startBlock(block + 1);
+        return true;
+      }
+
+      gap += readChange(GAP_CHANGE_WIDTHS);
+      day += gap;
+      if (decimal) {
+        priceBits += readChange(PRICE_CHANGE_WIDTHS);
+        price = priceBits / DECIMAL_SCALE;
+      } else if (read(1) == 1) {
+        long changed;
+        if (read(1) == 0) {
+          changed = read(64 - leading - trailing) << trailing;
+        } else {
+          leading = (int) read(5);
+          int meaningful = (int) read(6) + 1;
+          trailing = 64 - leading - meaningful;
+          changed = read(meaningful) << trailing;
+        }
+        priceBits ^= changed;
+        price = Double.longBitsToDouble(priceBits);
+      }
+      remaining--;
+      return true;
+    }
+
+    /**
+     * Moves to the first day of a block.
+     *
+     * @param block the index of the block.
+     */
+    private void startBlock(int block) {
+
+      this.block = block;
+      int start = block * BLOCK_SIZE;
+      remaining = Math.min(series.size - start, BLOCK_SIZE) - 1;
+      position = series.blockOffsets[block];
+      day = series.blockFirstDays[block];
+      decimal = read(1) == 1;
+      priceBits = read(64);
+      price = decimal ? priceBits / DECIMAL_SCALE : Double.longBitsToDouble(priceBits);
+      gap = 0;
+      leading = 0;
+      trailing = 0;
+    }
+
+    /**
+     * Reads a change written by writeChange with the same widths.
+     *
+     * @param widths the three widths tried in turn.
+     * @return the change from the previous value.
+     */
+    private long readChange(int[] widths) {
+
+      if (read(1) == 0) {
+        return 0;
+      }
+      for (int width : widths) {
+        if (read(1) == 0) {
+          return read(width) - ( ( 1L << ( width - 1 ) ) - 1 );
+        }
+      }
+      return read(64);
+    }
+
+    /**
+     * Reads the given number of bits as an unsigned number.
+     *
+     * @param count the number of bits from 1 to 64.
+     * @return the bits read.
+     */
+    private long read(int count) {
+
+      long[] bits = series.bits;
+      int index = (int) ( position >>> 6 );
+      int free = 64 - (int) ( position & 63 );
+      long value;
+      if (count <= free) {
+        value = bits[index] >>> ( free - count );
+      } else {
+        int rest = count - free;
+        value = ( bits[index] << rest ) | ( bits[index + 1] >>> ( 64 - rest ) );
+      }
+      position += count;
+      return count == 64 ? value : value & ( ( 1L << count ) - 1 );
+    }
+  }
+
+  /**
+   * Writes numbers of any bit length one after another into a growing array of longs.
+   */
+  private static class BitWriter {
+
+    private long[] words;
+    private long position; // number of bits written.
+
+    /**
+     * Constructs the writer with room for about the given number of days.
+     *
+     * @param days the number of days to be written.
+     */
+    private BitWriter(int days) {
+      words = new long[Math.max(2, days)];
+      position = 0;
+    }
+
+    /**
+     * Writes the lowest bits of a number.
+     *
+     * @param value the number.
+     * @param count the number of its lowest bits to write, from 1 to 64.
+     */
+    private void write(long value, int count) {
+
+      int index = (int) ( position >>> 6 );
+      if (index + 1 >= words.length) {
+        words = Arrays.copyOf(words, words.length * 2);
+      }
+      int free = 64 - (int) ( position & 63 );
+      long bits = count == 64 ? value : value & ( ( 1L << count ) - 1 );
+      if (count <= free) {
+        words[index] |= bits << ( free - count );
+      } else {
+        int rest = count - free;
+        words[index] |= bits >>> rest;
+        words[index + 1] |= bits << ( 64 - rest );
+      }
+      position += count;
+    }
+
+    /**
+     * Gives the bits written, with one spare long so a read may look past the end.
+     *
+     * @return the words holding the bits.
+     */
+    private long[] toArray() {
+      return Arrays.copyOf(words, (int) ( ( position + 63 ) >>> 6 ) + 1);
+    }
+  }
+
+}
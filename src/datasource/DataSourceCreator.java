@@ -1,8 +1,11 @@
 package datasource;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 
@@ -28,6 +31,24 @@ public class DataSourceCreator {
 
   public static DataSourceInterface getDataSource(String dataSource, Readable readable)
           throws IllegalArgumentException {
+    return getDataSource(dataSource, readable, false);
+  }
+
+  /**
+   * A static method that would take the user entered data source type and readable object to read
+   * from the source, and whether a source fetching its data remotely should fetch each price series
+   * on a thread of its own. Only ALPHAAPI fetches remotely, the other sources ignore it.
+   *
+   * @param dataSource     the source from which stock data is to be fetched
+   * @param readable       the readable object that would read from the given source.
+   * @param threadPerFetch true to fetch each price series on a thread of its own.
+   * @return instance of DataSourceInterface that has the implementation to fetch data from the
+   *         given stock data source
+   * @throws IllegalArgumentException if the readable object is null or data source is null/empty.
+   */
+  public static DataSourceInterface getDataSource(String dataSource, Readable readable,
+                                                  boolean threadPerFetch)
+          throws IllegalArgumentException {
 
     if (checkForNull(readable)) {
       throw new IllegalArgumentException("Readable object can't be null");
@@ -37,8 +58,8 @@ public class DataSourceCreator {
     Map<String, Supplier<DataSourceInterface>> knownDataSources;
     knownDataSources = new HashMap<>();
     knownDataSources.put("USERINPUT", () -> new InputFromUser(readable));
-    knownDataSources.put("ALPHAAPI", () -> new AlphavantageAPI());
-    //knownDataSources.put("FILEINPUT", () -> new FileInput(readable));
+    knownDataSources.put("ALPHAAPI", () -> new AlphavantageAPI(threadPerFetch));
+    knownDataSources.put("FILEINPUT", () -> new FileInput(readable));
     Supplier<DataSourceInterface> supplier
             = knownDataSources.getOrDefault(dataSource.trim().toUpperCase(), null);
     if (supplier == null) {
@@ -47,6 +68,110 @@ public class DataSourceCreator {
     return supplier.get();
   }
 
+  /**
+   * A static method that would take the user entered data source type and readable object to read
+   * from the source, and wrap the created data source in the given stages. The stages are given
+   * from the innermost to the outermost, i.e. ["CACHE", "METRICS"] measures the calls that reach
+   * the cache. The known stages are CACHE, METRICS, RETRY and CIRCUITBREAKER.
+   *
+   * @param dataSource the source from which stock data is to be fetched
+   * @param readable   the readable object that would read from the given source.
+   * @param stages     the names of the stages to wrap the data source in, innermost first.
+   * @return instance of DataSourceInterface that fetches data from the given stock data source
+   *         through the given stages
+   * @throws IllegalArgumentException if the readable object or stages are null, data source is
+   *                                  null/empty or a stage isn't known.
+   */
+  public static DataSourceInterface getDataSource(String dataSource, Readable readable,
+                                                  List<String> stages)
+          throws IllegalArgumentException {
+    return getDataSource(dataSource, readable, stages, false);
+  }
+
+  /**
+   * A static method that would take the user entered data source type and readable object to read
+   * from the source, and wrap the created data source in the given stages like the method above.
+   * A source fetching its data remotely fetches each price series on a thread of its own when
+   * asked, which only ALPHAAPI does.
+   *
+   * @param dataSource     the source from which stock data is to be fetched
+   * @param readable       the readable object that would read from the given source.
+   * @param stages         the names of the stages to wrap the data source in, innermost first.
+   * @param threadPerFetch true to fetch each price series on a thread of its own.
+   * @return instance of DataSourceInterface that fetches data from the given stock data source
+   *         through the given stages
+   * @throws IllegalArgumentException if the readable object or stages are null, data source is
+   *                                  null/empty or a stage isn't known.
+   */
+  public static DataSourceInterface getDataSource(String dataSource, Readable readable,
+                                                  List<String> stages, boolean threadPerFetch)
+          throws IllegalArgumentException {
+
+    if (checkForNull(stages)) {
+      throw new IllegalArgumentException("Stages can't be null");
+    }
+
+    Map<String, Function<DataSourceInterface, DataSourceInterface>> knownStages = getKnownStages();
+
+    List<Function<DataSourceInterface, DataSourceInterface>> decorators = new ArrayList<>();
+    for (String stage : stages) {
+      Function<DataSourceInterface, DataSourceInterface> decorator
+              = stage == null ? null : knownStages.get(stage.trim().toUpperCase());
+      if (decorator == null) {
+        throw new IllegalArgumentException("Invalid datasource stage provided: " + stage);
+      }
+      decorators.add(decorator);
+    }
+
+    DataSourceInterface source = getDataSource(dataSource, readable, threadPerFetch);
+    for (Function<DataSourceInterface, DataSourceInterface> decorator : decorators) {
+      source = decorator.apply(source);
+    }
+    return source;
+  }
+
+  /**
+   * A static method that would take the stages given by the user as a comma separated list, like
+   * "cache,retry", and check that each of them is known.
+   *
+   * @param stages the comma separated names of the stages, innermost first.
+   * @return the names of the stages in capital case, innermost first.
+   * @throws IllegalArgumentException if the stages are null/empty or a stage isn't known.
+   */
+  public static List<String> getStages(String stages) throws IllegalArgumentException {
+
+    if (checkForNull(stages) || stages.trim().isEmpty()) {
+      throw new IllegalArgumentException("Stages can't be null or empty");
+    }
+
+    Map<String, Function<DataSourceInterface, DataSourceInterface>> knownStages = getKnownStages();
+    List<String> stageNames = new ArrayList<>();
+    for (String stage : stages.split(",", -1)) {
+      String stageName = stage.trim().toUpperCase();
+      if (!knownStages.containsKey(stageName)) {
+        throw new IllegalArgumentException("Invalid datasource stage provided: " + stage);
+      }
+      stageNames.add(stageName);
+    }
+    return stageNames;
+  }
+
+  /**
+   * Gives the known stages keyed by their names in capital case.
+   *
+   * @return the function wrapping a data source in each stage keyed by the name of the stage.
+   */
+  private static Map<String, Function<DataSourceInterface, DataSourceInterface>> getKnownStages() {
+
+    Map<String, Function<DataSourceInterface, DataSourceInterface>> knownStages;
+    knownStages = new HashMap<>();
+    knownStages.put("CACHE", CachingDataSource::new);
+    knownStages.put("METRICS", MetricsDataSource::new);
+    knownStages.put("RETRY", RetryingDataSource::new);
+    knownStages.put("CIRCUITBREAKER", CircuitBreakerDataSource::new);
+    return knownStages;
+  }
+
   /**
    * checks if an object is null.
    *
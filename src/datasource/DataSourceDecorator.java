@@ -0,0 +1,98 @@
+package datasource;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * <p>Represents a stage that adds a behaviour, like caching or retrying, around another data
+ * source. Every method is passed on to the decorated data source as it is, so a stage overrides
+ * only the methods its behaviour applies to.</p>
+ *
+ * <p>Stages wrap each other, so any data source gets the same protections and each stage can be
+ * measured on its own by wrapping it in a MetricsDataSource. DataSourceCreator assembles them from
+ * a list of stage names.</p>
+ */
+public abstract class DataSourceDecorator implements DataSourceInterface {
+
+  protected final DataSourceInterface dataSource; // the data source this stage decorates.
+
+  /**
+   * Constructs the stage around the given data source.
+   *
+   * @param dataSource the data source to decorate.
+   * @throws IllegalArgumentException when the data source is null.
+   */
+  protected DataSourceDecorator(DataSourceInterface dataSource) throws IllegalArgumentException {
+
+    if (dataSource == null) {
+      throw new IllegalArgumentException("Data source to decorate can't be null");
+    }
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * Gets the share price from the decorated data source.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the decorated data source
+   * @throws IllegalArgumentException when the decorated data source can't find the price.
+   */
+  @Override
+  public double getPriceOfShare(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+    return dataSource.getPriceOfShare(tickerSymbol, date);
+  }
+
+  /**
+   * Gets the latest share price at or before the date from the decorated data source.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the decorated data source
+   * @throws IllegalArgumentException when the decorated data source can't fetch the price.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+    return dataSource.getPriceOfShareAsOf(tickerSymbol, date);
+  }
+
+  /**
+   * Gets the share prices within the range from the decorated data source.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the share prices given by the decorated data source
+   * @throws IllegalArgumentException when the dates are null or the decorated data source can't
+   *                                  fetch the prices.
+   */
+  @Override
+  public PriceSeries getPrices(String tickerSymbol, LocalDate from, LocalDate to)
+          throws IllegalArgumentException {
+    return dataSource.getPrices(tickerSymbol, from, to);
+  }
+
+  /**
+   * Tells whether the decorated data source answers ranges of dates in one call.
+   *
+   * @return the answer of the decorated data source
+   */
+  @Override
+  public boolean hasRangeQueries() {
+    return dataSource.hasRangeQueries();
+  }
+
+  /**
+   * Passes the prefetch on to the decorated data source.
+   *
+   * @param tickerSymbols the ticker symbols of the companies about to be looked up
+   * @param date          the latest date for which prices will be looked up
+   */
+  @Override
+  public void prefetch(Collection<String> tickerSymbols, LocalDate date) {
+    dataSource.prefetch(tickerSymbols, date);
+  }
+
+}
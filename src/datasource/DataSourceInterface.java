@@ -1,10 +1,25 @@
 package datasource;
 
 import java.time.LocalDate;
+import java.util.Collection;
 
 /**
- * The interface that provides only one method - getPriceOfShare that will fetch the stock data from
- * a given stock data source.
+ * <p>The interface that provides the method getPriceOfShare that will fetch the stock data from a
+ * given stock data source.</p>
+ *
+ * <p>Changes - getPrices is added to fetch the prices of a stock over a range of dates in one
+ * call. It is added as a default method that falls back to getPriceOfShare for each date, so the
+ * existing data sources keep working and only the sources that can do better override it.
+ * hasRangeQueries tells the callers which of the two a source does.</p>
+ *
+ * <p>prefetch lets a caller announce the stocks it is about to look up, so that a source that
+ * fetches its data remotely can fetch them all at once before the lookups.</p>
+ *
+ * <p>getPriceOfShareAsOf gives the last price at or before a date, so that days the exchange was
+ * closed on don't have a price of 0.00.</p>
+ *
+ * <p>Behaviours like caching, retrying or measuring the calls are added around any data source
+ * by wrapping it in a DataSourceDecorator.</p>
  */
 public interface DataSourceInterface {
 
@@ -21,4 +36,89 @@ public interface DataSourceInterface {
   double getPriceOfShare(String tickerSymbol, LocalDate date)
           throws IllegalArgumentException;
 
+  /**
+   * The method will fetch the share prices for the given ticker symbol on every day between the
+   * given dates, both inclusive. Days for which the source has no price are left out of the
+   * returned series. The default implementation calls getPriceOfShare once for each day.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the closing prices of the days within the range, which is empty if the first date is
+   *         after the last date
+   * @throws IllegalArgumentException when the dates are null or the stock prices can't be fetched
+   *                                  for the given ticker symbol
+   */
+  default PriceSeries getPrices(String tickerSymbol, LocalDate from, LocalDate to)
+          throws IllegalArgumentException {
+
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Dates of the range can't be null");
+    }
+
+    int days = from.compareTo(to) > 0 ? 0 : (int) ( to.toEpochDay() - from.toEpochDay() + 1 );
+    int[] epochDays = new int[days];
+    double[] closingPrices = new double[days];
+    int size = 0;
+    for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+      double price = getPriceOfShare(tickerSymbol, date);
+      if (price != 0.00) {
+        epochDays[size] = (int) date.toEpochDay();
+        closingPrices[size] = price;
+        size++;
+      }
+    }
+    return PriceSeries.of(epochDays, closingPrices, size);
+  }
+
+  /**
+   * The method tells whether getPrices is answered from the data the source holds for whole ranges
+   * of dates, rather than by looking up each day in turn. Callers that need the prices of only a
+   * few days of a long range look those days up one at a time when it is not. The default
+   * implementation returns false, as the default getPrices looks up each day.
+   *
+   * @return true if getPrices is answered for whole ranges, false otherwise
+   */
+  default boolean hasRangeQueries() {
+    return false;
+  }
+
+  /**
+   * The method will fetch the latest share price for the given ticker symbol at or before the
+   * given date, so that a day the exchange was closed on is valued at the closing price of the
+   * last day it was open. The default implementation looks back up to PriceSeries.LOOK_BACK_DAYS
+   * days through getPrices.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price on the date or the latest day before it, 0.00 if the source has
+   *         no such price
+   * @throws IllegalArgumentException when the date is null or the stock prices can't be fetched
+   *                                  for the given ticker symbol
+   */
+  default double getPriceOfShareAsOf(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+
+    if (date == null) {
+      throw new IllegalArgumentException("Date can't be null");
+    }
+    PriceSeries recentPrices = getPrices(tickerSymbol,
+            date.minusDays(PriceSeries.LOOK_BACK_DAYS), date);
+    return recentPrices.size() == 0 ? 0.00
+            : recentPrices.getClosingPrice(recentPrices.size() - 1);
+  }
+
+  /**
+   * The method lets the data source load the stock data of all the given ticker symbols up to the
+   * given date ahead of the lookups that follow, so that a source fetching its data remotely can
+   * fetch them concurrently instead of one lookup at a time. Failures are not reported here, they
+   * surface on the lookups. The default implementation does nothing.
+   *
+   * @param tickerSymbols the ticker symbols of the companies about to be looked up
+   * @param date          the latest date for which prices will be looked up
+   */
+  default void prefetch(Collection<String> tickerSymbols, LocalDate date) {
+    return;
+  }
+
 }
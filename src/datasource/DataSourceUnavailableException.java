@@ -0,0 +1,32 @@
+package datasource;
+
+/**
+ * Thrown when a data source can't reach the stock data at the moment, like when a network call
+ * fails, as opposed to the stock data not existing. Retrying may succeed, so the retry and circuit
+ * breaker stages act on this exception only. It is an IllegalArgumentException so that callers
+ * handling the failures of a data source keep handling it.
+ */
+public class DataSourceUnavailableException extends IllegalArgumentException {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructs the exception with the given message.
+   *
+   * @param message the detail message.
+   */
+  public DataSourceUnavailableException(String message) {
+    super(message);
+  }
+
+  /**
+   * Constructs the exception with the given message and cause.
+   *
+   * @param message the detail message.
+   * @param cause   the failure that made the data source unavailable.
+   */
+  public DataSourceUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+}
@@ -0,0 +1,135 @@
+package datasource;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Represents the daily closing prices of a single stock as one primitive array with a slot for
+ * every calendar day from the first to the last day of the series, where a day the exchange was
+ * closed on holds NaN. As trading days make up most of the days, the array is not much larger than
+ * the series itself, and a lookup for a date is one subtraction and one array read instead of the
+ * binary search of a PriceSeries.
+ */
+public class DensePriceSeries {
+
+  private final long firstEpochDay; // the date of the first slot as an epoch day.
+  private final double[] closingPrices; // closing price of each day, NaN if there is none.
+
+  /**
+   * Constructs the DensePriceSeries holding the same prices as the given series.
+   *
+   * @param priceSeries the price series of the stock.
+   * @throws IllegalArgumentException when the price series is null.
+   */
+  public DensePriceSeries(PriceSeries priceSeries) throws IllegalArgumentException {
+
+    if (priceSeries == null) {
+      throw new IllegalArgumentException("Price series can't be null");
+    }
+    int size = priceSeries.size();
+    if (size == 0) {
+      this.firstEpochDay = 0;
+      this.closingPrices = new double[0];
+      return;
+    }
+    this.firstEpochDay = priceSeries.getEpochDay(0);
+    this.closingPrices = new double[priceSeries.getEpochDay(size - 1)
+            - priceSeries.getEpochDay(0) + 1];
+    Arrays.fill(closingPrices, Double.NaN);
+    for (int i = 0; i < size; i++) {
+      closingPrices[(int) ( priceSeries.getEpochDay(i) - firstEpochDay )] =
+              priceSeries.getClosingPrice(i);
+    }
+  }
+
+  /**
+   * Gets the first date for which a closing price is available.
+   *
+   * @return the first date of the series or null if the series is empty.
+   */
+  public LocalDate getFirstDate() {
+    return closingPrices.length == 0 ? null : LocalDate.ofEpochDay(firstEpochDay);
+  }
+
+  /**
+   * Gets the latest date for which a closing price is available.
+   *
+   * @return the last date of the series or null if the series is empty.
+   */
+  public LocalDate getLastDate() {
+    return closingPrices.length == 0 ? null
+            : LocalDate.ofEpochDay(firstEpochDay + closingPrices.length - 1);
+  }
+
+  /**
+   * Tells whether the given date lies between the first and the last day of the series, both
+   * inclusive.
+   *
+   * @param date the date.
+   * @return true if the series has a slot for the date else false.
+   */
+  public boolean covers(LocalDate date) {
+    long offset = date.toEpochDay() - firstEpochDay;
+    return offset >= 0 && offset < closingPrices.length;
+  }
+
+  /**
+   * Provides the closing price of the share on the given date.
+   *
+   * @param date the date for which the closing price is to be found.
+   * @return the closing price on the date or 0.00 if the series has no price for the date.
+   */
+  public double getPrice(LocalDate date) {
+    return getPrice(date.toEpochDay());
+  }
+
+  /**
+   * Provides the closing price of the share on the given epoch day.
+   *
+   * @param epochDay the date for which the closing price is to be found, as an epoch day.
+   * @return the closing price on the date or 0.00 if the series has no price for the date.
+   */
+  public double getPrice(long epochDay) {
+
+    long offset = epochDay - firstEpochDay;
+    if (offset < 0 || offset >= closingPrices.length) {
+      return 0.00;
+    }
+    double price = closingPrices[(int) offset];
+    return Double.isNaN(price) ? 0.00 : price;
+  }
+
+  /**
+   * Provides the latest closing price of the share at or before the given date, which is the price
+   * a day the exchange was closed on is valued at.
+   *
+   * @param date the date for which the closing price is to be found.
+   * @return the closing price on the date or on the latest day of the series before it, 0.00 if
+   *         there is no such day within PriceSeries.LOOK_BACK_DAYS days before the date.
+   */
+  public double getPriceAsOf(LocalDate date) {
+    return getPriceAsOf(date.toEpochDay());
+  }
+
+  /**
+   * Provides the latest closing price of the share at or before the given epoch day. The days the
+   * exchange was closed on before it are skipped, which are only a few at a time.
+   *
+   * @param epochDay the date for which the closing price is to be found, as an epoch day.
+   * @return the closing price on the date or on the latest day of the series before it, 0.00 if
+   *         there is no such day within PriceSeries.LOOK_BACK_DAYS days before the date.
+   */
+  public double getPriceAsOf(long epochDay) {
+
+    long offset = epochDay - firstEpochDay;
+    if (offset < 0 || closingPrices.length == 0) {
+      return 0.00;
+    }
+    int index = (int) Math.min(offset, closingPrices.length - 1);
+    while (Double.isNaN(closingPrices[index])) {
+      index--; // the first slot always holds a price.
+    }
+    return offset - index > PriceSeries.LOOK_BACK_DAYS ? 0.00 : closingPrices[index];
+  }
+
+}
@@ -0,0 +1,127 @@
+package datasource;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents a stage that loads the prices of a stock between two given dates from the decorated
+ * data source once, on its first lookup, and answers every later lookup within them from a
+ * DensePriceSeries with a single array read. It suits simulations that look up the same stocks on
+ * thousands of days of a known period. Lookups outside the prices loaded, like days after the
+ * latest price known at the time of loading, go to the decorated data source.
+ */
+public class DenseSeriesDataSource extends DataSourceDecorator {
+
+  private final LocalDate from; // the first date of the prices loaded.
+  private final LocalDate to; // the last date of the prices loaded.
+  private final Map<String, DensePriceSeries> series; // prices loaded keyed by ticker symbol.
+
+  /**
+   * Constructs the stage around the given data source that loads the prices between the given
+   * dates, both inclusive.
+   *
+   * @param dataSource the data source whose prices are loaded.
+   * @param from       the first date of the prices loaded.
+   * @param to         the last date of the prices loaded.
+   * @throws IllegalArgumentException when the data source or a date is null or the first date is
+   *                                  after the last date.
+   */
+  public DenseSeriesDataSource(DataSourceInterface dataSource, LocalDate from, LocalDate to)
+          throws IllegalArgumentException {
+
+    super(dataSource);
+    if (from == null || to == null || from.compareTo(to) > 0) {
+      throw new IllegalArgumentException("Invalid range of dates to load the prices for");
+    }
+    this.from = from;
+    this.to = to;
+    this.series = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Gets the share price from the loaded prices when they cover the date, else from the decorated
+   * data source.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price, 0.00 if there is no price for the date.
+   * @throws IllegalArgumentException when the decorated data source can't find the prices.
+   */
+  @Override
+  public double getPriceOfShare(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+
+    DensePriceSeries prices = getSeries(tickerSymbol);
+    if (prices.covers(date)) {
+      return prices.getPrice(date);
+    }
+    return dataSource.getPriceOfShare(tickerSymbol, date);
+  }
+
+  /**
+   * Gets the latest share price at or before the date from the loaded prices when they cover the
+   * date, else from the decorated data source.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price, 0.00 if there is no such price.
+   * @throws IllegalArgumentException when the decorated data source can't find the prices.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+
+    DensePriceSeries prices = getSeries(tickerSymbol);
+    if (prices.covers(date)) {
+      return prices.getPriceAsOf(date);
+    }
+    return dataSource.getPriceOfShareAsOf(tickerSymbol, date);
+  }
+
+  /**
+   * Loads the prices of the given stocks that aren't loaded yet, letting the decorated data source
+   * fetch them together first.
+   *
+   * @param tickerSymbols the ticker symbols of the companies about to be looked up
+   * @param date          the latest date for which prices will be looked up
+   */
+  @Override
+  public void prefetch(Collection<String> tickerSymbols, LocalDate date) {
+
+    if (tickerSymbols == null) {
+      return;
+    }
+    Collection<String> missing = new LinkedHashSet<>(tickerSymbols);
+    missing.removeAll(series.keySet());
+    dataSource.prefetch(missing, date);
+    for (String tickerSymbol : missing) {
+      try {
+        getSeries(tickerSymbol);
+      } catch (IllegalArgumentException e) {
+        // the lookup of the stock that failed throws the error to its caller.
+      }
+    }
+  }
+
+  /**
+   * A helper method that gives the loaded prices of a stock, loading them on the first call. Two
+   * threads may load the same stock at once, which only costs a repeated load.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @return the loaded prices.
+   * @throws IllegalArgumentException when the decorated data source can't find the prices.
+   */
+  private DensePriceSeries getSeries(String tickerSymbol) throws IllegalArgumentException {
+
+    DensePriceSeries prices = series.get(tickerSymbol);
+    if (prices == null) {
+      prices = new DensePriceSeries(dataSource.getPrices(tickerSymbol, from, to));
+      series.put(tickerSymbol, prices);
+    }
+    return prices;
+  }
+
+}
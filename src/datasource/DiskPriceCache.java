@@ -0,0 +1,161 @@
+package datasource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Represents a cache of price series on the local disk so that the stock data fetched by a
+ * data source survives restarts of the application. Each ticker symbol is stored in its own binary
+ * file named after the ticker symbol under the cache directory.</p>
+ *
+ * <p>A file holds a magic number and the number of days as ints, followed by the dates of the
+ * series as epoch days (ints) and then the closing prices (doubles). Files are read through memory
+ * mapping and the time a file was last written is the time its data was fetched.</p>
+ */
+public class DiskPriceCache {
+
+  private static final int MAGIC = 0x50534331; // "PSC1", marks a price series cache file.
+  private static final int HEADER_SIZE = 8;
+  private static final String EXTENSION = ".bin";
+
+  private final File directory;
+
+  /**
+   * Constructs the DiskPriceCache that stores price series under the given directory. The
+   * directory is created when the first series is written to it.
+   *
+   * @param directory the directory under which the price series are stored.
+   * @throws IllegalArgumentException when the directory is null.
+   */
+  public DiskPriceCache(File directory) throws IllegalArgumentException {
+
+    if (directory == null) {
+      throw new IllegalArgumentException("Cache directory can't be null");
+    }
+    this.directory = directory;
+  }
+
+  /**
+   * Reads the price series of a ticker symbol stored in the cache.
+   *
+   * @param tickerSymbol the ticker symbol of the company.
+   * @return the stored price series or null if the ticker symbol isn't cached or its file can't be
+   *         read.
+   */
+  public PriceSeries read(String tickerSymbol) {
+
+    File file = getFile(tickerSymbol);
+    if (file == null || !file.isFile()) {
+      return null;
+    }
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+      long fileSize = channel.size();
+      if (fileSize < HEADER_SIZE) {
+        return null;
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+      int count = buffer.getInt(4);
+      if (buffer.getInt(0) != MAGIC || count < 0
+              || HEADER_SIZE + 12L * count != fileSize) {
+        return null;
+      }
+
+      int[] epochDays = new int[count];
+      double[] closingPrices = new double[count];
+      buffer.position(HEADER_SIZE);
+      buffer.asIntBuffer().get(epochDays);
+      buffer.position(HEADER_SIZE + 4 * count);
+      buffer.asDoubleBuffer().get(closingPrices);
+      return new PriceSeries(epochDays, closingPrices);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Gets the time at which the price series of a ticker symbol was last written to the cache.
+   *
+   * @param tickerSymbol the ticker symbol of the company.
+   * @return the time in milliseconds since the epoch or 0 if the ticker symbol isn't cached.
+   */
+  public long getLastWritten(String tickerSymbol) {
+
+    File file = getFile(tickerSymbol);
+    return file == null ? 0L : file.lastModified();
+  }
+
+  /**
+   * Writes the price series of a ticker symbol to the cache, replacing any series stored before.
+   * The series is first written to a temporary file which is then moved in place, so a reader never
+   * sees a partly written file. Failing to write only means the series is not cached.
+   *
+   * @param tickerSymbol the ticker symbol of the company.
+   * @param series       the price series of the ticker symbol.
+   * @return true if the series was written to the cache else false.
+   */
+  public boolean write(String tickerSymbol, PriceSeries series) {
+
+    File file = getFile(tickerSymbol);
+    if (file == null || series == null) {
+      return false;
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      return false;
+    }
+
+    int count = series.size();
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 12 * count);
+    buffer.putInt(MAGIC);
+    buffer.putInt(count);
+    for (int i = 0; i < count; i++) {
+      buffer.putInt(series.getEpochDay(i));
+    }
+    for (int i = 0; i < count; i++) {
+      buffer.putDouble(series.getClosingPrice(i));
+    }
+    buffer.flip();
+
+    Path temporary = null;
+    try {
+      temporary = Files.createTempFile(directory.toPath(), tickerSymbol + "-cache", ".tmp");
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      }
+      Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+      return true;
+    } catch (IOException e) {
+      if (temporary != null) {
+        temporary.toFile().delete();
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A helper method that gives the file of a ticker symbol. Ticker symbols that can't safely be
+   * used as a file name are not cached.
+   *
+   * @param tickerSymbol the ticker symbol of the company.
+   * @return the file for the ticker symbol or null if it can't be cached.
+   */
+  private File getFile(String tickerSymbol) {
+
+    if (tickerSymbol == null || !tickerSymbol.matches("[A-Za-z0-9.\\-^]+")) {
+      return null;
+    }
+    return new File(directory, tickerSymbol + EXTENSION);
+  }
+
+}
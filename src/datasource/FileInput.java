@@ -0,0 +1,450 @@
+package datasource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ * <p>This class implements the DataSourceInterface and fetches the stock prices from one or more
+ * csv files on the local disk. The readable object gives the paths of the files, one on each line.
+ * Each line of a file is in the same format as the user input, TickerSymbol,dd-MM-yyyy,closing
+ * price, and lines that are not in this format, like a header, are ignored.</p>
+ *
+ * <p>The files are memory mapped and read once when the object is constructed to build an index
+ * that holds, for each ticker symbol, its dates and the position of the closing price of each date
+ * in the mapped file. The prices are parsed from the mapped file when they are looked up, so the
+ * contents of the files are never copied onto the heap. If a ticker symbol has more than one price
+ * for a date, the price that comes first is used.</p>
+ */
+public class FileInput implements DataSourceInterface {
+
+  private static final long MAX_SEGMENT_SIZE = 1L << 30; // largest part of a file mapped at once.
+  private static final int MAX_FIELD_LENGTH = 32;
+
+  private final List<MappedByteBuffer> segments; // mapped parts of the files, ending on a line.
+  private final Map<String, TickerIndex> index; // dates and price positions of each ticker.
+  private final long maxSegmentSize; // largest part of a file this source maps at once.
+
+  /**
+   * Constructs the FileInput by mapping and indexing the files whose paths are given by the
+   * readable object, one path on each line.
+   *
+   * @param readable readable object to read the paths of the stock data files from
+   * @throws IllegalArgumentException when no file is given or a file can't be read.
+   */
+  public FileInput(Readable readable) throws IllegalArgumentException {
+    this(readable, MAX_SEGMENT_SIZE);
+  }
+
+  /**
+   * Constructs the FileInput by mapping and indexing the files whose paths are given by the
+   * readable object, one path on each line, mapping at most the given number of bytes of a file at
+   * once. A file larger than that is mapped in several parts, each ending on a line.
+   *
+   * @param readable       readable object to read the paths of the stock data files from
+   * @param maxSegmentSize the largest part of a file mapped at once, in bytes.
+   * @throws IllegalArgumentException when no file is given, a file can't be read or the segment
+   *                                  size is not positive or over 1 GB.
+   */
+  public FileInput(Readable readable, long maxSegmentSize) throws IllegalArgumentException {
+
+    if (maxSegmentSize <= 0 || maxSegmentSize > MAX_SEGMENT_SIZE) {
+      throw new IllegalArgumentException("Invalid segment size provided: " + maxSegmentSize);
+    }
+    this.maxSegmentSize = maxSegmentSize;
+    segments = new ArrayList<>();
+    Map<String, IndexBuilder> builders = new HashMap<>();
+
+    Scanner scan = new Scanner(readable);
+    while (scan.hasNextLine()) {
+      String path = scan.nextLine().trim();
+      if (!path.equals("")) {
+        mapFile(new File(path), builders);
+      }
+    }
+    if (segments.isEmpty()) {
+      throw new IllegalArgumentException("No stock data file provided");
+    }
+
+    index = new HashMap<>();
+    for (Map.Entry<String, IndexBuilder> entry : builders.entrySet()) {
+      index.put(entry.getKey(), entry.getValue().build());
+    }
+  }
+
+  /**
+   * The method gets the share price for the given ticker symbol and the date from the stock data
+   * files.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         date for which the share price is to be found
+   * @return double the share price for the given ticker symbol and date, 0.00 if there is no price
+   *         for them.
+   */
+  public double getPriceOfShare(String tickerSymbol, LocalDate date) {
+
+    TickerIndex tickerIndex = index.get(tickerSymbol);
+    if (tickerIndex == null) {
+      return 0.00;
+    }
+    long epochDay = date.toEpochDay();
+    if (epochDay < Integer.MIN_VALUE || epochDay > Integer.MAX_VALUE) {
+      return 0.00;
+    }
+    int position = Arrays.binarySearch(tickerIndex.epochDays, (int) epochDay);
+    return position < 0 ? 0.00 : readPrice(tickerIndex.locations[position]);
+  }
+
+  /**
+   * The method gets the latest share price for the given ticker symbol at or before the date from
+   * the stock data files.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         date for which the share price is to be found
+   * @return double the share price on the date or the latest day before it, 0.00 if there is no
+   *         such price within PriceSeries.LOOK_BACK_DAYS days before the date.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date) {
+
+    TickerIndex tickerIndex = index.get(tickerSymbol);
+    if (tickerIndex == null || tickerIndex.epochDays.length == 0) {
+      return 0.00;
+    }
+    int[] epochDays = tickerIndex.epochDays;
+    long epochDay = date.toEpochDay();
+    if (epochDay < epochDays[0]) {
+      return 0.00;
+    }
+    int position = epochDays.length - 1;
+    if (epochDay < epochDays[position]) {
+      position = Arrays.binarySearch(epochDays, (int) epochDay);
+      position = position < 0 ? -position - 2 : position;
+    }
+    return epochDay - epochDays[position] > PriceSeries.LOOK_BACK_DAYS ? 0.00
+            : readPrice(tickerIndex.locations[position]);
+  }
+
+  /**
+   * The method gets the share prices for the given ticker symbol on every day between the given
+   * dates from the stock data files.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the share prices given for the ticker symbol within the range
+   * @throws IllegalArgumentException if the dates are null.
+   */
+  @Override
+  public PriceSeries getPrices(String tickerSymbol, LocalDate from, LocalDate to)
+          throws IllegalArgumentException {
+
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Dates of the range can't be null");
+    }
+
+    TickerIndex tickerIndex = index.get(tickerSymbol);
+    if (tickerIndex == null || from.compareTo(to) > 0) {
+      return new PriceSeries(new int[0], new double[0]);
+    }
+
+    int start = firstOnOrAfter(tickerIndex.epochDays, from.toEpochDay());
+    int end = firstOnOrAfter(tickerIndex.epochDays, to.toEpochDay() + 1);
+    int[] epochDays = Arrays.copyOfRange(tickerIndex.epochDays, start, Math.max(start, end));
+    double[] closingPrices = new double[epochDays.length];
+    for (int i = 0; i < epochDays.length; i++) {
+      closingPrices[i] = readPrice(tickerIndex.locations[start + i]);
+    }
+    return new PriceSeries(epochDays, closingPrices);
+  }
+
+  /**
+   * A range is read from the index of the stock built when the files are read.
+   *
+   * @return true
+   */
+  @Override
+  public boolean hasRangeQueries() {
+    return true;
+  }
+
+  /**
+   * A helper method that maps a file in parts that end on a line and indexes each part.
+   *
+   * @param file     the stock data file.
+   * @param builders the indexes being built keyed by the ticker symbol.
+   * @throws IllegalArgumentException when the file can't be read.
+   */
+  private void mapFile(File file, Map<String, IndexBuilder> builders)
+          throws IllegalArgumentException {
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+      long fileSize = channel.size();
+      long position = 0;
+      while (position < fileSize) {
+        long length = Math.min(maxSegmentSize, fileSize - position);
+        MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+        int limit = (int) length;
+        if (position + length < fileSize) {
+          // end the part after its last line break so that no line is split between parts.
+          int lineEnd = limit - 1;
+          while (lineEnd >= 0 && segment.get(lineEnd) != '\n') {
+            lineEnd--;
+          }
+          if (lineEnd >= 0) {
+            limit = lineEnd + 1;
+          }
+        }
+        segment.limit(limit);
+        segments.add(segment);
+        indexSegment(segment, segments.size() - 1, builders);
+        position += limit;
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Unable to read the stock data file: " + file.getPath());
+    }
+  }
+
+  /**
+   * A helper method that reads a mapped part of a file once and adds the date and the position of
+   * the closing price of each valid line to the index of its ticker symbol.
+   *
+   * @param segment      the mapped part of the file.
+   * @param segmentIndex the position of the part in the list of parts.
+   * @param builders     the indexes being built keyed by the ticker symbol.
+   */
+  private void indexSegment(MappedByteBuffer segment, int segmentIndex,
+                            Map<String, IndexBuilder> builders) {
+
+    byte[] tickerBytes = new byte[MAX_FIELD_LENGTH];
+    byte[] previousTicker = new byte[MAX_FIELD_LENGTH];
+    int previousTickerLength = -1;
+    IndexBuilder builder = null;
+    byte[] dateBytes = new byte[MAX_FIELD_LENGTH];
+    byte[] priceBytes = new byte[MAX_FIELD_LENGTH];
+
+    int limit = segment.limit();
+    int lineStart = 0;
+    while (lineStart < limit) {
+
+      int lineEnd = lineStart;
+      int firstComma = -1;
+      int secondComma = -1;
+      int lastComma = -1;
+      while (lineEnd < limit && segment.get(lineEnd) != '\n') {
+        if (segment.get(lineEnd) == ',') {
+          if (firstComma < 0) {
+            firstComma = lineEnd;
+          } else if (secondComma < 0) {
+            secondComma = lineEnd;
+          }
+          lastComma = lineEnd;
+        }
+        lineEnd++;
+      }
+
+      if (secondComma > 0) {
+        int tickerLength = copyField(segment, lineStart, firstComma, tickerBytes);
+        int dateLength = copyField(segment, firstComma + 1, secondComma, dateBytes);
+        int priceLength = copyField(segment, lastComma + 1, lineEnd, priceBytes);
+        int epochDay = dateLength == 10 && dateBytes[2] == '-' && dateBytes[5] == '-'
+                ? PriceSeriesParser.toEpochDay(PriceSeriesParser.digits(dateBytes, 6, 4),
+                        PriceSeriesParser.digits(dateBytes, 3, 2),
+                        PriceSeriesParser.digits(dateBytes, 0, 2))
+                : Integer.MIN_VALUE;
+
+        if (tickerLength > 0 && epochDay != Integer.MIN_VALUE
+                && !Double.isNaN(PriceSeriesParser.parseDecimal(priceBytes, 0, priceLength))) {
+
+          // consecutive lines mostly belong to the same ticker, so its index is looked up once.
+          if (tickerLength != previousTickerLength
+                  || !rangeEquals(tickerBytes, previousTicker, tickerLength)) {
+            String ticker = new String(tickerBytes, 0, tickerLength, StandardCharsets.US_ASCII);
+            builder = builders.computeIfAbsent(ticker, symbol -> new IndexBuilder());
+            System.arraycopy(tickerBytes, 0, previousTicker, 0, tickerLength);
+            previousTickerLength = tickerLength;
+          }
+          builder.add(epochDay, ( (long) segmentIndex << 32 ) | ( lastComma + 1 ));
+        }
+      }
+      lineStart = lineEnd + 1;
+    }
+  }
+
+  /**
+   * A helper method that parses the closing price at the given position of a mapped file straight
+   * from the mapped bytes.
+   *
+   * @param location the part of the file in the upper 32 bits and the position of the price within
+   *                 it in the lower 32 bits.
+   * @return the closing price.
+   */
+  private double readPrice(long location) {
+
+    MappedByteBuffer segment = segments.get((int) ( location >>> 32 ));
+    int start = (int) location;
+    int end = start;
+    while (end < segment.limit() && segment.get(end) != '\n') {
+      end++;
+    }
+    while (start < end && isBlank(segment.get(start))) {
+      start++;
+    }
+    while (end > start && isBlank(segment.get(end - 1))) {
+      end--;
+    }
+    return PriceSeriesParser.parseDecimal(segment, start, end - start);
+  }
+
+  /**
+   * A helper method that copies a field of a line of a mapped file without its surrounding spaces
+   * and carriage return.
+   *
+   * @param segment the mapped part of the file.
+   * @param start   the position of the first byte of the field.
+   * @param end     the position after the last byte of the field.
+   * @param field   the array the field is copied to.
+   * @return the length of the field or -1 if it is longer than the array.
+   */
+  private static int copyField(MappedByteBuffer segment, int start, int end, byte[] field) {
+
+    while (start < end && isBlank(segment.get(start))) {
+      start++;
+    }
+    while (end > start && isBlank(segment.get(end - 1))) {
+      end--;
+    }
+    if (end - start > field.length) {
+      return -1;
+    }
+    for (int i = start; i < end; i++) {
+      field[i - start] = segment.get(i);
+    }
+    return end - start;
+  }
+
+  /**
+   * A helper method that checks if a byte is a space, tab or carriage return.
+   *
+   * @param b the byte.
+   * @return true if the byte is blank else false.
+   */
+  private static boolean isBlank(byte b) {
+    return b == ' ' || b == '\t' || b == '\r';
+  }
+
+  /**
+   * A helper method that compares the first bytes of two arrays.
+   *
+   * @param first  the first array.
+   * @param second the second array.
+   * @param length the number of bytes to compare.
+   * @return true if the bytes are equal else false.
+   */
+  private static boolean rangeEquals(byte[] first, byte[] second, int length) {
+
+    for (int i = 0; i < length; i++) {
+      if (first[i] != second[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A helper method that finds the position of the first date on or after an epoch day.
+   *
+   * @param epochDays dates in ascending order.
+   * @param epochDay  the date as an epoch day.
+   * @return the position of the first date on or after the epoch day.
+   */
+  private static int firstOnOrAfter(int[] epochDays, long epochDay) {
+
+    if (epochDay > Integer.MAX_VALUE) {
+      return epochDays.length;
+    }
+    if (epochDay < Integer.MIN_VALUE) {
+      return 0;
+    }
+    int position = Arrays.binarySearch(epochDays, (int) epochDay);
+    return position < 0 ? -position - 1 : position;
+  }
+
+  /**
+   * Holds the dates of a ticker symbol in ascending order and the location of the closing price of
+   * each date in the mapped files.
+   */
+  private static class TickerIndex {
+
+    private final int[] epochDays;
+    private final long[] locations;
+
+    /**
+     * Constructs the index from sorted dates and their price locations.
+     *
+     * @param epochDays the dates as epoch days in ascending order.
+     * @param locations the location of the price of the date at the same index.
+     */
+    private TickerIndex(int[] epochDays, long[] locations) {
+      this.epochDays = epochDays;
+      this.locations = locations;
+    }
+  }
+
+  /**
+   * Collects the dates and price locations of one ticker symbol in the order they are read.
+   */
+  private static class IndexBuilder {
+
+    private int[] epochDays = new int[16];
+    private long[] locations = new long[16];
+    private int size = 0;
+
+    /**
+     * Adds a date and the location of its price.
+     *
+     * @param epochDay the date as an epoch day.
+     * @param location the location of the price of the date.
+     */
+    private void add(int epochDay, long location) {
+
+      if (size == epochDays.length) {
+        epochDays = Arrays.copyOf(epochDays, size * 2);
+        locations = Arrays.copyOf(locations, size * 2);
+      }
+      epochDays[size] = epochDay;
+      locations[size] = location;
+      size++;
+    }
+
+    /**
+     * Builds the index sorted by date, keeping the first location read for a date.
+     *
+     * @return the index of the ticker symbol.
+     */
+    private TickerIndex build() {
+
+      int[] positions = PriceSeries.orderByDate(epochDays, size);
+      int[] sortedDays = new int[positions.length];
+      long[] sortedLocations = new long[positions.length];
+      for (int i = 0; i < positions.length; i++) {
+        sortedDays[i] = epochDays[positions[i]];
+        sortedLocations[i] = locations[positions[i]];
+      }
+      return new TickerIndex(sortedDays, sortedLocations);
+    }
+  }
+
+}
@@ -1,17 +1,25 @@
 package datasource;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
- * This class implements the DataSourceInterface and the method getSharePrice will fetch the stock
- * prices from the user. The user will pass the stock data as a string in readable object.
+ * <p>This class implements the DataSourceInterface and the method getSharePrice will fetch the
+ * stock prices from the user. The user will pass the stock data as a string in readable object.</p>
+ *
+ * <p>Each line of the stock data is in the format TickerSymbol,dd-MM-yyyy,closing price. The
+ * lines are parsed once when the object is constructed into a price series per ticker symbol, so a
+ * lookup is a hash lookup of the ticker symbol followed by a binary search on the date. Lines that
+ * are not in the format are ignored and if a ticker symbol has more than one price for a date, the
+ * price given first is used.</p>
  */
 public class InputFromUser implements DataSourceInterface {
 
-  private final List<String> stockPriceData;
+  private final Map<String, PriceSeries> stockPriceData; // price series of each ticker symbol.
 
   /**
    * Constructs the User input taking in the readable object.
@@ -20,52 +28,156 @@ public class InputFromUser implements DataSourceInterface {
    */
   public InputFromUser(Readable readable) throws IllegalArgumentException {
 
-    stockPriceData = new ArrayList();
+    Map<String, SeriesBuilder> builders = new HashMap<>();
     Scanner scan = new Scanner(readable).useDelimiter("\\n");
     while (scan.hasNext()) {
-      stockPriceData.add(scan.nextLine());
+      addLine(scan.nextLine(), builders);
+    }
+
+    stockPriceData = new HashMap<>();
+    for (Map.Entry<String, SeriesBuilder> entry : builders.entrySet()) {
+      stockPriceData.put(entry.getKey(), entry.getValue().build());
     }
 
   }
 
 
   /**
-   * The method gets the share price for the given ticker symbol and the date by parsing the string
+   * The method gets the share price for the given ticker symbol and the date from the stock data
    * passed in the readable object.
    *
    * @param tickerSymbol the ticker symbol of the company
    * @param localDate    date for which the share price is to be found
-   * @return double the share price for the given ticker symbol and date
+   * @return double the share price for the given ticker symbol and date, 0.00 if there is no price
+   *         for them.
    * @throws IllegalArgumentException if the ticker symbol or date is not valid.
    */
   public double getPriceOfShare(String tickerSymbol, LocalDate localDate)
           throws IllegalArgumentException {
 
-    StringBuilder date = new StringBuilder();
-    String day = "" + localDate.getDayOfMonth();
-    if (day.length() == 1) {
-      day = "0" + day;
+    PriceSeries series = stockPriceData.get(tickerSymbol);
+    return series == null ? 0.00 : series.getPrice(localDate);
+  }
+
+  /**
+   * The method gets the latest share price for the given ticker symbol at or before the date from
+   * the stock data passed in the readable object.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         date for which the share price is to be found
+   * @return double the share price on the date or the latest day before it, 0.00 if there is no
+   *         such price within PriceSeries.LOOK_BACK_DAYS days before the date.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date) {
+
+    PriceSeries series = stockPriceData.get(tickerSymbol);
+    return series == null ? 0.00 : series.getPriceAsOf(date);
+  }
+
+  /**
+   * The method gets the share prices for the given ticker symbol on every day between the given
+   * dates from the stock data passed in the readable object.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the share prices given for the ticker symbol within the range
+   * @throws IllegalArgumentException if the dates are null.
+   */
+  @Override
+  public PriceSeries getPrices(String tickerSymbol, LocalDate from, LocalDate to)
+          throws IllegalArgumentException {
+
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Dates of the range can't be null");
     }
-    String monthValue = "" + localDate.getMonthValue();
-    if (monthValue.length() == 1) {
-      monthValue = "0" + monthValue;
+
+    PriceSeries series = stockPriceData.get(tickerSymbol);
+    if (series == null) {
+      return PriceSeries.of(new int[0], new double[0], 0);
     }
+    return series.subSeries(from, to);
+  }
 
-    date.append(day);
-    date.append("-");
-    date.append(monthValue);
-    date.append("-");
-    date.append(localDate.getYear());
+  /**
+   * A range is read from the series of the stock built when the input is read.
+   *
+   * @return true
+   */
+  @Override
+  public boolean hasRangeQueries() {
+    return true;
+  }
+
+  /**
+   * A helper method that parses a line of the stock data and adds its price to the series of its
+   * ticker symbol. Lines that are not in the format TickerSymbol,dd-MM-yyyy,closing price are
+   * ignored.
+   *
+   * @param line     a line of the stock data.
+   * @param builders the series being built keyed by the ticker symbol.
+   */
+  private static void addLine(String line, Map<String, SeriesBuilder> builders) {
 
-    for (String stockData : stockPriceData) {
+    String[] stockdetails = line.split(",");
+    if (stockdetails.length < 3) {
+      return;
+    }
+
+    String date = stockdetails[1].trim();
+    if (date.length() != 10 || date.charAt(2) != '-' || date.charAt(5) != '-') {
+      return;
+    }
+    try {
+      int day = Integer.parseInt(date.substring(0, 2));
+      int month = Integer.parseInt(date.substring(3, 5));
+      int year = Integer.parseInt(date.substring(6));
+      int epochDay = (int) LocalDate.of(year, month, day).toEpochDay();
+      double price = Double.parseDouble(stockdetails[stockdetails.length - 1]);
 
-      if (stockData.contains(tickerSymbol + "," + date)) {
-        String[] stockdetails = stockData.split(",");
-        return Double.parseDouble(stockdetails[stockdetails.length - 1]);
+      builders.computeIfAbsent(stockdetails[0].trim(), ticker -> new SeriesBuilder())
+              .add(epochDay, price);
+    } catch (NumberFormatException | DateTimeException e) {
+      // not a line holding the price of a day.
+    }
+  }
+
+  /**
+   * Collects the prices of one ticker symbol in the order they are given until the price series
+   * is built from them.
+   */
+  private static class SeriesBuilder {
+
+    private int[] epochDays = new int[16];
+    private double[] closingPrices = new double[16];
+    private int size = 0;
+
+    /**
+     * Adds the price of a day.
+     *
+     * @param epochDay     the date as an epoch day.
+     * @param closingPrice the price of the share on the date.
+     */
+    private void add(int epochDay, double closingPrice) {
+
+      if (size == epochDays.length) {
+        epochDays = Arrays.copyOf(epochDays, size * 2);
+        closingPrices = Arrays.copyOf(closingPrices, size * 2);
       }
+      epochDays[size] = epochDay;
+      closingPrices[size] = closingPrice;
+      size++;
     }
 
-    return 0.00;
+    /**
+     * Builds the price series sorted by date, keeping the first price given for a date.
+     *
+     * @return the price series.
+     */
+    private PriceSeries build() {
+      return PriceSeries.of(epochDays, closingPrices, size);
+    }
   }
 
 }
@@ -0,0 +1,220 @@
+package datasource;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents a stage that measures the calls made through it to the decorated data source. It
+ * counts the calls and failures of each method and adds up the time spent in them, which is the
+ * time of all the stages below it. The counters can be read at any time, also while other threads
+ * are looking up prices.
+ */
+public class MetricsDataSource extends DataSourceDecorator {
+
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder lookupNanos = new LongAdder();
+  private final LongAdder rangeLookups = new LongAdder();
+  private final LongAdder rangeLookupNanos = new LongAdder();
+  private final LongAdder prefetches = new LongAdder();
+  private final LongAdder prefetchNanos = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  /**
+   * Constructs the metrics stage around the given data source.
+   *
+   * @param dataSource the data source whose calls are measured.
+   * @throws IllegalArgumentException when the data source is null.
+   */
+  public MetricsDataSource(DataSourceInterface dataSource) throws IllegalArgumentException {
+    super(dataSource);
+  }
+
+  /**
+   * Gets the share price from the decorated data source and measures the call.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the decorated data source
+   * @throws IllegalArgumentException when the decorated data source can't find the price.
+   */
+  @Override
+  public double getPriceOfShare(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+
+    long start = System.nanoTime();
+    try {
+      return dataSource.getPriceOfShare(tickerSymbol, date);
+    } catch (RuntimeException e) {
+      failures.increment();
+      throw e;
+    } finally {
+      lookups.increment();
+      lookupNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Gets the latest share price at or before the date from the decorated data source and measures
+   * the call as a lookup.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the decorated data source
+   * @throws IllegalArgumentException when the decorated data source can't fetch the price.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+
+    long start = System.nanoTime();
+    try {
+      return dataSource.getPriceOfShareAsOf(tickerSymbol, date);
+    } catch (RuntimeException e) {
+      failures.increment();
+      throw e;
+    } finally {
+      lookups.increment();
+      lookupNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Gets the share prices within the range from the decorated data source and measures the call.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the share prices given by the decorated data source
+   * @throws IllegalArgumentException when the dates are null or the decorated data source can't
+   *                                  fetch the prices.
+   */
+  @Override
+  public PriceSeries getPrices(String tickerSymbol, LocalDate from, LocalDate to)
+          throws IllegalArgumentException {
+
+    long start = System.nanoTime();
+    try {
+      return dataSource.getPrices(tickerSymbol, from, to);
+    } catch (RuntimeException e) {
+      failures.increment();
+      throw e;
+    } finally {
+      rangeLookups.increment();
+      rangeLookupNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Passes the prefetch on to the decorated data source and measures the call.
+   *
+   * @param tickerSymbols the ticker symbols of the companies about to be looked up
+   * @param date          the latest date for which prices will be looked up
+   */
+  @Override
+  public void prefetch(Collection<String> tickerSymbols, LocalDate date) {
+
+    long start = System.nanoTime();
+    try {
+      dataSource.prefetch(tickerSymbols, date);
+    } catch (RuntimeException e) {
+      failures.increment();
+      throw e;
+    } finally {
+      prefetches.increment();
+      prefetchNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Gets the number of share prices looked up through this stage.
+   *
+   * @return the number of calls to getPriceOfShare and getPriceOfShareAsOf.
+   */
+  public long getLookups() {
+    return lookups.sum();
+  }
+
+  /**
+   * Gets the total time spent looking up share prices through this stage.
+   *
+   * @return the time spent in getPriceOfShare and getPriceOfShareAsOf in nanoseconds.
+   */
+  public long getLookupNanos() {
+    return lookupNanos.sum();
+  }
+
+  /**
+   * Gets the number of ranges of share prices looked up through this stage.
+   *
+   * @return the number of calls to getPrices.
+   */
+  public long getRangeLookups() {
+    return rangeLookups.sum();
+  }
+
+  /**
+   * Gets the total time spent looking up ranges of share prices through this stage.
+   *
+   * @return the time spent in getPrices in nanoseconds.
+   */
+  public long getRangeLookupNanos() {
+    return rangeLookupNanos.sum();
+  }
+
+  /**
+   * Gets the number of prefetches made through this stage.
+   *
+   * @return the number of calls to prefetch.
+   */
+  public long getPrefetches() {
+    return prefetches.sum();
+  }
+
+  /**
+   * Gets the total time spent prefetching through this stage.
+   *
+   * @return the time spent in prefetch in nanoseconds.
+   */
+  public long getPrefetchNanos() {
+    return prefetchNanos.sum();
+  }
+
+  /**
+   * Gets the number of calls through this stage that threw an exception.
+   *
+   * @return the number of failed calls.
+   */
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  /**
+   * Gives the counters of this stage with the average time of each kind of call.
+   *
+   * @return the counters as a string.
+   */
+  @Override
+  public String toString() {
+
+    return String.format("lookups=%d (avg %.3f ms), range lookups=%d (avg %.3f ms), "
+                    + "prefetches=%d (avg %.3f ms), failures=%d",
+            getLookups(), averageMillis(lookupNanos, lookups),
+            getRangeLookups(), averageMillis(rangeLookupNanos, rangeLookups),
+            getPrefetches(), averageMillis(prefetchNanos, prefetches), getFailures());
+  }
+
+  /**
+   * A helper method that gives the average time of a kind of call.
+   *
+   * @param nanos the total time of the calls in nanoseconds.
+   * @param calls the number of calls.
+   * @return the average time of a call in milliseconds, 0 if there were no calls.
+   */
+  private static double averageMillis(LongAdder nanos, LongAdder calls) {
+
+    long count = calls.sum();
+    return count == 0 ? 0 : nanos.sum() / 1e6 / count;
+  }
+
+}
@@ -0,0 +1,264 @@
+package datasource;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Represents the daily closing prices of a single stock. The series is stored as two parallel
+ * primitive arrays, one holding the dates as epoch days and the other the closing price of the
+ * share on that date, both sorted in ascending order of the date. A lookup for a date is a binary
+ * search over the epoch days and doesn't create any objects.
+ */
+public class PriceSeries {
+
+  /**
+   * The number of days before a date within which the latest closing price is taken as the price
+   * on the date. An older price is not used, as the stock may not have traded since.
+   */
+  public static final int LOOK_BACK_DAYS = 10;
+
+  private final int[] epochDays; // dates of the series as epoch days in ascending order.
+  private final double[] closingPrices; // closing price for the date at the same index.
+
+  /**
+   * Constructs the PriceSeries from the given arrays. The arrays are used as they are and are not
+   * copied, so they must not be modified after the series is created.
+   *
+   * @param epochDays     dates of the series as epoch days, sorted in ascending order with no
+   *                      duplicates.
+   * @param closingPrices the closing price of the share for the date at the same index.
+   * @throws IllegalArgumentException when the arrays are null or of different lengths.
+   */
+  PriceSeries(int[] epochDays, double[] closingPrices) throws IllegalArgumentException {
+
+    if (epochDays == null || closingPrices == null) {
+      throw new IllegalArgumentException("Dates and prices of a price series can't be null");
+    }
+    if (epochDays.length != closingPrices.length) {
+      throw new IllegalArgumentException("Each date in a price series should have one price");
+    }
+    this.epochDays = epochDays;
+    this.closingPrices = closingPrices;
+  }
+
+  /**
+   * Gets the number of trading days in the series.
+   *
+   * @return the number of dates for which a closing price is available.
+   */
+  public int size() {
+    return epochDays.length;
+  }
+
+  /**
+   * Gets the first date for which a closing price is available.
+   *
+   * @return the first date of the series or null if the series is empty.
+   */
+  public LocalDate getFirstDate() {
+    return epochDays.length == 0 ? null : LocalDate.ofEpochDay(epochDays[0]);
+  }
+
+  /**
+   * Gets the latest date for which a closing price is available.
+   *
+   * @return the last date of the series or null if the series is empty.
+   */
+  public LocalDate getLastDate() {
+    return epochDays.length == 0 ? null : LocalDate.ofEpochDay(epochDays[epochDays.length - 1]);
+  }
+
+  /**
+   * Gets the date at the given position of the series as an epoch day.
+   *
+   * @param index position in the series, 0 being the oldest date.
+   * @return the date at the given position as an epoch day.
+   */
+  public int getEpochDay(int index) {
+    return epochDays[index];
+  }
+
+  /**
+   * Gets the closing price at the given position of the series.
+   *
+   * @param index position in the series, 0 being the oldest date.
+   * @return the closing price of the share at the given position.
+   */
+  public double getClosingPrice(int index) {
+    return closingPrices[index];
+  }
+
+  /**
+   * Provides the closing price of the share on the given date.
+   *
+   * @param date the date for which the closing price is to be found.
+   * @return the closing price on the date or 0.00 if the series has no price for the date.
+   */
+  public double getPrice(LocalDate date) {
+    return getPrice(date.toEpochDay());
+  }
+
+  /**
+   * Provides the closing price of the share on the given epoch day.
+   *
+   * @param epochDay the date for which the closing price is to be found, as an epoch day.
+   * @return the closing price on the date or 0.00 if the series has no price for the date.
+   */
+  public double getPrice(long epochDay) {
+
+    if (epochDay < Integer.MIN_VALUE || epochDay > Integer.MAX_VALUE) {
+      return 0.00;
+    }
+    int index = Arrays.binarySearch(epochDays, (int) epochDay);
+    return index < 0 ? 0.00 : closingPrices[index];
+  }
+
+  /**
+   * Provides the latest closing price of the share at or before the given date, which is the price
+   * a day the exchange was closed on is valued at.
+   *
+   * @param date the date for which the closing price is to be found.
+   * @return the closing price on the date or on the latest day of the series before it, 0.00 if
+   *         there is no such day within LOOK_BACK_DAYS days before the date.
+   */
+  public double getPriceAsOf(LocalDate date) {
+    return getPriceAsOf(date.toEpochDay());
+  }
+
+  /**
+   * Provides the latest closing price of the share at or before the given epoch day. Days shortly
+   * after the last day of the series, like a holiday not yet followed by a trading day, have the
+   * price of the last day.
+   *
+   * @param epochDay the date for which the closing price is to be found, as an epoch day.
+   * @return the closing price on the date or on the latest day of the series before it, 0.00 if
+   *         there is no such day within LOOK_BACK_DAYS days before the date.
+   */
+  public double getPriceAsOf(long epochDay) {
+
+    if (epochDays.length == 0 || epochDay < epochDays[0]) {
+      return 0.00;
+    }
+    int index = epochDays.length - 1;
+    if (epochDay < epochDays[index]) {
+      index = Arrays.binarySearch(epochDays, (int) epochDay);
+      index = index < 0 ? -index - 2 : index;
+    }
+    return epochDay - epochDays[index] > LOOK_BACK_DAYS ? 0.00 : closingPrices[index];
+  }
+
+  /**
+   * Gets the part of the series between the given dates, both inclusive.
+   *
+   * @param from the first date of the range.
+   * @param to   the last date of the range.
+   * @return the prices of the series within the range, which is empty if the first date is after
+   *         the last date.
+   */
+  public PriceSeries subSeries(LocalDate from, LocalDate to) {
+
+    int start = indexOfFirstOnOrAfter(from.toEpochDay());
+    int end = indexOfFirstOnOrAfter(to.toEpochDay() + 1);
+    if (start == 0 && end == epochDays.length) {
+      return this;
+    }
+    if (start >= end) {
+      return new PriceSeries(new int[0], new double[0]);
+    }
+    return new PriceSeries(Arrays.copyOfRange(epochDays, start, end),
+            Arrays.copyOfRange(closingPrices, start, end));
+  }
+
+  /**
+   * Merges a newer part of the series into this series. The days of this series before the first
+   * day of the newer part are kept and the newer part is added after them, so the prices of the
+   * days both have are taken from the newer part.
+   *
+   * @param newer the newer part of the series, which has to start on or before the day after the
+   *              last day of this series for the merged series to have no gap.
+   * @return the merged series.
+   */
+  public PriceSeries mergeWith(PriceSeries newer) {
+
+    if (newer.size() == 0) {
+      return this;
+    }
+    int kept = indexOfFirstOnOrAfter(newer.epochDays[0]);
+    int[] mergedDays = Arrays.copyOf(epochDays, kept + newer.size());
+    double[] mergedPrices = Arrays.copyOf(closingPrices, kept + newer.size());
+    System.arraycopy(newer.epochDays, 0, mergedDays, kept, newer.size());
+    System.arraycopy(newer.closingPrices, 0, mergedPrices, kept, newer.size());
+    return new PriceSeries(mergedDays, mergedPrices);
+  }
+
+  /**
+   * A helper method that finds the position of the first date of the series that is on or after
+   * the given epoch day.
+   *
+   * @param epochDay the date as an epoch day.
+   * @return the position of the first date on or after the epoch day, which is the size of the
+   *         series if there is no such date.
+   */
+  private int indexOfFirstOnOrAfter(long epochDay) {
+
+    if (epochDay <= Integer.MIN_VALUE) {
+      return 0;
+    }
+    if (epochDay > Integer.MAX_VALUE) {
+      return epochDays.length;
+    }
+    int index = Arrays.binarySearch(epochDays, (int) epochDay);
+    return index < 0 ? -index - 1 : index;
+  }
+
+  /**
+   * Creates a price series from dates and prices given in any order. If a date is given more than
+   * once, the price given first for it is kept. The given arrays are not modified.
+   *
+   * @param epochDays     dates as epoch days in any order.
+   * @param closingPrices the closing price of the share for the date at the same index.
+   * @param size          the number of dates to take from the start of the arrays.
+   * @return the price series sorted by date.
+   */
+  static PriceSeries of(int[] epochDays, double[] closingPrices, int size) {
+
+    int[] positions = orderByDate(epochDays, size);
+    int[] sortedDays = new int[positions.length];
+    double[] sortedPrices = new double[positions.length];
+    for (int i = 0; i < positions.length; i++) {
+      sortedDays[i] = epochDays[positions[i]];
+      sortedPrices[i] = closingPrices[positions[i]];
+    }
+    return new PriceSeries(sortedDays, sortedPrices);
+  }
+
+  /**
+   * Gives the positions of dates given in any order sorted by their dates. If a date is given more
+   * than once, only the position where it is given first is kept, so a caller keeps the first
+   * value given for a date. The given array is not modified.
+   *
+   * @param epochDays dates as epoch days in any order.
+   * @param size      the number of dates to take from the start of the array.
+   * @return the positions of the distinct dates in ascending order of the date.
+   */
+  static int[] orderByDate(int[] epochDays, int size) {
+
+    // sorting the dates together with their position keeps the first position of a date.
+    long[] order = new long[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = ( (long) epochDays[i] << 32 ) | i;
+    }
+    Arrays.sort(order);
+
+    int[] positions = new int[size];
+    int count = 0;
+    for (long entry : order) {
+      if (count > 0 && epochDays[positions[count - 1]] == (int) ( entry >> 32 )) {
+        continue;
+      }
+      positions[count++] = (int) entry;
+    }
+    return count == size ? positions : Arrays.copyOf(positions, count);
+  }
+
+}
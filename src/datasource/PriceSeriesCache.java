@@ -0,0 +1,164 @@
+package datasource;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Represents an in-memory cache of price series keyed by ticker symbol that is bounded by the
+ * memory its series take rather than by their count. The size of a series is the size of its two
+ * arrays plus a fixed overhead for the objects holding them, so a stock with decades of history
+ * counts for more than one listed last month.</p>
+ *
+ * <p>When adding a series takes the cache over its budget, the series used least recently are
+ * evicted until it fits again. A series larger than the whole budget is not cached. The cache keeps
+ * count of its hits, misses and evictions so its budget can be sized from real use. All the methods
+ * are thread safe.</p>
+ */
+public class PriceSeriesCache {
+
+  private static final long ENTRY_OVERHEAD_BYTES = 128; // series object, arrays and map entry.
+  private static final long BYTES_PER_DAY = 4 + 8; // an int date and a double price.
+
+  private final long maxBytes; // the memory the cached series may take.
+  private final LinkedHashMap<String, PriceSeries> series; // in order of use, least recent first.
+  private long sizeInBytes;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Constructs an empty cache whose series may take up to the given memory.
+   *
+   * @param maxBytes the memory budget of the cache in bytes.
+   * @throws IllegalArgumentException when the budget is negative.
+   */
+  public PriceSeriesCache(long maxBytes) throws IllegalArgumentException {
+
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("Cache size can't be negative");
+    }
+    this.maxBytes = maxBytes;
+    this.series = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Gets the series cached for a ticker symbol and marks it as the most recently used.
+   *
+   * @param tickerSymbol the ticker symbol of the company.
+   * @return the cached series or null if the ticker symbol isn't cached.
+   */
+  public synchronized PriceSeries get(String tickerSymbol) {
+
+    PriceSeries cached = series.get(tickerSymbol);
+    if (cached == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return cached;
+  }
+
+  /**
+   * Gets the series cached for a ticker symbol without counting it as a use of the cache.
+   *
+   * @param tickerSymbol the ticker symbol of the company.
+   * @return the cached series or null if the ticker symbol isn't cached.
+   */
+  synchronized PriceSeries peek(String tickerSymbol) {
+    return series.get(tickerSymbol);
+  }
+
+  /**
+   * Caches the series of a ticker symbol, replacing the series cached for it before, and evicts
+   * the least recently used series until the cache is within its budget.
+   *
+   * @param tickerSymbol the ticker symbol of the company.
+   * @param priceSeries  the price series of the stock.
+   */
+  public synchronized void put(String tickerSymbol, PriceSeries priceSeries) {
+
+    PriceSeries replaced = series.remove(tickerSymbol);
+    if (replaced != null) {
+      sizeInBytes -= sizeOf(replaced);
+    }
+    long size = sizeOf(priceSeries);
+    if (size > maxBytes) {
+      return;
+    }
+
+    series.put(tickerSymbol, priceSeries);
+    sizeInBytes += size;
+    Iterator<Map.Entry<String, PriceSeries>> leastRecent = series.entrySet().iterator();
+    while (sizeInBytes > maxBytes) {
+      sizeInBytes -= sizeOf(leastRecent.next().getValue());
+      leastRecent.remove();
+      evictions++;
+    }
+  }
+
+  /**
+   * Gets the number of series in the cache.
+   *
+   * @return the number of cached ticker symbols.
+   */
+  public synchronized int size() {
+    return series.size();
+  }
+
+  /**
+   * Gets the memory taken by the cached series.
+   *
+   * @return the size of the cached series in bytes.
+   */
+  public synchronized long getSizeInBytes() {
+    return sizeInBytes;
+  }
+
+  /**
+   * Gets the memory budget of the cache.
+   *
+   * @return the memory the cached series may take in bytes.
+   */
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * Gets the number of lookups that found their series in the cache.
+   *
+   * @return the number of hits.
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Gets the number of lookups that didn't find their series in the cache.
+   *
+   * @return the number of misses.
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Gets the number of series evicted to keep the cache within its budget.
+   *
+   * @return the number of evictions.
+   */
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * A helper method that gives the memory taken by a series.
+   *
+   * @param priceSeries the price series.
+   * @return the size of the series in bytes.
+   */
+  private static long sizeOf(PriceSeries priceSeries) {
+    return ENTRY_OVERHEAD_BYTES + BYTES_PER_DAY * priceSeries.size();
+  }
+
+}
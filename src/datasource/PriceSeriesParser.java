@@ -0,0 +1,351 @@
+package datasource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * <p>Parses the daily stock data in the csv format returned by the Alphavantage API straight from
+ * a stream of bytes into a price series. Each line holds the date in yyyy-MM-dd format, the
+ * opening, highest, lowest and closing price and the volume, with the latest day first.</p>
+ *
+ * <p>The bytes are read in blocks and the date and closing price are converted to numbers as the
+ * bytes go by, without building a string for the payload, a line or a field. Lines that don't hold
+ * a valid date and closing price, like the header or an error message, are ignored.</p>
+ */
+public class PriceSeriesParser {
+
+  private static final int BLOCK_SIZE = 64 * 1024;
+  private static final int DATE_FIELD = 0;
+  private static final int CLOSE_FIELD = 4;
+  private static final int MAX_FIELD_LENGTH = 32;
+  private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+      1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18};
+
+  private int[] epochDays; // parsed dates in the order of the lines.
+  private double[] closingPrices; // parsed closing prices in the order of the lines.
+  private int size;
+
+  private int field; // index of the field of the current line being read.
+  private final byte[] dateBytes; // bytes of the date field of the current line.
+  private int dateLength;
+  private final byte[] closeBytes; // bytes of the closing price field of the current line.
+  private int closeLength;
+
+  /**
+   * Constructs the parser with empty arrays for the parsed days.
+   */
+  private PriceSeriesParser() {
+
+    epochDays = new int[256];
+    closingPrices = new double[256];
+    size = 0;
+    field = 0;
+    dateBytes = new byte[MAX_FIELD_LENGTH];
+    closeBytes = new byte[MAX_FIELD_LENGTH];
+  }
+
+  /**
+   * Reads the given stream till its end and parses the daily closing prices from it. The stream is
+   * not closed.
+   *
+   * @param in the stream of csv data returned by the API.
+   * @return the closing prices ordered from the oldest to the latest day.
+   * @throws IOException when the stream can't be read.
+   */
+  public static PriceSeries parse(InputStream in) throws IOException {
+
+    PriceSeriesParser parser = new PriceSeriesParser();
+    byte[] block = new byte[BLOCK_SIZE];
+    int read;
+    while (( read = in.read(block) ) != -1) {
+      parser.accept(block, 0, read);
+    }
+    return parser.finish();
+  }
+
+  /**
+   * Parses the daily closing prices from csv data that is already in memory.
+   *
+   * @param data   the csv data returned by the API.
+   * @param offset the position of the first byte of the data.
+   * @param length the number of bytes of the data.
+   * @return the closing prices ordered from the oldest to the latest day.
+   */
+  public static PriceSeries parse(byte[] data, int offset, int length) {
+
+    PriceSeriesParser parser = new PriceSeriesParser();
+    parser.accept(data, offset, length);
+    return parser.finish();
+  }
+
+  /**
+   * A helper method that feeds a block of bytes through the parser. A line may span blocks.
+   *
+   * @param block  the bytes read.
+   * @param offset the position of the first byte to parse.
+   * @param length the number of bytes to parse.
+   */
+  private void accept(byte[] block, int offset, int length) {
+
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      byte b = block[i];
+      if (b == '\n') {
+        endLine();
+      } else if (b == ',') {
+        field++;
+      } else if (b != '\r') {
+        if (field == DATE_FIELD) {
+          if (dateLength < MAX_FIELD_LENGTH) {
+            dateBytes[dateLength] = b;
+          }
+          dateLength++;
+        } else if (field == CLOSE_FIELD) {
+          if (closeLength < MAX_FIELD_LENGTH) {
+            closeBytes[closeLength] = b;
+          }
+          closeLength++;
+        }
+      }
+    }
+  }
+
+  /**
+   * A helper method that ends the parsing and builds the series, ordering the days from the oldest
+   * to the latest.
+   *
+   * @return the parsed series.
+   */
+  private PriceSeries finish() {
+
+    endLine();
+
+    boolean descending = true;
+    for (int i = 1; i < size && descending; i++) {
+      descending = epochDays[i] < epochDays[i - 1];
+    }
+    if (!descending) {
+      return PriceSeries.of(epochDays, closingPrices, size);
+    }
+
+    int[] days = new int[size];
+    double[] prices = new double[size];
+    for (int i = 0; i < size; i++) {
+      days[i] = epochDays[size - 1 - i];
+      prices[i] = closingPrices[size - 1 - i];
+    }
+    return new PriceSeries(days, prices);
+  }
+
+  /**
+   * A helper method that records the day of the line just read if it holds a valid date and
+   * closing price, and gets ready for the next line.
+   */
+  private void endLine() {
+
+    if (field >= CLOSE_FIELD) {
+      int epochDay = parseEpochDay();
+      double closingPrice = parseClosingPrice();
+      if (epochDay != Integer.MIN_VALUE && !Double.isNaN(closingPrice)) {
+        if (size == epochDays.length) {
+          epochDays = Arrays.copyOf(epochDays, size * 2);
+          closingPrices = Arrays.copyOf(closingPrices, size * 2);
+        }
+        epochDays[size] = epochDay;
+        closingPrices[size] = closingPrice;
+        size++;
+      }
+    }
+    field = 0;
+    dateLength = 0;
+    closeLength = 0;
+  }
+
+  /**
+   * A helper method that converts the date field of the current line from yyyy-MM-dd format to an
+   * epoch day.
+   *
+   * @return the date as an epoch day or Integer.MIN_VALUE if the field isn't a valid date.
+   */
+  private int parseEpochDay() {
+
+    if (dateLength != 10 || dateBytes[4] != '-' || dateBytes[7] != '-') {
+      return Integer.MIN_VALUE;
+    }
+    return toEpochDay(digits(dateBytes, 0, 4), digits(dateBytes, 5, 2), digits(dateBytes, 8, 2));
+  }
+
+  /**
+   * Converts a date given as its year, month and day to an epoch day without creating a LocalDate.
+   *
+   * @param year  the year, from 1.
+   * @param month the month from 1 to 12.
+   * @param day   the day of the month.
+   * @return the date as an epoch day or Integer.MIN_VALUE if it isn't a valid date.
+   */
+  static int toEpochDay(int year, int month, int day) {
+
+    if (year < 1 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+      return Integer.MIN_VALUE;
+    }
+
+    // days from the civil date, counting years from March so that leap days come last.
+    int y = month <= 2 ? year - 1 : year;
+    int era = y / 400;
+    int yearOfEra = y - era * 400;
+    int dayOfYear = ( 153 * ( month > 2 ? month - 3 : month + 9 ) + 2 ) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+
+  /**
+   * A helper method that converts the closing price field of the current line to a double.
+   *
+   * @return the closing price or NaN if the field isn't a number.
+   */
+  private double parseClosingPrice() {
+
+    if (closeLength > MAX_FIELD_LENGTH) {
+      return Double.NaN;
+    }
+    return parseDecimal(closeBytes, 0, closeLength);
+  }
+
+  /**
+   * Converts the given bytes to a double. Plain decimal numbers are converted from their digits,
+   * which gives the same value as Double.parseDouble without creating a string, and anything else
+   * falls back to Double.parseDouble.
+   *
+   * @param bytes  the bytes holding the number.
+   * @param offset the position of the first byte of the number.
+   * @param length the number of bytes of the number.
+   * @return the number or NaN if the bytes are not a number.
+   */
+  static double parseDecimal(byte[] bytes, int offset, int length) {
+
+    if (length <= 0) {
+      return Double.NaN;
+    }
+
+    long mantissa = 0;
+    int digitCount = 0;
+    int fractionDigits = -1;
+    boolean plain = true;
+    for (int i = offset; i < offset + length && plain; i++) {
+      byte b = bytes[i];
+      if (b >= '0' && b <= '9') {
+        mantissa = mantissa * 10 + ( b - '0' );
+        digitCount++;
+        if (fractionDigits >= 0) {
+          fractionDigits++;
+        }
+      } else if (b == '.' && fractionDigits < 0) {
+        fractionDigits = 0;
+      } else {
+        plain = false;
+      }
+    }
+
+    if (plain && digitCount > 0 && digitCount <= 15) {
+      return fractionDigits <= 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+    }
+    try {
+      return Double.parseDouble(new String(bytes, offset, length, StandardCharsets.US_ASCII)
+              .trim());
+    } catch (NumberFormatException e) {
+      return Double.NaN;
+    }
+  }
+
+  /**
+   * Converts the given bytes of a buffer to a double the same way as parseDecimal does for an
+   * array, reading plain decimal numbers straight from the buffer. Only a number that isn't plain
+   * is copied out of the buffer to fall back to Double.parseDouble.
+   *
+   * @param buffer the buffer holding the number.
+   * @param offset the position of the first byte of the number.
+   * @param length the number of bytes of the number.
+   * @return the number or NaN if the bytes are not a number.
+   */
+  static double parseDecimal(ByteBuffer buffer, int offset, int length) {
+
+    if (length <= 0) {
+      return Double.NaN;
+    }
+
+    long mantissa = 0;
+    int digitCount = 0;
+    int fractionDigits = -1;
+    boolean plain = true;
+    for (int i = offset; i < offset + length && plain; i++) {
+      byte b = buffer.get(i);
+      if (b >= '0' && b <= '9') {
+        mantissa = mantissa * 10 + ( b - '0' );
+        digitCount++;
+        if (fractionDigits >= 0) {
+          fractionDigits++;
+        }
+      } else if (b == '.' && fractionDigits < 0) {
+        fractionDigits = 0;
+      } else {
+        plain = false;
+      }
+    }
+
+    if (plain && digitCount > 0 && digitCount <= 15) {
+      return fractionDigits <= 0 ? mantissa : mantissa / POWERS_OF_TEN[fractionDigits];
+    }
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(offset + i);
+    }
+    return parseDecimal(bytes, 0, length);
+  }
+
+  /**
+   * A helper method that reads a number made of the given count of decimal digits.
+   *
+   * @param bytes  the bytes holding the digits.
+   * @param offset the position of the first digit.
+   * @param count  the number of digits.
+   * @return the number or -1 if one of the bytes isn't a digit.
+   */
+  static int digits(byte[] bytes, int offset, int count) {
+
+    int value = 0;
+    for (int i = offset; i < offset + count; i++) {
+      if (bytes[i] < '0' || bytes[i] > '9') {
+        return -1;
+      }
+      value = value * 10 + ( bytes[i] - '0' );
+    }
+    return value;
+  }
+
+  /**
+   * A helper method that gives the number of days in a month.
+   *
+   * @param year  the year.
+   * @param month the month from 1 to 12.
+   * @return the number of days in the month of that year.
+   */
+  private static int lengthOfMonth(int year, int month) {
+
+    switch (month) {
+      case 2:
+        boolean leap = ( year % 4 == 0 && year % 100 != 0 ) || year % 400 == 0;
+        return leap ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+}
@@ -0,0 +1,187 @@
+package datasource;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Represents a sliding window rate limiter that hands out at most a given number of permits
+ * within any window of the given period, for example the 5 calls per minute allowed by the
+ * Alphavantage API.</p>
+ *
+ * <p>Requests for a permit are served in the order they are made. A request that can't be served
+ * right away is queued and its future is completed as soon as the oldest permit in the window
+ * expires, so a caller waits only as long as needed. Callers can either wait on the returned
+ * future asynchronously or block using acquire.</p>
+ */
+public class RateLimiter {
+
+  private final int permits; // permits that can be handed out within a period.
+  private final long periodNanos; // length of the sliding window.
+  private final ArrayDeque<Long> grantTimes; // times of the permits handed out in the window.
+  private final Queue<CompletableFuture<Void>> pending; // requests waiting for a permit.
+  private final ScheduledExecutorService scheduler; // hands out permits to the pending requests.
+  private boolean drainScheduled;
+
+  /**
+   * Constructs the RateLimiter that hands out the given number of permits per period.
+   *
+   * @param permits the number of permits that can be handed out within any window of the period.
+   * @param period  the length of the window.
+   * @param unit    the time unit of the period.
+   * @throws IllegalArgumentException when the permits or period is not positive or the unit is
+   *                                  null.
+   */
+  public RateLimiter(int permits, long period, TimeUnit unit) throws IllegalArgumentException {
+
+    if (permits < 1) {
+      throw new IllegalArgumentException("Number of permits should be at least one");
+    }
+    if (period <= 0 || unit == null) {
+      throw new IllegalArgumentException("Period of the rate limiter should be positive");
+    }
+    this.permits = permits;
+    this.periodNanos = unit.toNanos(period);
+    this.grantTimes = new ArrayDeque<>();
+    this.pending = new ArrayDeque<>();
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "rate-limiter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.drainScheduled = false;
+  }
+
+  /**
+   * Gets the number of permits that can be handed out within a period.
+   *
+   * @return the number of permits per period.
+   */
+  public int getPermits() {
+    return permits;
+  }
+
+  /**
+   * Requests a permit. The returned future is completed once the permit is handed out, which is
+   * right away if fewer than the allowed number of permits were handed out within the last period
+   * and no other request is waiting. Cancelling the future gives up the request.
+   *
+   * @return a future that is completed when the permit is handed out.
+   */
+  public CompletableFuture<Void> acquireAsync() {
+
+    CompletableFuture<Void> permit = new CompletableFuture<>();
+    synchronized (this) {
+      long now = System.nanoTime();
+      expireGrants(now);
+      if (pending.isEmpty() && grantTimes.size() < permits) {
+        grantTimes.addLast(now);
+        permit.complete(null);
+        return permit;
+      }
+      pending.add(permit);
+      scheduleDrain(now);
+    }
+    return permit;
+  }
+
+  /**
+   * Requests a permit and blocks the calling thread until it is handed out.
+   *
+   * @throws InterruptedException when the calling thread is interrupted while waiting, the request
+   *                              is given up in that case.
+   */
+  public void acquire() throws InterruptedException {
+
+    CompletableFuture<Void> permit = acquireAsync();
+    try {
+      permit.get();
+    } catch (InterruptedException e) {
+      permit.cancel(false);
+      throw e;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Unable to get a permit from the rate limiter");
+    }
+  }
+
+  /**
+   * Takes a permit only if one can be handed out right away.
+   *
+   * @return true if a permit was handed out else false.
+   */
+  public synchronized boolean tryAcquire() {
+
+    long now = System.nanoTime();
+    expireGrants(now);
+    if (pending.isEmpty() && grantTimes.size() < permits) {
+      grantTimes.addLast(now);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * A helper method that hands out permits to the pending requests in their order for as long as
+   * the window allows and schedules itself again for the remaining requests. The futures are
+   * completed outside of the lock, so no caller code runs while holding it.
+   */
+  private void drain() {
+
+    List<CompletableFuture<Void>> granted = new ArrayList<>();
+    synchronized (this) {
+      drainScheduled = false;
+      long now = System.nanoTime();
+      expireGrants(now);
+      while (!pending.isEmpty() && grantTimes.size() < permits) {
+        CompletableFuture<Void> permit = pending.poll();
+        if (!permit.isDone()) {
+          grantTimes.addLast(now);
+          granted.add(permit);
+        }
+      }
+      if (!pending.isEmpty()) {
+        scheduleDrain(now);
+      }
+    }
+
+    for (CompletableFuture<Void> permit : granted) {
+      permit.complete(null);
+    }
+  }
+
+  /**
+   * A helper method that schedules the pending requests to be served when the oldest permit in the
+   * window expires. Must be called while holding the lock.
+   *
+   * @param now the current time in nanoseconds.
+   */
+  private void scheduleDrain(long now) {
+
+    if (drainScheduled) {
+      return;
+    }
+    long delay = grantTimes.isEmpty() ? 0L : grantTimes.peekFirst() + periodNanos - now;
+    scheduler.schedule(this::drain, Math.max(0L, delay), TimeUnit.NANOSECONDS);
+    drainScheduled = true;
+  }
+
+  /**
+   * A helper method that forgets the permits handed out before the current window. Must be called
+   * while holding the lock.
+   *
+   * @param now the current time in nanoseconds.
+   */
+  private void expireGrants(long now) {
+
+    while (!grantTimes.isEmpty() && now - grantTimes.peekFirst() >= periodNanos) {
+      grantTimes.pollFirst();
+    }
+  }
+
+}
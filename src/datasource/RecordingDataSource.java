@@ -0,0 +1,119 @@
+package datasource;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Represents a data source that passes every lookup on to another data source and records the
+ * price series of each stock it is asked about into an archive on the local disk, so that the same
+ * stock data can later be served by a ReplayDataSource without calling the other source.</p>
+ *
+ * <p>The whole series the other source holds for a stock is recorded, not only the days looked
+ * up, by asking it for its prices from the year 1900 to the latest date looked up. A stock is
+ * recorded again only when a later date than the one it was last recorded for is looked up. The
+ * archive has the same format as the price cache of the AlphavantageAPI.</p>
+ */
+public class RecordingDataSource extends DataSourceDecorator {
+
+  private static final LocalDate RECORD_FROM = LocalDate.of(1900, 1, 1);
+
+  private final DiskPriceCache archive; // price series recorded on the disk.
+  private final Map<String, LocalDate> recordedUpTo; // latest date each stock was recorded for.
+
+  /**
+   * Constructs the RecordingDataSource that records the stock data of the given data source under
+   * the given directory.
+   *
+   * @param dataSource       the data source whose stock data is recorded.
+   * @param archiveDirectory the directory under which the price series are recorded.
+   * @throws IllegalArgumentException when the data source or directory is null.
+   */
+  public RecordingDataSource(DataSourceInterface dataSource, File archiveDirectory)
+          throws IllegalArgumentException {
+
+    super(dataSource);
+    this.archive = new DiskPriceCache(archiveDirectory);
+    this.recordedUpTo = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Gets the share price from the recorded data source and records the price series of the stock.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the recorded data source
+   * @throws IllegalArgumentException when the recorded data source can't find the price.
+   */
+  @Override
+  public double getPriceOfShare(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+
+    double price = dataSource.getPriceOfShare(tickerSymbol, date);
+    record(tickerSymbol, date);
+    return price;
+  }
+
+  /**
+   * Gets the latest share price at or before the date from the recorded data source and records
+   * the price series of the stock.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the recorded data source
+   * @throws IllegalArgumentException when the recorded data source can't fetch the price.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException {
+
+    double price = dataSource.getPriceOfShareAsOf(tickerSymbol, date);
+    record(tickerSymbol, date);
+    return price;
+  }
+
+  /**
+   * Gets the share prices within the range from the recorded data source and records the price
+   * series of the stock.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the share prices given by the recorded data source
+   * @throws IllegalArgumentException when the dates are null or the recorded data source can't
+   *                                  fetch the prices.
+   */
+  @Override
+  public PriceSeries getPrices(String tickerSymbol, LocalDate from, LocalDate to)
+          throws IllegalArgumentException {
+
+    PriceSeries series = dataSource.getPrices(tickerSymbol, from, to);
+    record(tickerSymbol, to);
+    return series;
+  }
+
+  /**
+   * A helper method that records the price series the recorded data source holds for a stock up to
+   * the given date, unless it was already recorded for that date or a later one. Empty series are
+   * not recorded.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date looked up
+   */
+  private void record(String tickerSymbol, LocalDate date) {
+
+    LocalDate recorded = recordedUpTo.get(tickerSymbol);
+    if (recorded != null && recorded.compareTo(date) >= 0) {
+      return;
+    }
+
+    PriceSeries series = dataSource.getPrices(tickerSymbol, RECORD_FROM, date);
+    if (series.size() > 0) {
+      archive.write(tickerSymbol, series);
+    }
+    recordedUpTo.merge(tickerSymbol, date, (older, newer) -> older.compareTo(newer) >= 0
+            ? older : newer);
+  }
+
+}
@@ -0,0 +1,196 @@
+package datasource;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Represents a data source that serves the stock data recorded by a RecordingDataSource, or
+ * cached by the AlphavantageAPI, from an archive on the local disk without calling any outside
+ * service. Runs against it are repeatable, which makes it suitable for measuring the performance
+ * of the model.</p>
+ *
+ * <p>The price series of a stock is read from the archive when it is first looked up and kept in
+ * memory after that. A latency can be given to simulate the network, which is then waited for on
+ * the first lookup of each stock, the way a remote source waits for its fetch. Stocks that are not
+ * in the archive have no prices, so their price is 0.00 on every date.</p>
+ */
+public class ReplayDataSource implements DataSourceInterface {
+
+  private final DiskPriceCache archive; // price series recorded on the disk.
+  private final long latencyNanos; // time waited for the first lookup of a stock.
+  private final Map<String, PriceSeries> stockData; // price series read from the archive.
+
+  /**
+   * Constructs the ReplayDataSource that serves the price series recorded under the given
+   * directory with no added latency.
+   *
+   * @param archiveDirectory the directory under which the price series are recorded.
+   * @throws IllegalArgumentException when the directory is null.
+   */
+  public ReplayDataSource(File archiveDirectory) throws IllegalArgumentException {
+
+    this(archiveDirectory, 0, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Constructs the ReplayDataSource that serves the price series recorded under the given
+   * directory and waits for the given latency on the first lookup of each stock.
+   *
+   * @param archiveDirectory the directory under which the price series are recorded.
+   * @param latency          the simulated time of fetching a stock.
+   * @param unit             the unit of the latency.
+   * @throws IllegalArgumentException when the directory or unit is null or the latency is negative.
+   */
+  public ReplayDataSource(File archiveDirectory, long latency, TimeUnit unit)
+          throws IllegalArgumentException {
+
+    if (unit == null || latency < 0) {
+      throw new IllegalArgumentException("Latency should be a non negative time");
+    }
+    this.archive = new DiskPriceCache(archiveDirectory);
+    this.latencyNanos = unit.toNanos(latency);
+    this.stockData = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Provides the recorded closing price of a share on the requested date.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return the recorded price or 0.00 if no price was recorded for the stock on the date.
+   * @throws IllegalStateException when the thread is interrupted while waiting for the latency.
+   */
+  public double getPriceOfShare(String tickerSymbol, LocalDate date)
+          throws IllegalStateException {
+
+    return getSeries(tickerSymbol).getPrice(date);
+  }
+
+  /**
+   * Provides the latest recorded closing price of a share at or before the requested date.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return the recorded price on the date or the latest day before it, 0.00 if there is no such
+   *         price within PriceSeries.LOOK_BACK_DAYS days before the date.
+   * @throws IllegalStateException when the thread is interrupted while waiting for the latency.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date)
+          throws IllegalStateException {
+
+    return getSeries(tickerSymbol).getPriceAsOf(date);
+  }
+
+  /**
+   * Provides the recorded closing prices of a share on every day between the given dates, both
+   * inclusive.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the recorded prices within the range.
+   * @throws IllegalArgumentException when the dates are null.
+   * @throws IllegalStateException    when the thread is interrupted while waiting for the latency.
+   */
+  @Override
+  public PriceSeries getPrices(String tickerSymbol, LocalDate from, LocalDate to)
+          throws IllegalArgumentException, IllegalStateException {
+
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Dates of the range can't be null");
+    }
+    return getSeries(tickerSymbol).subSeries(from, to);
+  }
+
+  /**
+   * A range is read from the series of the stock in the archive.
+   *
+   * @return true
+   */
+  @Override
+  public boolean hasRangeQueries() {
+    return true;
+  }
+
+  /**
+   * Reads the price series of the given stocks from the archive, waiting for the latency once for
+   * all of them as a remote source fetching them concurrently would.
+   *
+   * @param tickerSymbols the ticker symbols of the companies about to be looked up
+   * @param date          the latest date for which prices will be looked up
+   */
+  @Override
+  public void prefetch(Collection<String> tickerSymbols, LocalDate date) {
+
+    if (tickerSymbols == null) {
+      return;
+    }
+
+    boolean waited = false;
+    for (String tickerSymbol : tickerSymbols) {
+      if (!stockData.containsKey(tickerSymbol)) {
+        if (!waited) {
+          simulateLatency();
+          waited = true;
+        }
+        stockData.putIfAbsent(tickerSymbol, readSeries(tickerSymbol));
+      }
+    }
+  }
+
+  /**
+   * A helper method that gives the price series of a stock, reading it from the archive after
+   * waiting for the latency if it isn't in memory yet.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @return the recorded price series of the stock.
+   * @throws IllegalStateException when the thread is interrupted while waiting for the latency.
+   */
+  private PriceSeries getSeries(String tickerSymbol) throws IllegalStateException {
+
+    PriceSeries series = stockData.get(tickerSymbol);
+    if (series != null) {
+      return series;
+    }
+    simulateLatency();
+    series = readSeries(tickerSymbol);
+    PriceSeries existing = stockData.putIfAbsent(tickerSymbol, series);
+    return existing == null ? series : existing;
+  }
+
+  /**
+   * A helper method that reads the price series of a stock from the archive.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @return the recorded price series or an empty series if the stock wasn't recorded.
+   */
+  private PriceSeries readSeries(String tickerSymbol) {
+
+    PriceSeries series = archive.read(tickerSymbol);
+    return series == null ? new PriceSeries(new int[0], new double[0]) : series;
+  }
+
+  /**
+   * A helper method that waits for the latency of a simulated fetch.
+   *
+   * @throws IllegalStateException when the thread is interrupted while waiting.
+   */
+  private void simulateLatency() throws IllegalStateException {
+
+    if (latencyNanos == 0) {
+      return;
+    }
+    try {
+      TimeUnit.NANOSECONDS.sleep(latencyNanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while replaying the stock data");
+    }
+  }
+
+}
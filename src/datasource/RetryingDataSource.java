@@ -0,0 +1,142 @@
+package datasource;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Represents a stage that calls the decorated data source again when it is unavailable. The wait
+ * before each new attempt doubles, starting from the given backoff, and the last failure is thrown
+ * once all the attempts fail. Only a DataSourceUnavailableException is retried, as any other
+ * failure would happen again. Prefetches are not retried as their failures are ignored anyway.
+ */
+public class RetryingDataSource extends DataSourceDecorator {
+
+  private static final int DEFAULT_ATTEMPTS = 3;
+  private static final long DEFAULT_BACKOFF_MILLIS = 500;
+
+  private final int maxAttempts; // the number of calls made before giving up.
+  private final long initialBackoffNanos; // the wait before the second attempt.
+
+  /**
+   * Constructs the retry stage around the given data source making up to 3 attempts, waiting half
+   * a second before the second one.
+   *
+   * @param dataSource the data source whose calls are retried.
+   * @throws IllegalArgumentException when the data source is null.
+   */
+  public RetryingDataSource(DataSourceInterface dataSource) throws IllegalArgumentException {
+
+    this(dataSource, DEFAULT_ATTEMPTS, DEFAULT_BACKOFF_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Constructs the retry stage around the given data source.
+   *
+   * @param dataSource     the data source whose calls are retried.
+   * @param maxAttempts    the number of calls made before giving up, at least 1.
+   * @param initialBackoff the wait before the second attempt, which doubles for each attempt after.
+   * @param unit           the unit of the backoff.
+   * @throws IllegalArgumentException when the data source or unit is null, there are no attempts or
+   *                                  the backoff is negative.
+   */
+  public RetryingDataSource(DataSourceInterface dataSource, int maxAttempts, long initialBackoff,
+                            TimeUnit unit) throws IllegalArgumentException {
+
+    super(dataSource);
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("There should be at least one attempt");
+    }
+    if (unit == null || initialBackoff < 0) {
+      throw new IllegalArgumentException("Backoff should be a non negative time");
+    }
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffNanos = unit.toNanos(initialBackoff);
+  }
+
+  /**
+   * Gets the share price from the decorated data source, retrying while it is unavailable.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the decorated data source
+   * @throws IllegalArgumentException when the decorated data source can't find the price.
+   * @throws IllegalStateException    when the thread is interrupted while waiting to retry.
+   */
+  @Override
+  public double getPriceOfShare(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException, IllegalStateException {
+
+    return withRetries(() -> dataSource.getPriceOfShare(tickerSymbol, date));
+  }
+
+  /**
+   * Gets the latest share price at or before the date from the decorated data source, retrying
+   * while it is unavailable.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param date         the date for which the stock price is to be found
+   * @return double the share price given by the decorated data source
+   * @throws IllegalArgumentException when the decorated data source can't fetch the price.
+   * @throws IllegalStateException    when the thread is interrupted while waiting to retry.
+   */
+  @Override
+  public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date)
+          throws IllegalArgumentException, IllegalStateException {
+
+    return withRetries(() -> dataSource.getPriceOfShareAsOf(tickerSymbol, date));
+  }
+
+  /**
+   * Gets the share prices within the range from the decorated data source, retrying while it is
+   * unavailable.
+   *
+   * @param tickerSymbol the ticker symbol of the company
+   * @param from         the first date of the range
+   * @param to           the last date of the range
+   * @return the share prices given by the decorated data source
+   * @throws IllegalArgumentException when the dates are null or the decorated data source can't
+   *                                  fetch the prices.
+   * @throws IllegalStateException    when the thread is interrupted while waiting to retry.
+   */
+  @Override
+  public PriceSeries getPrices(String tickerSymbol, LocalDate from, LocalDate to)
+          throws IllegalArgumentException, IllegalStateException {
+
+    return withRetries(() -> dataSource.getPrices(tickerSymbol, from, to));
+  }
+
+  /**
+   * A helper method that makes a call to the decorated data source until it succeeds, fails with
+   * an error other than the source being unavailable or runs out of attempts.
+   *
+   * @param call the call to the decorated data source.
+   * @param <T>  the type of the result of the call.
+   * @return the result of the call.
+   * @throws DataSourceUnavailableException when every attempt found the source unavailable.
+   * @throws IllegalStateException          when the thread is interrupted while waiting to retry.
+   */
+  private <T> T withRetries(Supplier<T> call)
+          throws DataSourceUnavailableException, IllegalStateException {
+
+    long backoffNanos = initialBackoffNanos;
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return call.get();
+      } catch (DataSourceUnavailableException e) {
+        if (attempt >= maxAttempts) {
+          throw e;
+        }
+      }
+
+      try {
+        TimeUnit.NANOSECONDS.sleep(backoffNanos);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting to retry the data source");
+      }
+      backoffNanos *= 2;
+    }
+  }
+
+}
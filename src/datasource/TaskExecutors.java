@@ -0,0 +1,87 @@
+package datasource;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>Creates executors that run every task on a thread of its own, for work that mostly waits on
+ * the network or the disk such as fetching price series or catching up the strategies of many
+ * portfolios. Such tasks need no pool sized in advance, so thousands of them can be in flight at
+ * once and each can simply block while it waits.</p>
+ *
+ * <p>On a Java runtime with virtual threads each task runs on a virtual thread, which costs little
+ * more than the task itself. On an older runtime the tasks run on a cached pool of daemon threads
+ * instead, which reuses the threads of finished tasks. Either way callers that have to respect a
+ * limit, like the calls allowed by an API, bound the tasks doing that work with a semaphore rather
+ * than through the size of a pool.</p>
+ */
+public final class TaskExecutors {
+
+  private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+  /**
+   * Prevents the utility class from being instantiated.
+   */
+  private TaskExecutors() {
+  }
+
+  /**
+   * Creates an executor that runs every task submitted to it on a thread of its own.
+   *
+   * @param threadName the name of the threads of the fallback pool.
+   * @return the executor, which should be shut down once it is no longer used.
+   */
+  public static ExecutorService newThreadPerTaskExecutor(String threadName) {
+
+    if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+      try {
+        return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        // the pool of platform threads below does the same job.
+      }
+    }
+    return newDaemonThreadPerTaskExecutor(threadName);
+  }
+
+  /**
+   * Creates an executor that runs every task submitted to it on a platform daemon thread of a
+   * cached pool, which is what newThreadPerTaskExecutor falls back to without virtual threads. A
+   * task is given a new thread when no thread of a finished task is idle.
+   *
+   * @param threadName the name of the threads of the pool.
+   * @return the executor, which should be shut down once it is no longer used.
+   */
+  public static ExecutorService newDaemonThreadPerTaskExecutor(String threadName) {
+
+    return Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, threadName);
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Tells whether the executors created run their tasks on virtual threads.
+   *
+   * @return true if the runtime has virtual threads else false.
+   */
+  public static boolean hasVirtualThreads() {
+    return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+  }
+
+  /**
+   * A helper method that finds the factory of virtual thread executors of the runtime.
+   *
+   * @return the factory method or null if the runtime has no virtual threads.
+   */
+  private static Method findVirtualThreadExecutor() {
+
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException | SecurityException e) {
+      return null;
+    }
+  }
+
+}
@@ -9,6 +9,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import javax.swing.SwingUtilities;
 
 import model.VirtualStockModelInterface;
 import view.IGUIView;
@@ -220,14 +224,20 @@ public class GUIController {
         return;
       }
 
-      try {
-        view.showLoadingMessage();
-        double totalValue = model.getTotalValue(data[0], data[1]);
-        view.writeToAppendable("Total value of portfolio: " + data[0] + " on " + data[1] + " is: $"
-                + totalValue);
-      } catch (IllegalArgumentException e) {
-        view.writeErrorMessage(e.getMessage());
-      }
+      // the prices are fetched while the loading message is shown and the result is shown on the
+      // event dispatch thread once they are all known, so the window never freezes meanwhile.
+      CompletableFuture<Double> totalValue = model.getTotalValueAsync(data[0], data[1]);
+      view.showLoadingMessage();
+      totalValue.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+        if (error == null) {
+          view.writeToAppendable("Total value of portfolio: " + data[0] + " on " + data[1]
+                  + " is: $" + value);
+        } else if (error instanceof CompletionException && error.getCause() != null) {
+          view.writeErrorMessage(error.getCause().getMessage());
+        } else {
+          view.writeErrorMessage(error.getMessage());
+        }
+      }));
 
     }
   }
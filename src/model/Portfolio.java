@@ -1,8 +1,12 @@
 package model;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -13,6 +17,12 @@ import java.util.Set;
  * <p>Changes -  Two new methods are added - addToStocksSet() and getStocksInAPortfolio() as well
  * as instance variable uniqueStocksOfAPortfolio is added in order to maintain the set of stocks a
  * portfolio contains.(stocks that are not bought, it just contain tickers).  </p>
+ *
+ * <p>The shares held of each stock and the cost of all the stocks are also kept as running totals
+ * by buy date, updated as stocks are added, so the shares held or the cost basis on any date take
+ * one binary search however many stocks were bought. These totals aren't saved with the portfolio
+ * and are rebuilt from its stocks the first time they are needed after the portfolio is
+ * loaded.</p>
  */
 public class Portfolio implements PortfolioInterface {
 
@@ -20,6 +30,8 @@ public class Portfolio implements PortfolioInterface {
   protected final List<Stock> stocks;//represents the list of stocks a portfolio contains.
   protected final Set<String> uniqueStocksOfAPortfolio;//set of stocks a portfolio can contain.
   protected List<DollarCostStrategy> strategies;
+  private transient Map<String, RunningTotal> positions;//shares held of each stock by buy date.
+  private transient RunningTotal costBasis;//cost of the stocks with commission by buy date.
 
   /**
    * Constructs a Portfolio object by assigning the name of the portfolio, initializing the stock
@@ -53,6 +65,9 @@ public class Portfolio implements PortfolioInterface {
   public void addStock(Stock stock) {
     stocks.add(stock);
     addToStocksSet(stock.getStockTickerSymbol());
+    if (positions != null) {
+      addToRunningTotals(stock);
+    }
   }
 
   /**
@@ -65,6 +80,57 @@ public class Portfolio implements PortfolioInterface {
     return new ArrayList<>(stocks);
   }
 
+  @Override
+  public Map<String, Long> getSharesHeld(LocalDate date) {
+
+    buildRunningTotals();
+    long epochDay = date.toEpochDay();
+    Map<String, Long> sharesHeld = new LinkedHashMap<>();
+    for (Map.Entry<String, RunningTotal> position : positions.entrySet()) {
+      if (position.getValue().isStartedBy(epochDay)) {
+        sharesHeld.put(position.getKey(), (long) position.getValue().getTotal(epochDay));
+      }
+    }
+    return sharesHeld;
+  }
+
+  @Override
+  public double getCostBasis(LocalDate date) {
+
+    buildRunningTotals();
+    return costBasis.getTotal(date.toEpochDay());
+  }
+
+  /**
+   * A helper method that builds the running totals from the stocks of the portfolio if they
+   * haven't been built since it was created or loaded.
+   */
+  private void buildRunningTotals() {
+
+    if (positions == null) {
+      positions = new LinkedHashMap<>();
+      costBasis = new RunningTotal();
+      for (Stock stock : stocks) {
+        addToRunningTotals(stock);
+      }
+    }
+  }
+
+  /**
+   * A helper method that adds the shares of a stock to the running total of its ticker symbol and
+   * its cost to the running cost basis.
+   *
+   * @param stock the stock bought.
+   */
+  private void addToRunningTotals(Stock stock) {
+
+    long epochDay = stock.getBuyDate().toEpochDay();
+    positions.computeIfAbsent(stock.getStockTickerSymbol(), tickerSymbol -> new RunningTotal())
+            .add(epochDay, stock.getNumberOfShares());
+    costBasis.add(epochDay, ( stock.getNumberOfShares() * stock.getPriceOfUnitShare() )
+            + stock.getCommissionFee());
+  }
+
   @Override
   public List<DollarCostStrategy> getStrategies() {
     return this.strategies;
@@ -85,5 +151,79 @@ public class Portfolio implements PortfolioInterface {
     this.strategies.add(strategy);
   }
 
+  /**
+   * Represents an amount added up over the distinct buy dates, sorted by date, with the amount of
+   * each date and the total up to it. The totals are added up with compensated summation, so the
+   * cost of many stocks doesn't gather rounding errors. As the amounts of a date are added up
+   * before they are added to the total, a total may differ in its last digits from adding the
+   * amounts in the order the stocks were bought. Whole numbers of shares up to 2^53 add up exactly.
+   * Stocks are mostly bought in order of date, which only appends to the arrays.
+   */
+  private static class RunningTotal {
+
+    private long[] epochDays = new long[4];//distinct dates in ascending order.
+    private double[] amounts = new double[4];//amount added on the date at that index.
+    private double[] totals = new double[4];//amount added on or before the date at that index.
+    private double[] errors = new double[4];//rounding error left out of the total at that index.
+    private int size;
+
+    /**
+     * Adds an amount on a date, updating the totals of that date and the dates after it.
+     *
+     * @param epochDay the date as an epoch day.
+     * @param amount   the amount added.
+     */
+    void add(long epochDay, double amount) {
+
+      int index = Arrays.binarySearch(epochDays, 0, size, epochDay);
+      if (index < 0) {
+        index = -index - 1;
+        if (size == epochDays.length) {
+          epochDays = Arrays.copyOf(epochDays, size * 2);
+          amounts = Arrays.copyOf(amounts, size * 2);
+          totals = Arrays.copyOf(totals, size * 2);
+          errors = Arrays.copyOf(errors, size * 2);
+        }
+        System.arraycopy(epochDays, index, epochDays, index + 1, size - index);
+        System.arraycopy(amounts, index, amounts, index + 1, size - index);
+        epochDays[index] = epochDay;
+        amounts[index] = 0;
+        size++;
+      }
+      amounts[index] += amount;
+      for (int i = index; i < size; i++) {
+        double total = i == 0 ? 0 : totals[i - 1];
+        double compensated = amounts[i] - ( i == 0 ? 0 : errors[i - 1] );
+        totals[i] = total + compensated;
+        errors[i] = ( totals[i] - total ) - compensated;
+      }
+    }
+
+    /**
+     * Tells whether an amount was added on or before the given date.
+     *
+     * @param epochDay the date as an epoch day.
+     * @return true if the total had started by the date else false.
+     */
+    boolean isStartedBy(long epochDay) {
+      return size > 0 && epochDays[0] <= epochDay;
+    }
+
+    /**
+     * Gets the total of the amounts added on or before the given date.
+     *
+     * @param epochDay the date as an epoch day.
+     * @return the total on the date, 0 if nothing was added by then.
+     */
+    double getTotal(long epochDay) {
+
+      int index = Arrays.binarySearch(epochDays, 0, size, epochDay);
+      if (index < 0) {
+        index = -index - 2;
+      }
+      return index < 0 ? 0 : totals[index] - errors[index];
+    }
+
+  }
 
 }
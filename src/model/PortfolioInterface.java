@@ -1,6 +1,9 @@
 package model;
 
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>Interface for a stock portfolio that offer methods such as getName,addStock,getstocks.</p>
@@ -34,6 +37,40 @@ public interface PortfolioInterface {
    */
   List<StockInterface> getStocks();
 
+  /**
+   * Gets the number of shares of each stock held on a date, counting the shares bought on or before
+   * it, so a portfolio can be valued with one price per stock rather than one per purchase. The
+   * default implementation adds up the shares of the stocks given by getStocks.
+   *
+   * @param date the date for which the shares held are needed.
+   * @return the number of shares held keyed by ticker symbol, in the order the stocks were first
+   *         bought, without the stocks bought only after the date.
+   */
+  default Map<String, Long> getSharesHeld(LocalDate date) {
+
+    Map<String, Long> sharesHeld = new LinkedHashMap<>();
+    for (StockInterface stock : getStocks()) {
+      if (stock.getBuyDate().compareTo(date) <= 0) {
+        sharesHeld.merge(stock.getStockTickerSymbol(), stock.getNumberOfShares(), Long::sum);
+      }
+    }
+    return sharesHeld;
+  }
+
+  /**
+   * Gets the total cost basis of the portfolio on a date, which is the money spent on the stocks
+   * bought on or before it including the commission fees. The default implementation adds up the
+   * cost of the stocks given by getStocks.
+   *
+   * @param date the date for which the cost basis is needed.
+   * @return the cost basis on the date, 0.0 if no stock was bought by then.
+   */
+  default double getCostBasis(LocalDate date) {
+    return getStocks().stream().filter(s -> s.getBuyDate().compareTo(date) <= 0)
+            .mapToDouble(s -> ( s.getNumberOfShares() * s.getPriceOfUnitShare() )
+                    + s.getCommissionFee()).sum();
+  }
+
   /**
    * A method that takes a tickerSymbol as input, add it to set of stocks a portfolio can contain.
    *
@@ -0,0 +1,182 @@
+package model;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Represents the days the stock exchange is open on. A day is a trading day unless it is a
+ * weekend or a public holiday in USA - New year (Jan 1), MLK Day (3rd Monday of January),
+ * President's Day (3rd Monday of February), Memorial Day (last Monday of May), Independence Day
+ * (July 4th), Labor Day (1st Monday of September), Veterans Day (November 11), Thanksgiving (4th
+ * Thursday of November) and Christmas (Dec 25). Other closures like Good Friday can be given as a
+ * list of holidays.</p>
+ *
+ * <p>The trading days of a year are worked out once, the first time a day of the year is asked
+ * for, and kept as a bit per day of the year. Whether a day is a trading day is then a single bit
+ * lookup, and the nearest trading day before or after a day is found by scanning the bits rather
+ * than working out each day in between. All the methods are thread safe.</p>
+ */
+public class TradingCalendar {
+
+  private final Set<LocalDate> holidays; // closures on top of the rules.
+  private final Map<Integer, BitSet> tradingDays; // trading days of each year by day of year.
+
+  /**
+   * Constructs the calendar whose holidays are only the weekends and the public holidays.
+   */
+  public TradingCalendar() {
+    this.holidays = new HashSet<>();
+    this.tradingDays = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Constructs the calendar with the given holidays on top of the weekends and public holidays.
+   * Each line of the input has one holiday in dd-MM-yyyy format. Empty lines and lines starting
+   * with # are ignored.
+   *
+   * @param holidays the input with the holidays.
+   * @throws IllegalArgumentException when the input is null or a holiday is not a valid date in
+   *                                  the specified format.
+   */
+  public TradingCalendar(Readable holidays) throws IllegalArgumentException {
+
+    this();
+    if (holidays == null) {
+      throw new IllegalArgumentException("Holidays can't be null");
+    }
+    DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("dd-MM-uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+    Scanner scanner = new Scanner(holidays);
+    while (scanner.hasNextLine()) {
+      String line = scanner.nextLine().trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      try {
+        this.holidays.add(LocalDate.parse(line, dateFormat));
+      } catch (DateTimeException e) {
+        throw new IllegalArgumentException("Invalid holiday provided: " + line);
+      }
+    }
+  }
+
+  /**
+   * Tells whether the stock exchange is open on the given day.
+   *
+   * @param date the day.
+   * @return true if the day is a trading day else false.
+   */
+  public boolean isTradingDay(LocalDate date) {
+    return getTradingDays(date.getYear()).get(date.getDayOfYear() - 1);
+  }
+
+  /**
+   * Gets the first trading day on or after the given day.
+   *
+   * @param date the day.
+   * @return the day itself if it is a trading day, else the first trading day after it.
+   */
+  public LocalDate nextTradingDay(LocalDate date) {
+
+    int year = date.getYear();
+    int dayOfYear = getTradingDays(year).nextSetBit(date.getDayOfYear() - 1);
+    while (dayOfYear < 0) {
+      year++;
+      dayOfYear = getTradingDays(year).nextSetBit(0);
+    }
+    return LocalDate.ofYearDay(year, dayOfYear + 1);
+  }
+
+  /**
+   * Gets the last trading day on or before the given day.
+   *
+   * @param date the day.
+   * @return the day itself if it is a trading day, else the last trading day before it.
+   */
+  public LocalDate previousTradingDay(LocalDate date) {
+
+    int year = date.getYear();
+    int dayOfYear = getTradingDays(year).previousSetBit(date.getDayOfYear() - 1);
+    while (dayOfYear < 0) {
+      year--;
+      dayOfYear = getTradingDays(year).previousSetBit(LocalDate.ofYearDay(year, 1)
+              .lengthOfYear() - 1);
+    }
+    return LocalDate.ofYearDay(year, dayOfYear + 1);
+  }
+
+  /**
+   * A helper method that gives the trading days of a year, working them out on the first call.
+   *
+   * @param year the year.
+   * @return the trading days of the year, where the bit of each day of the year less one is set
+   *         if the day is a trading day.
+   */
+  private BitSet getTradingDays(int year) {
+    return tradingDays.computeIfAbsent(year, this::buildTradingDays);
+  }
+
+  /**
+   * A helper method that works out the trading days of a year.
+   *
+   * @param year the year.
+   * @return the trading days of the year.
+   */
+  private BitSet buildTradingDays(int year) {
+
+    LocalDate date = LocalDate.ofYearDay(year, 1);
+    BitSet days = new BitSet(date.lengthOfYear());
+    for (; date.getYear() == year; date = date.plusDays(1)) {
+      if (!isHoliday(date) && !holidays.contains(date)) {
+        days.set(date.getDayOfYear() - 1);
+      }
+    }
+    return days;
+  }
+
+  /**
+   * A helper method that checks if the given day is a weekend or a public holiday.
+   *
+   * @param date the day.
+   * @return true if the exchange is closed on the day by the rules else false.
+   */
+  private static boolean isHoliday(LocalDate date) {
+
+    DayOfWeek dayOfWeek = date.getDayOfWeek();
+    if (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY) {
+      return true;
+    }
+
+    int day = date.getDayOfMonth();
+    int weekOfMonth = ( day - 1 ) / 7 + 1; // the nth such day of the week in the month.
+    switch (date.getMonth()) {
+      case JANUARY:
+        return day == 1 || ( weekOfMonth == 3 && dayOfWeek == DayOfWeek.MONDAY );
+      case FEBRUARY:
+        return weekOfMonth == 3 && dayOfWeek == DayOfWeek.MONDAY;
+      case MAY:
+        return dayOfWeek == DayOfWeek.MONDAY && day > Month.MAY.maxLength() - 7;
+      case JULY:
+        return day == 4;
+      case SEPTEMBER:
+        return weekOfMonth == 1 && dayOfWeek == DayOfWeek.MONDAY;
+      case NOVEMBER:
+        return day == 11 || ( weekOfMonth == 4 && dayOfWeek == DayOfWeek.THURSDAY );
+      case DECEMBER:
+        return day == 25;
+      default:
+        return false;
+    }
+  }
+
+}
@@ -16,18 +16,33 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.time.format.ResolverStyle;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.time.format.DateTimeFormatter;
-import java.time.ZoneId;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
 
 
+import datasource.AsyncDataSourceInterface;
 import datasource.DataSourceInterface;
+import datasource.DensePriceSeries;
+import datasource.PriceSeries;
+import datasource.TaskExecutors;
 
 
 /**
@@ -40,27 +55,55 @@ import datasource.DataSourceInterface;
  */
 public class VirtualStockModel implements VirtualStockModelInterface {
 
-  private final List<PortfolioInterface> portfolios;
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-uuuu")
+          .withResolverStyle(ResolverStyle.STRICT);
+  private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter
+          .ofPattern("dd-MM-uuuu HH:mm").withResolverStyle(ResolverStyle.STRICT);
+
+  private final Map<String, PortfolioInterface> portfolios; // keyed by name in capital case.
   private final DataSourceInterface dataSource;
+  private final AsyncDataSourceInterface asyncDataSource; // looks up prices without blocking.
   private final List<DollarCostStrategy> dollarCostStrategies;
+  private final TradingCalendar tradingCalendar; // days the stock exchange is open on.
 
 
   /**
    * Constructs the VirtualStockModel which takes the datasource for stock data as an argument. The
    * source input can be any concrete implementation of DataSource Interface so that the stock data
-   * is fetched from that source. The model has a list of portfolios that are created and list of
-   * strategies created.
+   * is fetched from that source. The model keeps the portfolios created by their names in capital
+   * case, in the order they were created, so a portfolio is found by its name without going
+   * through the others. It also has a list of strategies created.
    *
    * @param dataSource of type DataSourceInterface, which specifies from where the stock data is
    *                   fetched
    * @throws IllegalArgumentException when the datasource object is null
    */
   public VirtualStockModel(DataSourceInterface dataSource) throws IllegalArgumentException {
+    this(dataSource, new TradingCalendar());
+  }
+
+  /**
+   * Constructs the VirtualStockModel which takes the datasource for stock data and the calendar of
+   * the days the stock exchange is open on, which decides the days shares can be bought on and
+   * the day a portfolio is valued on for a holiday.
+   *
+   * @param dataSource      of type DataSourceInterface, which specifies from where the stock data
+   *                        is fetched
+   * @param tradingCalendar the days the stock exchange is open on.
+   * @throws IllegalArgumentException when the datasource or calendar object is null
+   */
+  public VirtualStockModel(DataSourceInterface dataSource, TradingCalendar tradingCalendar)
+          throws IllegalArgumentException {
     if (dataSource == null) {
       throw new IllegalArgumentException("Data source can't be null");
     }
+    if (tradingCalendar == null) {
+      throw new IllegalArgumentException("Trading calendar can't be null");
+    }
+    this.tradingCalendar = tradingCalendar;
     this.dataSource = dataSource;
-    this.portfolios = new ArrayList<>();
+    this.asyncDataSource = AsyncDataSourceInterface.of(dataSource);
+    this.portfolios = new LinkedHashMap<>();
     this.dollarCostStrategies = new ArrayList<>();
   }
 
@@ -83,12 +126,10 @@ public class VirtualStockModel implements VirtualStockModelInterface {
     }
     name = name.trim();
     name = name.toUpperCase();
-    for (PortfolioInterface portfolio : portfolios) {
-      if (portfolio.getName().equals(name)) {
-        throw new IllegalArgumentException("Portfolio already exists");
-      }
+    if (portfolios.containsKey(name)) {
+      throw new IllegalArgumentException("Portfolio already exists");
     }
-    portfolios.add(new Portfolio(name));
+    portfolios.put(name, new Portfolio(name));
 
   }
 
@@ -129,41 +170,7 @@ public class VirtualStockModel implements VirtualStockModelInterface {
   public void buySharesOfStock(String tickerSymbol, String portfolioName, double amount,
                                String date)
           throws IllegalArgumentException {
-
-    LocalDate buyDate;
-    LocalDateTime buyDateTime;
-
-    validateDataofBuyShare(tickerSymbol, portfolioName, amount, date, 0.0);
-
-    DateTimeFormatter buydateFormat = DateTimeFormatter.ofPattern("dd-MM-uuuu HH:mm")
-            .withResolverStyle(ResolverStyle.STRICT);
-    buyDateTime = LocalDateTime.parse(date, buydateFormat);
-    buyDate = buyDateTime.toLocalDate();
-
-    double sharePrice = dataSource.getPriceOfShare(tickerSymbol.trim().toUpperCase(), buyDate);
-    if (sharePrice == 0.00) {
-      throw new IllegalArgumentException("stock data for the ticker " + tickerSymbol + ""
-              + " doesn't exist for the provided date");
-    }
-    long numberOfShares = (long) ( amount / sharePrice );
-
-    if (numberOfShares <= 0) {
-      throw new IllegalArgumentException("Insufficient funds to buy the share");
-    }
-    Stock stock = new Stock(tickerSymbol.trim().toUpperCase(), numberOfShares, buyDate,
-            sharePrice);
-
-    for (PortfolioInterface portfolio : portfolios) {
-      if (portfolio.getName().equals(portfolioName.trim().toUpperCase())) {
-        portfolio.addStock(stock);
-        return;
-      }
-    }
-
-    PortfolioInterface portfolio = new Portfolio(portfolioName.trim().toUpperCase());
-    portfolio.addStock(stock);
-    portfolios.add(portfolio);
-
+    buySharesOfStock(tickerSymbol, portfolioName, amount, date, 0.0);
   }
 
 
@@ -205,17 +212,35 @@ public class VirtualStockModel implements VirtualStockModelInterface {
   public void buySharesOfStock(String tickerSymbol, String portfolioName, double amount,
                                String date, double commissionFee)
           throws IllegalArgumentException {
+    buySharesOfStockAt(tickerSymbol, portfolioName, amount, parseDateTime(date), commissionFee);
+  }
 
-    LocalDate buyDate;
-    LocalDateTime buyDateTime;
-
+  /**
+   * Buys shares of a stock for the given amount and adds them to a portfolio the same way as
+   * buySharesOfStock with the date in dd-MM-yyyy HH:mm format does, for callers that already have
+   * the date and time of the purchase. The ticker symbol and portfolio name are case insensitive.
+   *
+   * @param tickerSymbol  the ticker symbol of the company eg 'GOOG' for Google company
+   * @param portfolioName the name of a portfolio to which the stock has to be added, if the name
+   *                      does not exist new portfolio with the given name is created and the stock
+   *                      is added to it.
+   * @param amount        the amount for which shares are to be bought, this is a double.
+   * @param date          the date and time at which the stock is to be bought.
+   * @param commissionFee the fee paid as brokerage for buying N number of shares of a company's
+   *                      stock.
+   * @throws IllegalArgumentException when the amount is negative or insufficient to buy at least
+   *                                  one share of the stock. Ticker symbol, date, portfolio name
+   *                                  are empty or null. The time is before 9 A.M. or after 3:59
+   *                                  P.M or the date is not a trading day. When the commission fee
+   *                                  is negative.
+   */
+  @Override
+  public void buySharesOfStockAt(String tickerSymbol, String portfolioName, double amount,
+                                 LocalDateTime date, double commissionFee)
+          throws IllegalArgumentException {
 
     validateDataofBuyShare(tickerSymbol, portfolioName, amount, date, commissionFee);
-
-    DateTimeFormatter buydateFormat = DateTimeFormatter.ofPattern("dd-MM-uuuu HH:mm")
-            .withResolverStyle(ResolverStyle.STRICT);
-    buyDateTime = LocalDateTime.parse(date, buydateFormat);
-    buyDate = buyDateTime.toLocalDate();
+    LocalDate buyDate = date.toLocalDate();
 
     double sharePrice = dataSource.getPriceOfShare(tickerSymbol.trim().toUpperCase(), buyDate);
     if (sharePrice == 0.00) {
@@ -232,16 +257,12 @@ public class VirtualStockModel implements VirtualStockModelInterface {
     Stock stock = new Stock(tickerSymbol.trim().toUpperCase(), numberOfShares, buyDate,
             sharePrice, commissionFee);
 
-    for (PortfolioInterface portfolio : portfolios) {
-      if (portfolio.getName().equals(portfolioName.trim().toUpperCase())) {
-        portfolio.addStock(stock);
-        return;
-      }
+    PortfolioInterface portfolio = portfolios.get(portfolioName.trim().toUpperCase());
+    if (portfolio == null) {
+      portfolio = new Portfolio(portfolioName.trim().toUpperCase());
+      portfolios.put(portfolio.getName(), portfolio);
     }
-
-    PortfolioInterface portfolio = new Portfolio(portfolioName.trim().toUpperCase());
     portfolio.addStock(stock);
-    portfolios.add(portfolio);
 
   }
 
@@ -252,29 +273,24 @@ public class VirtualStockModel implements VirtualStockModelInterface {
    * @param tickerSymbol  the ticker symbol of the company eg 'GOOG' for Google company
    * @param portfolioName the name of the portfolio
    * @param amount        the amount for which shares are to be bought, this is a double.
-   * @param date          the date on which the stock is to be bought. The date has to be in
-   *                      dd-MM-yyyy HH:mm.
+   * @param buyDateTime   the date and time at which the stock is to be bought.
    * @param commissionFee the fee paid as brokerage for buying N number of shares of a company's
    *                      stock.
    * @throws IllegalArgumentException when the amount is negative or insufficient to buy at least
-   *                                  one share of the stock, date is not in the given format.
-   *                                  Ticker symbol, date, portfolio name are empty or null. The
-   *                                  time is before 9 A.M. or after 3:59 P.M; when the date is in
-   *                                  future or a weekend(Saturday and Sunday) or a public holiday
-   *                                  in USA. Public holidays - New year( Jan 1) ,Christmas (Dec
-   *                                  25), Independence Day(July 4th), Thanksgiving(Nov 4th Week
-   *                                  Thursday), Memorial Day(last Monday of May), Labor Day((1st
-   *                                  Monday of September),President's Day (3rd Monday of February),
-   *                                  Veterans Day (November 11),  MLK Day (3rd Monday of January).
+   *                                  one share of the stock. Ticker symbol, date, portfolio name
+   *                                  are empty or null. The time is before 9 A.M. or after 3:59
+   *                                  P.M; when the date is in future or a weekend(Saturday and
+   *                                  Sunday) or a public holiday in USA. Public holidays - New
+   *                                  year( Jan 1) ,Christmas (Dec 25), Independence Day(July 4th),
+   *                                  Thanksgiving(Nov 4th Week Thursday), Memorial Day(last Monday
+   *                                  of May), Labor Day((1st Monday of September),President's Day
+   *                                  (3rd Monday of February), Veterans Day (November 11),  MLK Day
+   *                                  (3rd Monday of January).
    */
   private void validateDataofBuyShare(String tickerSymbol, String portfolioName, double amount,
-                                      String date, double commissionFee)
+                                      LocalDateTime buyDateTime, double commissionFee)
           throws IllegalArgumentException {
 
-    LocalDate buyDate;
-    LocalDateTime buyDateTime;
-    Calendar calendar;
-
     if (tickerSymbol == null || tickerSymbol.equals("")) {
       throw new IllegalArgumentException("Ticker symbol cannot be empty or null");
     }
@@ -282,7 +298,7 @@ public class VirtualStockModel implements VirtualStockModelInterface {
       throw new IllegalArgumentException("Portfolio name cannot be empty or null");
     }
 
-    if (date == null || date.equals("")) {
+    if (buyDateTime == null) {
       throw new IllegalArgumentException("Date cannot be empty or null");
     }
 
@@ -290,19 +306,8 @@ public class VirtualStockModel implements VirtualStockModelInterface {
       throw new IllegalArgumentException("The commission fee cannot be negative.");
     }
 
-    portfolioName = portfolioName.trim().toUpperCase();
-    try {
-      DateTimeFormatter buydateFormat = DateTimeFormatter.ofPattern("dd-MM-uuuu HH:mm")
-              .withResolverStyle(ResolverStyle.STRICT);
-      buyDateTime = LocalDateTime.parse(date, buydateFormat);
-      buyDate = buyDateTime.toLocalDate();
-      calendar = GregorianCalendar.from(buyDate.atStartOfDay(ZoneId.systemDefault()));
-    } catch (DateTimeParseException e) {
-      throw new IllegalArgumentException("Entered date should be in format 'dd-MM-yyyy HH24:mm'"
-              + " and a valid calendar date.");
-    }
-
-    if (isHoliday(calendar)) {
+    LocalDate buyDate = buyDateTime.toLocalDate();
+    if (!tradingCalendar.isTradingDay(buyDate)) {
       throw new IllegalArgumentException("Can't buy shares on a holiday");
     }
     if (buyDateTime.getHour() < 9 || buyDateTime.getHour() >= 16) {
@@ -331,33 +336,36 @@ public class VirtualStockModel implements VirtualStockModelInterface {
   public double getTotalCostBasis(String portfolioName, String date)
           throws IllegalArgumentException {
     LocalDate dateAsLocalDate;
-    boolean portfolioexists = false;
     try {
-      DateTimeFormatter dateformat = DateTimeFormatter.ofPattern("dd-MM-uuuu")
-              .withResolverStyle(ResolverStyle.STRICT);
-      dateAsLocalDate = LocalDate.parse(date, dateformat);
+      dateAsLocalDate = LocalDate.parse(date, DATE_FORMAT);
     } catch (DateTimeParseException e) {
       throw new IllegalArgumentException("Entered date should be in format 'dd-MM-yyyy and a "
               + "valid calendar date'");
     }
-    portfolioName = portfolioName.trim().toUpperCase();
-    double totalCostBasis = 0.00;
-    for (PortfolioInterface portfolio : portfolios) {
-      if (portfolio.getName().equals(portfolioName)) {
-
-        portfolioexists = true;
-        List<StockInterface> stock = portfolio.getStocks();
-        totalCostBasis = stock.stream().filter(s -> s.getBuyDate()
-                .compareTo(dateAsLocalDate) <= 0)
-                .mapToDouble(s -> ( s.getNumberOfShares() * s.getPriceOfUnitShare() )
-                        + s.getCommissionFee()).sum();
+    return getTotalCostBasisOn(portfolioName, dateAsLocalDate);
+  }
 
-      }
+  /**
+   * Gets the total cost basis of a portfolio on the given date the same way as getTotalCostBasis
+   * with the date in dd-MM-yyyy format does, for callers that already have the date.
+   *
+   * @param portfolioName the name of the portfolio for which totalCostBasis is to be found.
+   * @param date          date on which the costs basis value is required.
+   * @return double the total cost basis of the portfolio for the given date.
+   * @throws IllegalArgumentException when the date is null or the portfolio doesn't exist.
+   */
+  @Override
+  public double getTotalCostBasisOn(String portfolioName, LocalDate date)
+          throws IllegalArgumentException {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be empty or null");
     }
-    if (!portfolioexists) {
+    portfolioName = portfolioName.trim().toUpperCase();
+    PortfolioInterface portfolio = portfolios.get(portfolioName);
+    if (portfolio == null) {
       throw new IllegalArgumentException("Portfolio: " + portfolioName + " doesn't exist");
     }
-    return totalCostBasis;
+    return portfolio.getCostBasis(date);
   }
 
 
@@ -368,7 +376,12 @@ public class VirtualStockModel implements VirtualStockModelInterface {
    * total value.
    *
    * <p>If the given date is a holiday then it takes the last business day's closing stock price
-   * while evaluating each stock's worth.</p>
+   * while evaluating each stock's worth. Each stock is valued at its latest closing price at or
+   * before that day, so a day the exchange was closed on that isn't a known holiday doesn't value
+   * the stock at 0.00.</p>
+   *
+   * <p>The shares held of each stock on the day are added up first, so each stock is priced once
+   * however many times it was bought.</p>
    *
    * <p>If the given date is in future, returns 0.00</p>
    *
@@ -384,46 +397,370 @@ public class VirtualStockModel implements VirtualStockModelInterface {
    *                                  portfolio doesn't exist.
    */
   public double getTotalValue(String portfolioName, String date) throws IllegalArgumentException {
-    LocalDate dateAsLocalDate;
-    boolean portfolioexists = false;
-    DateTimeFormatter dateformat = DateTimeFormatter.ofPattern("dd-MM-uuuu")
-            .withResolverStyle(ResolverStyle.STRICT);
+    return getTotalValueOn(portfolioName, parseDate(date));
+  }
+
+  /**
+   * Gets the total value of a portfolio on the given date the same way as getTotalValue with the
+   * date in dd-MM-yyyy format does, for callers that already have the date.
+   *
+   * @param portfolioName the name of the portfolio for which total value is to be found.
+   * @param date          the date on which the portfolio's value is needed.
+   * @return double the total value of the portfolio for the given date
+   * @throws IllegalArgumentException when the name or date is null, or the portfolio doesn't
+   *                                  exist.
+   */
+  @Override
+  public double getTotalValueOn(String portfolioName, LocalDate date)
+          throws IllegalArgumentException {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be empty or null");
+    }
+    LocalDate modifiedDate = getValuationDate(date);
+    portfolioName = portfolioName.trim().toUpperCase();
+    PortfolioInterface portfolio = portfolios.get(portfolioName);
+    if (portfolio == null) {
+      throw new IllegalArgumentException("Portfolio: " + portfolioName + " doesn't exist");
+    }
+    if (isInFuture(date)) {
+      return 0.00;
+    }
+
+    Map<String, Long> sharesHeld = portfolio.getSharesHeld(modifiedDate);
+    dataSource.prefetch(sharesHeld.keySet(), modifiedDate);
+    return sharesHeld.entrySet().stream()
+            .mapToDouble(s -> s.getValue()
+                    * dataSource.getPriceOfShareAsOf(s.getKey(), modifiedDate))
+            .sum();
+  }
+
+
+  /**
+   * Gets the total value of a portfolio on the given date like getTotalValue without blocking the
+   * caller. The shares held on the date are taken at the time of the call, the prices of all the
+   * stocks held are then looked up concurrently and the future completes
+   * with the total value once every price is known.
+   *
+   * @param portfolioName the name of the portfolio for which total value is to be found.
+   * @param date          the date on which the portfolio's value is needed. The date has to be in
+   *                      dd-MM-yyyy format.
+   * @return the future total value of the portfolio for the given date, which completes
+   *         exceptionally with IllegalArgumentException when the name or date is not valid or the
+   *         portfolio doesn't exist.
+   */
+  @Override
+  public CompletableFuture<Double> getTotalValueAsync(String portfolioName, String date) {
+
+    LocalDate valuationDate;
+    Map<String, Long> sharesHeld;
     try {
-      dateAsLocalDate = LocalDate.parse(date, dateformat);
-    } catch (DateTimeParseException e) {
-      throw new IllegalArgumentException("Entered date should be in format 'dd-MM-yyyy and a "
-              + "valid calendar date.'");
+      LocalDate day = parseDate(date);
+      valuationDate = getValuationDate(day);
+      PortfolioInterface portfolio = getPortfolio(portfolioName);
+      if (portfolio == null) {
+        throw new IllegalArgumentException("Portfolio: " + portfolioName.trim().toUpperCase()
+                + " doesn't exist");
+      }
+      if (isInFuture(day)) {
+        return CompletableFuture.completedFuture(0.00);
+      }
+      sharesHeld = portfolio.getSharesHeld(valuationDate);
+    } catch (RuntimeException e) {
+      CompletableFuture<Double> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
     }
-    Calendar calendar = GregorianCalendar.from(dateAsLocalDate
-            .atStartOfDay(ZoneId.systemDefault()));
-    while (isHoliday(calendar)) {
-      dateAsLocalDate = dateAsLocalDate.minusDays(1);
-      calendar = GregorianCalendar.from(dateAsLocalDate
-              .atStartOfDay(ZoneId.systemDefault()));
+
+    Map<String, CompletableFuture<Double>> prices = new HashMap<>();
+    for (String tickerSymbol : sharesHeld.keySet()) {
+      prices.put(tickerSymbol, asyncDataSource.getPriceAsOfAsync(tickerSymbol, valuationDate));
     }
-    LocalDate modifiedDate = dateAsLocalDate;
-    portfolioName = portfolioName.trim().toUpperCase();
-    double totalPortfolioWorthAtCertainDate = 0.00;
-    for (PortfolioInterface portfolio : portfolios) {
-      if (portfolio.getName().equals(portfolioName)) {
-
-        portfolioexists = true;
-        List<StockInterface> stock = portfolio.getStocks();
-        totalPortfolioWorthAtCertainDate = stock.stream()
-                .filter(s -> s.getBuyDate()
-                        .compareTo(modifiedDate) <= 0)
-                .mapToDouble(s -> s.getNumberOfShares()
-                        * dataSource.getPriceOfShare(s.getStockTickerSymbol(), modifiedDate))
-                .sum();
+    return CompletableFuture.allOf(prices.values().toArray(new CompletableFuture<?>[0]))
+            .thenApply(allPrices -> sharesHeld.entrySet().stream()
+                    .mapToDouble(s -> s.getValue() * prices.get(s.getKey()).join())
+                    .sum());
+  }
+
+  /**
+   * Gets the total value of a portfolio on every step days from a start date up to an end date,
+   * each the same as getTotalValue gives for its date, in one sweep forward through time. The
+   * stocks are taken in order of their buy dates and added to the shares held as each day to value
+   * the portfolio on passes their buy date. The prices of each stock between the first and the last
+   * of those days are fetched with one call to the data source and read in order, so a series of
+   * values costs about one price per stock and day rather than one price per stock bought and day.
+   *
+   * @param portfolioName the name of the portfolio for which the values are to be found.
+   * @param from          the first date on which the total value is to be found, in dd-MM-yyyy
+   *                      format.
+   * @param to            the last date up to which the total values are to be found, in
+   *                      dd-MM-yyyy format.
+   * @param step          the number of days between two dates on which the value is found.
+   * @return the total values keyed by their dates in dd-MM-yyyy format, in order of date.
+   * @throws IllegalArgumentException when one of the parameters is not valid, that is when name,
+   *                                  a date is null or empty, the start date is after the end
+   *                                  date or the step is not positive. Also, exception is thrown
+   *                                  when the portfolio doesn't exist.
+   */
+  @Override
+  public Map<String, Double> getValueSeries(String portfolioName, String from, String to,
+                                            int step) throws IllegalArgumentException {
+
+    LocalDate fromDate = parseDate(from);
+    LocalDate toDate = parseDate(to);
+    Map<String, Double> values = new LinkedHashMap<>();
+    for (Map.Entry<LocalDate, Double> value : getValueSeriesBetween(portfolioName, fromDate, toDate,
+            step).entrySet()) {
+      values.put(getDateInFormat(value.getKey()), value.getValue());
+    }
+    return values;
+  }
+
+  /**
+   * Gets the total value of a portfolio on every step days from a start date up to an end date the
+   * same way as getValueSeries with the dates in dd-MM-yyyy format does, for callers that already
+   * have the dates.
+   *
+   * @param portfolioName the name of the portfolio for which the values are to be found.
+   * @param fromDate      the first date on which the total value is to be found.
+   * @param toDate        the last date up to which the total values are to be found.
+   * @param step          the number of days between two dates on which the value is found.
+   * @return the total values keyed by their dates, in order of date.
+   * @throws IllegalArgumentException when one of the parameters is not valid, that is when name,
+   *                                  a date is null or empty, the start date is after the end
+   *                                  date or the step is not positive. Also, exception is thrown
+   *                                  when the portfolio doesn't exist.
+   */
+  @Override
+  public Map<LocalDate, Double> getValueSeriesBetween(String portfolioName, LocalDate fromDate,
+                                                      LocalDate toDate, int step)
+          throws IllegalArgumentException {
+
+    if (fromDate == null || toDate == null) {
+      throw new IllegalArgumentException("Dates cannot be null");
+    }
+    if (fromDate.compareTo(toDate) > 0) {
+      throw new IllegalArgumentException("Start date can't be after the end date");
+    }
+    if (step <= 0) {
+      throw new IllegalArgumentException("Number of days between the values should be positive");
+    }
+    PortfolioInterface portfolio = getPortfolio(portfolioName);
+    if (portfolio == null) {
+      throw new IllegalArgumentException("Portfolio: " + portfolioName.trim().toUpperCase()
+              + " doesn't exist");
+    }
+
+    // the dates in the future come last and are valued at 0.00 without a day to value on.
+    List<LocalDate> dates = new ArrayList<>();
+    List<LocalDate> valuationDates = new ArrayList<>();
+    for (LocalDate date = fromDate; date.compareTo(toDate) <= 0; date = date.plusDays(step)) {
+      dates.add(date);
+      if (!isInFuture(date)) {
+        valuationDates.add(getValuationDate(date));
+      }
+    }
+    Map<LocalDate, Double> values = new LinkedHashMap<>();
+    if (valuationDates.isEmpty()) {
+      for (LocalDate date : dates) {
+        values.put(date, 0.00);
       }
+      return values;
     }
+    LocalDate firstValuationDate = valuationDates.get(0);
+    LocalDate lastValuationDate = valuationDates.get(valuationDates.size() - 1);
 
-    if (!portfolioexists) {
-      throw new IllegalArgumentException("Portfolio: " + portfolioName + " doesn't exist");
+    // the stocks are valued in the order they were first bought, as getTotalValue does.
+    List<StockInterface> stocks = portfolio.getStocks();
+    Map<String, Integer> tickerIndices = new LinkedHashMap<>();
+    for (StockInterface stock : stocks) {
+      if (stock.getBuyDate().compareTo(lastValuationDate) <= 0) {
+        tickerIndices.putIfAbsent(stock.getStockTickerSymbol(), tickerIndices.size());
+      }
+    }
+    stocks.sort(Comparator.comparing(StockInterface::getBuyDate));
+
+    dataSource.prefetch(tickerIndices.keySet(), lastValuationDate);
+    int tickerCount = tickerIndices.size();
+    String[] tickerSymbols = tickerIndices.keySet().toArray(new String[0]);
+    PriceSeries[] priceSeries = new PriceSeries[tickerCount];
+    for (int i = 0; i < tickerCount; i++) {
+      priceSeries[i] = dataSource.getPrices(tickerSymbols[i], firstValuationDate,
+              lastValuationDate);
+    }
+
+    long[] sharesHeld = new long[tickerCount];
+    int[] priceIndices = new int[tickerCount];
+    double[] worth = new double[tickerCount];
+    int nextStock = 0;
+    for (int day = 0; day < valuationDates.size(); day++) {
+      LocalDate valuationDate = valuationDates.get(day);
+      while (nextStock < stocks.size()
+              && stocks.get(nextStock).getBuyDate().compareTo(valuationDate) <= 0) {
+        StockInterface stock = stocks.get(nextStock++);
+        sharesHeld[tickerIndices.get(stock.getStockTickerSymbol())] += stock.getNumberOfShares();
+      }
+
+      long epochDay = valuationDate.toEpochDay();
+      int held = 0;
+      for (int i = 0; i < tickerCount; i++) {
+        if (sharesHeld[i] == 0) {
+          continue;
+        }
+        PriceSeries series = priceSeries[i];
+        double price;
+        if (series.size() == 0 || epochDay < series.getEpochDay(0)
+                || epochDay > series.getEpochDay(series.size() - 1)) {
+          // the days outside the prices fetched may still have a price before them.
+          price = dataSource.getPriceOfShareAsOf(tickerSymbols[i], valuationDate);
+        } else {
+          while (priceIndices[i] + 1 < series.size()
+                  && series.getEpochDay(priceIndices[i] + 1) <= epochDay) {
+            priceIndices[i]++;
+          }
+          price = epochDay - series.getEpochDay(priceIndices[i]) > PriceSeries.LOOK_BACK_DAYS
+                  ? 0.00 : series.getClosingPrice(priceIndices[i]);
+        }
+        worth[held++] = sharesHeld[i] * price;
+      }
+      values.put(dates.get(day), Arrays.stream(worth, 0, held).sum());
+    }
+    for (int day = valuationDates.size(); day < dates.size(); day++) {
+      values.put(dates.get(day), 0.00);
+    }
+    return values;
+  }
+
+  /**
+   * Gets the total value of each of the given portfolios on each of the given dates, each the same
+   * as getTotalValue gives for it. The stocks held by all the portfolios are prefetched together,
+   * and the portfolios are then valued in parallel on the common ForkJoinPool, the work being split
+   * in halves down to single portfolios. Each task looks up the prices of its portfolio itself, and
+   * the prices found are shared between the tasks so that each stock is looked up once per day.
+   *
+   * @param portfolioNames the names of the portfolios to be valued.
+   * @param dates          the dates on which the portfolios are to be valued, in dd-MM-yyyy
+   *                       format.
+   * @return the total values keyed by portfolio name and then by date, in the order given.
+   * @throws IllegalArgumentException when one of the names or dates is not valid, that is when it
+   *                                  is null or empty, or a portfolio doesn't exist.
+   */
+  @Override
+  public Map<String, Map<String, Double>> getTotalValues(Collection<String> portfolioNames,
+                                                         Collection<String> dates)
+          throws IllegalArgumentException {
+
+    if (portfolioNames == null || dates == null) {
+      throw new IllegalArgumentException("Portfolio names and dates can't be null");
+    }
+    Map<String, LocalDate> valuationDates = new LinkedHashMap<>();
+    LocalDate lastValuationDate = null;
+    for (String date : dates) {
+      LocalDate day = parseDate(date);
+      if (isInFuture(day)) {
+        valuationDates.put(date, null);
+        continue;
+      }
+      LocalDate valuationDate = getValuationDate(day);
+      valuationDates.put(date, valuationDate);
+      if (lastValuationDate == null || valuationDate.compareTo(lastValuationDate) > 0) {
+        lastValuationDate = valuationDate;
+      }
+    }
+    Map<String, PortfolioInterface> portfoliosToValue = new LinkedHashMap<>();
+    for (String portfolioName : portfolioNames) {
+      PortfolioInterface portfolio = getPortfolio(portfolioName);
+      if (portfolio == null) {
+        throw new IllegalArgumentException("Portfolio: " + portfolioName.trim().toUpperCase()
+                + " doesn't exist");
+      }
+      portfoliosToValue.put(portfolio.getName(), portfolio);
+    }
+
+    List<PortfolioInterface> portfolioList = new ArrayList<>(portfoliosToValue.values());
+    if (lastValuationDate != null) {
+      Set<String> tickerSymbols = new LinkedHashSet<>();
+      for (PortfolioInterface portfolio : portfolioList) {
+        tickerSymbols.addAll(portfolio.getSharesHeld(lastValuationDate).keySet());
+      }
+      dataSource.prefetch(tickerSymbols, lastValuationDate);
+    }
+
+    List<Map<String, Double>> values = new ArrayList<>(
+            Collections.nCopies(portfolioList.size(), null));
+    try {
+      ForkJoinPool.commonPool().invoke(new PortfolioValuation(dataSource, portfolioList, 0,
+              portfolioList.size(), valuationDates, new ConcurrentHashMap<>(), values));
+    } catch (RuntimeException e) {
+      // a failure on another thread is rethrown as a copy, the original tells the caller more.
+      if (e.getCause() != null && e.getCause().getClass() == e.getClass()) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+
+    Map<String, Map<String, Double>> totalValues = new LinkedHashMap<>();
+    for (int i = 0; i < portfolioList.size(); i++) {
+      totalValues.put(portfolioList.get(i).getName(), values.get(i));
+    }
+    return totalValues;
+  }
+
+  /**
+   * A helper method that parses a date in dd-MM-yyyy format.
+   *
+   * @param date the date in dd-MM-yyyy format.
+   * @return the date.
+   * @throws IllegalArgumentException when the date is null or not in the specified format.
+   */
+  private LocalDate parseDate(String date) throws IllegalArgumentException {
+    try {
+      return LocalDate.parse(date, DATE_FORMAT);
+    } catch (DateTimeParseException | NullPointerException e) {
+      throw new IllegalArgumentException("Entered date should be in format 'dd-MM-yyyy and a "
+              + "valid calendar date.'");
+    }
+  }
+
+  /**
+   * A helper method that parses a date and time in dd-MM-yyyy HH:mm format.
+   *
+   * @param date the date and time in dd-MM-yyyy HH:mm format.
+   * @return the date and time.
+   * @throws IllegalArgumentException when the date is null, empty or not in the specified format.
+   */
+  private LocalDateTime parseDateTime(String date) throws IllegalArgumentException {
+    if (date == null || date.equals("")) {
+      throw new IllegalArgumentException("Date cannot be empty or null");
+    }
+    try {
+      return LocalDateTime.parse(date, DATE_TIME_FORMAT);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Entered date should be in format 'dd-MM-yyyy HH24:mm'"
+              + " and a valid calendar date.");
     }
-    return totalPortfolioWorthAtCertainDate;
   }
 
+  /**
+   * A helper method that tells whether a date is after today, in which case a portfolio is valued
+   * at 0.00 whatever the latest prices known are.
+   *
+   * @param date the date.
+   * @return true if the date is in the future else false.
+   */
+  private boolean isInFuture(LocalDate date) {
+    return date.compareTo(LocalDate.now()) > 0;
+  }
+
+  /**
+   * A helper method that gives the day whose closing prices value a portfolio on the given date,
+   * which is the date itself or, when it is a holiday, the last business day before it.
+   *
+   * @param date the date.
+   * @return the day to value a portfolio on.
+   */
+  private LocalDate getValuationDate(LocalDate date) {
+    return tradingCalendar.previousTradingDay(date);
+  }
 
   /**
    * <p>Get a portfolio's list of strings (containing details of ticker symbol,
@@ -437,12 +774,8 @@ public class VirtualStockModel implements VirtualStockModelInterface {
    */
   public List<String> displayPortfolio(String portfolioName) {
 
-    for (PortfolioInterface portfolio : portfolios) {
-      if (portfolio.getName().equals(portfolioName.trim().toUpperCase())) {
-        return getPortfolioStockStrings(portfolio);
-      }
-    }
-    return null;
+    PortfolioInterface portfolio = portfolios.get(portfolioName.trim().toUpperCase());
+    return portfolio == null ? null : getPortfolioStockStrings(portfolio);
   }
 
   /**
@@ -454,7 +787,7 @@ public class VirtualStockModel implements VirtualStockModelInterface {
   public Map<String, List<String>> displayAllPortfolios() {
 
     Map<String, List<String>> portfoliosWithStocks = new HashMap<>();
-    for (PortfolioInterface portfolio : this.portfolios) {
+    for (PortfolioInterface portfolio : this.portfolios.values()) {
       String portfolioName = portfolio.getName();
       portfoliosWithStocks.put(portfolioName, getPortfolioStockStrings(portfolio));
     }
@@ -483,72 +816,6 @@ public class VirtualStockModel implements VirtualStockModelInterface {
   }
 
 
-  /**
-   * A private helper method that checks if the given date in a calendar is a holiday or not.
-   *
-   * @param calendar the date that is of calendar type
-   * @return boolean if the given date is a holiday or not
-   */
-  private boolean isHoliday(Calendar calendar) {
-
-    if (calendar.get(Calendar.DAY_OF_WEEK) == Calendar.SATURDAY
-            || calendar.get(Calendar.DAY_OF_WEEK) == Calendar.SUNDAY) {
-      return true;
-    }
-
-
-    if (calendar.get(Calendar.MONTH) == Calendar.JANUARY
-            && calendar.get(Calendar.DAY_OF_MONTH) == 1) {
-      return true;
-    }
-
-
-    if (calendar.get(Calendar.MONTH) == Calendar.DECEMBER
-            && calendar.get(Calendar.DAY_OF_MONTH) == 25) {
-      return true;
-    }
-
-    if (calendar.get(Calendar.MONTH) == Calendar.JANUARY
-            && calendar.get(Calendar.DAY_OF_WEEK_IN_MONTH) == 3
-            && calendar.get(Calendar.DAY_OF_WEEK) == Calendar.MONDAY) {
-      return true;
-    }
-
-    if (calendar.get(Calendar.MONTH) == Calendar.FEBRUARY
-            && calendar.get(Calendar.DAY_OF_WEEK_IN_MONTH) == 3
-            && calendar.get(Calendar.DAY_OF_WEEK) == Calendar.MONDAY) {
-      return true;
-    }
-
-    if (calendar.get(Calendar.MONTH) == Calendar.MAY
-            && calendar.get(Calendar.DAY_OF_WEEK) == Calendar.MONDAY
-            && calendar.get(Calendar.DAY_OF_MONTH) > ( 31 - 7 )) {
-      return true;
-    }
-
-    if (calendar.get(Calendar.MONTH) == Calendar.JULY
-            && calendar.get(Calendar.DAY_OF_MONTH) == 4) {
-      return true;
-    }
-
-
-    if (calendar.get(Calendar.MONTH) == Calendar.SEPTEMBER
-            && calendar.get(Calendar.DAY_OF_WEEK_IN_MONTH) == 1
-            && calendar.get(Calendar.DAY_OF_WEEK) == Calendar.MONDAY) {
-      return true;
-    }
-
-    if (calendar.get(Calendar.MONTH) == Calendar.NOVEMBER
-            && calendar.get(Calendar.DAY_OF_MONTH) == 11) {
-      return true;
-    }
-
-    return ( calendar.get(Calendar.MONTH) == Calendar.NOVEMBER
-            && calendar.get(Calendar.DAY_OF_WEEK_IN_MONTH) == 4
-            && calendar.get(Calendar.DAY_OF_WEEK) == Calendar.THURSDAY );
-
-  }
-
   /**
    * <p>Invest a fixed amount into an existing portfolio containing multiple stocks, using a
    * specified percentage of amount for each stock in the portfolio. For example, the user can
@@ -581,6 +848,32 @@ public class VirtualStockModel implements VirtualStockModelInterface {
 
   public String invest(String portfolioName, Map<String, Double> stockNameAndWeight, double amount,
                        double commissionFee, String date) throws IllegalArgumentException {
+    return investAt(portfolioName, stockNameAndWeight, amount, commissionFee, parseDateTime(date));
+  }
+
+  /**
+   * Invests a fixed amount into an existing portfolio the same way as invest with the date in
+   * dd-MM-yyyy HH:mm format does, for callers that already have the date and time of the
+   * investment.
+   *
+   * @param portfolioName      the name of the portfolio on which the investment is to be made.
+   * @param stockNameAndWeight the different percentages for the stocks
+   * @param amount             the amount to be invested.
+   * @param commissionFee      the fee paid for brokerage for each stock bought.
+   * @param date               the date and time at which the stocks are to be bought.
+   * @return String the investment summary stating whether the investment was successful or not for
+   *         each of the stocks.
+   * @throws IllegalArgumentException when portfolio name is null or empty. The given portfolio does
+   *                                  not exist. Also when the commission fee is negative. The
+   *                                  individual percentage given for the stocks should not be
+   *                                  negative and the sum of the percentages is either lesser or
+   *                                  greater then 100. If the date is null or when investment is to
+   *                                  done on a non-business day/hour.
+   */
+  @Override
+  public String investAt(String portfolioName, Map<String, Double> stockNameAndWeight,
+                         double amount, double commissionFee, LocalDateTime date)
+          throws IllegalArgumentException {
 
     PortfolioInterface portfolio = getPortfolio(portfolioName);
 
@@ -599,7 +892,7 @@ public class VirtualStockModel implements VirtualStockModelInterface {
 
       if (percentageOfInvestment != 0.00) {
         try {
-          buySharesOfStock(tickerSymbol, portfolioName, amountToInvest, date, commissionFee);
+          buySharesOfStockAt(tickerSymbol, portfolioName, amountToInvest, date, commissionFee);
           investmentSummary.append("Successfully invested in " + tickerSymbol + "\n");
         } catch (IllegalArgumentException e) {
           if (e.getMessage().equalsIgnoreCase("Insufficient funds to buy the share")) {
@@ -656,69 +949,78 @@ public class VirtualStockModel implements VirtualStockModelInterface {
                                   double amount, int investmentInterval, String startDate,
                                   String endDate, double commissionFee)
           throws IllegalArgumentException {
+    dollarCostAveragingBetween(portfolioName, stockNameAndWeight, amount, investmentInterval,
+            parseStartDate(startDate), parseEndDate(endDate), commissionFee);
+  }
+
+  /**
+   * Invests a fixed amount in a portfolio every given number of days from a start date until an
+   * end date the same way as dollarCostAveraging with the dates in dd-MM-yyyy format does, for
+   * callers that already have the dates.
+   *
+   * @param portfolioName      the name of the portfolio for which Dollar Cost Averaging investment
+   *                           is made.
+   * @param stockNameAndWeight A map of stock names and corresponding percentage weights of the
+   *                           amount to be invested for that particular stock.
+   * @param amount             the fixed amount to be invested periodically.
+   * @param investmentInterval the frequency of the investment in days.
+   * @param startdate          the starting date of the investment.
+   * @param actualEnddate      the end date of the investment, null for an investment without an
+   *                           end date.
+   * @param commissionFee      the fee paid for brokerage for each stock bought.
+   * @throws IllegalArgumentException when the investment interval is less than 1, start date is
+   *                                  null, start date is not before the end date, amount or
+   *                                  commission fee is negative, the sum of percentages for the
+   *                                  stocks is not equal to 100 or if the percentage is negative,
+   *                                  if the ticker symbol is invalid.
+   */
+  @Override
+  public void dollarCostAveragingBetween(String portfolioName,
+                                         Map<String, Double> stockNameAndWeight, double amount,
+                                         int investmentInterval, LocalDate startdate,
+                                         LocalDate actualEnddate, double commissionFee)
+          throws IllegalArgumentException {
 
     validateInputForDollarCostAverageBasis(stockNameAndWeight, amount,
-            investmentInterval, startDate, endDate, commissionFee);
+            investmentInterval, startdate, actualEnddate, commissionFee);
 
     if (portfolioName == null || portfolioName.equals("")) {
       throw new IllegalArgumentException("The portfolio name cannot be null or empty.");
     }
 
-    DateTimeFormatter format = DateTimeFormatter.ofPattern("dd-MM-uuuu")
-            .withResolverStyle(ResolverStyle.STRICT);
-    LocalDate startdate = LocalDate.parse(startDate, format);
-    LocalDate actualEnddate = null;
-
-    if (!endDate.equals("")) {
-      actualEnddate = LocalDate.parse(endDate, format);
-    }
-
     LocalDate enddate;
 
-    if (endDate.equals("")) {
+    if (actualEnddate == null || actualEnddate.compareTo(LocalDate.now()) > 0) {
       enddate = LocalDate.now();
     } else {
-
-      enddate = LocalDate.parse(endDate, format);
-
-      if (enddate.compareTo(LocalDate.now()) > 0) {
-
-        enddate = LocalDate.now();
-      }
+      enddate = actualEnddate;
     }
 
     LocalDate investmentDate = startdate;
-    Calendar investmentCalendar = GregorianCalendar.from(investmentDate.atStartOfDay(
-            ZoneId.systemDefault()));
-
     LocalDate actualInvestmentDate = startdate;
 
     PortfolioInterface portfolio = getPortfolio(portfolioName);
 
     if (portfolio == null) {
       portfolio = new Portfolio(portfolioName.trim().toUpperCase());
-      this.portfolios.add(portfolio);
+      this.portfolios.put(portfolio.getName(), portfolio);
     }
 
+    Map<String, DensePriceSeries> priceSeries = getPriceSeries(stockNameAndWeight.keySet(),
+            startdate, enddate);
 
     while (investmentDate.compareTo(enddate) <= 0) {
 
-      if (isHoliday(investmentCalendar)) {
-        investmentDate = investmentDate.plusDays(1);
-        investmentCalendar = GregorianCalendar.from(investmentDate
-                .atStartOfDay(ZoneId.systemDefault()));
+      if (!tradingCalendar.isTradingDay(investmentDate)) {
+        investmentDate = tradingCalendar.nextTradingDay(investmentDate);
         continue;
       }
 
-      String time = "15:59";
-      String investmentDateString = this.getDateInFormat(investmentDate) + " " + time;
-
-      invest(portfolioName, stockNameAndWeight, amount, commissionFee, investmentDateString);
+      investOnDate(portfolio, stockNameAndWeight, amount, commissionFee, investmentDate,
+              priceSeries);
 
       investmentDate = actualInvestmentDate.plusDays(investmentInterval);
       actualInvestmentDate = investmentDate;
-      investmentCalendar = GregorianCalendar.from(investmentDate
-              .atStartOfDay(ZoneId.systemDefault()));
     }
 
     if (actualEnddate == null) {
@@ -736,12 +1038,92 @@ public class VirtualStockModel implements VirtualStockModelInterface {
 
   }
 
+  /**
+   * A private helper method that invests a fixed amount into a portfolio on a business day of a
+   * strategy, using the given percentage of the amount for each stock. Each purchase is validated
+   * and bought at the closing price of the day the same way as invest does, but the prices are read
+   * from series fetched for the whole strategy when there is one for the stock, instead of asking
+   * the data source once per day and stock. A stock whose share price is more than its part of the
+   * amount is not bought.
+   *
+   * @param portfolio          the portfolio to which the bought stocks are added.
+   * @param stockNameAndWeight the different percentages for the stocks.
+   * @param amount             the amount to be invested.
+   * @param commissionFee      the fee paid for brokerage for each stock bought.
+   * @param date               the business day on which the stocks are bought.
+   * @param priceSeries        the price series of the stocks keyed by their ticker symbols, the
+   *                           stocks without one are looked up in the data source.
+   * @throws IllegalArgumentException when the purchase is not valid or there is no stock data for a
+   *                                  stock on the given date.
+   */
+  private void investOnDate(PortfolioInterface portfolio, Map<String, Double> stockNameAndWeight,
+                            double amount, double commissionFee, LocalDate date,
+                            Map<String, DensePriceSeries> priceSeries)
+          throws IllegalArgumentException {
+
+    for (Map.Entry<String, Double> entry : stockNameAndWeight.entrySet()) {
+
+      double percentageOfInvestment = entry.getValue();
+      if (percentageOfInvestment == 0.00) {
+        continue;
+      }
+
+      double amountToInvest = ( amount * percentageOfInvestment ) / 100.00;
+      validateDataofBuyShare(entry.getKey(), portfolio.getName(), amountToInvest,
+              date.atTime(15, 59), commissionFee);
+
+      String tickerSymbol = entry.getKey().trim().toUpperCase();
+      DensePriceSeries series = priceSeries.get(tickerSymbol);
+      double sharePrice = series == null ? dataSource.getPriceOfShare(tickerSymbol, date)
+              : series.getPrice(date);
+      if (sharePrice == 0.00) {
+        throw new IllegalArgumentException("stock data for the ticker " + entry.getKey() + ""
+                + " doesn't exist for the provided date");
+      }
+
+      long numberOfShares = (long) ( amountToInvest / sharePrice );
+      if (numberOfShares > 0) {
+        portfolio.addStock(new Stock(tickerSymbol, numberOfShares, date, sharePrice,
+                commissionFee));
+      }
+    }
+  }
+
+  /**
+   * A private helper method that fetches the price series of each of the given stocks between the
+   * given dates with one call to the data source per stock. The series are kept with a slot per
+   * day, as a strategy looks up its stocks on every investment day of its period. Nothing is
+   * fetched when the data source would look up every day of the range one at a time to answer the
+   * call, so that the stocks are looked up on their investment days only.
+   *
+   * @param tickerSymbols the ticker symbols of the stocks.
+   * @param from          the first date for which prices are needed.
+   * @param to            the last date for which prices are needed.
+   * @return the price series of the stocks keyed by their ticker symbols in capital case, empty if
+   *         the data source doesn't answer ranges of dates in one call.
+   */
+  private Map<String, DensePriceSeries> getPriceSeries(Collection<String> tickerSymbols,
+                                                       LocalDate from, LocalDate to) {
+
+    Map<String, DensePriceSeries> priceSeries = new HashMap<>();
+    if (!dataSource.hasRangeQueries()) {
+      return priceSeries;
+    }
+    for (String tickerSymbol : tickerSymbols) {
+      String symbol = tickerSymbol.trim().toUpperCase();
+      if (!priceSeries.containsKey(symbol)) {
+        priceSeries.put(symbol, new DensePriceSeries(dataSource.getPrices(symbol, from, to)));
+      }
+    }
+    return priceSeries;
+  }
+
   @Override
   public List<String> getPortfolioNames() {
 
     List<String> portfolioNames = new ArrayList<>();
 
-    for (PortfolioInterface portfolio : this.portfolios) {
+    for (PortfolioInterface portfolio : this.portfolios.values()) {
       portfolioNames.add(portfolio.getName());
     }
 
@@ -771,14 +1153,7 @@ public class VirtualStockModel implements VirtualStockModelInterface {
       throw new IllegalArgumentException("Portfolio name cannot be empty or null");
     }
 
-    PortfolioInterface portfolio = null;
-
-    for (PortfolioInterface p : portfolios) {
-      if (p.getName().equalsIgnoreCase(portfolioName.trim())) {
-        portfolio = p;
-      }
-    }
-    return portfolio;
+    return portfolios.get(portfolioName.trim().toUpperCase());
   }
 
   /**
@@ -834,18 +1209,48 @@ public class VirtualStockModel implements VirtualStockModelInterface {
   }
 
   /**
-   * a helper method to validate date is in format dd-MM-YYYY or not.
+   * A helper method that parses the start date of an investment in dd-MM-yyyy format.
+   *
+   * @param startDate the start date in dd-MM-yyyy format.
+   * @return the start date.
+   * @throws IllegalArgumentException when the date is null, empty or of unsupported format.
+   */
+  private LocalDate parseStartDate(String startDate) throws IllegalArgumentException {
+
+    if (startDate == null || startDate.equals("")) {
+      throw new IllegalArgumentException("The start date cannot be null or empty");
+    }
+    return parseDate(startDate, "start");
+  }
+
+  /**
+   * A helper method that parses the end date of an investment in dd-MM-yyyy format, which is empty
+   * for an investment without an end date.
+   *
+   * @param endDate the end date in dd-MM-yyyy format or empty.
+   * @return the end date or null if there is no end date.
+   * @throws IllegalArgumentException when the date is null or of unsupported format.
+   */
+  private LocalDate parseEndDate(String endDate) throws IllegalArgumentException {
+
+    if (endDate == null) {
+      throw new IllegalArgumentException("The end date cannot be null");
+    }
+    return endDate.equals("") ? null : parseDate(endDate, "end");
+  }
+
+  /**
+   * a helper method to parse a date in format dd-MM-YYYY.
    *
    * @param date date string in dd-mm-yyyy format
    * @param name which type of date, start date or end date.
+   * @return the date.
    * @throws IllegalArgumentException when the date is of unsupported format.
    */
-  private void validateDate(String date, String name) throws IllegalArgumentException {
+  private LocalDate parseDate(String date, String name) throws IllegalArgumentException {
 
     try {
-      DateTimeFormatter format = DateTimeFormatter.ofPattern("dd-MM-uuuu")
-              .withResolverStyle(ResolverStyle.STRICT);
-      LocalDate.parse(date, format);
+      return LocalDate.parse(date, DATE_FORMAT);
     } catch (DateTimeParseException e) {
       throw new IllegalArgumentException(name + " Date should be of format dd-MM-yyyy and should be"
               + " a valid calendar date.");
@@ -861,24 +1266,23 @@ public class VirtualStockModel implements VirtualStockModelInterface {
    *                           amount to be invested for that particular stock.
    * @param amount             the fixed amount to be invested periodically.
    * @param investmentInterval the frequency of the investment in days.
-   * @param startDate          the starting date of the investment.
-   * @param endDate            the end date of the investment
+   * @param startdate          the starting date of the investment.
+   * @param enddate            the end date of the investment, null if there is no end date.
    * @param commissionFee      the fee paid for brokerage. The commission fee is applicable for 'n'
    *                           number of stocks of each company stock. If the stocks are Google and
    *                           Apple and if the commission fee is $100, then in total commission
    *                           would be $200. This is in addition to the amount, exclusive.
    * @throws IllegalArgumentException when the portfolio already exists, the investment interval is
-   *                                  less than 1 day, start date is null or empty, Entered date not
-   *                                  in format: 'dd-MM-yyyy', stockandweight is null, start date is
-   *                                  not before the end date, start date in future, amount or
-   *                                  commission fee is negative,  the sum of percentages for the
-   *                                  stocks is not equal to 100 or if the percentage is negative,
-   *                                  if the ticker symbol is invalid.
+   *                                  less than 1 day, start date is null, stockandweight is null,
+   *                                  start date is not before the end date, start date in future,
+   *                                  amount or commission fee is negative,  the sum of percentages
+   *                                  for the stocks is not equal to 100 or if the percentage is
+   *                                  negative, if the ticker symbol is invalid.
    */
   private void validateInputForDollarCostAverageBasis(Map<String, Double> stockNameAndWeight,
                                                       double amount, int investmentInterval,
-                                                      String startDate,
-                                                      String endDate, double commissionFee)
+                                                      LocalDate startdate,
+                                                      LocalDate enddate, double commissionFee)
           throws IllegalArgumentException {
 
     if (investmentInterval < 1) {
@@ -896,33 +1300,14 @@ public class VirtualStockModel implements VirtualStockModelInterface {
 
     isAmountCommissionPercentageValid(amount, commissionFee, stockNameAndWeight);
 
-    if (startDate == null || startDate.equals("")) {
+    if (startdate == null) {
       throw new IllegalArgumentException("The start date cannot be null or empty");
     }
-    if (endDate == null) {
-      throw new IllegalArgumentException("The end date cannot be null");
-    }
-    validateDate(startDate, "start");
 
-    if (!endDate.equals("")) {
-      validateDate(endDate, "end");
-    }
-
-    DateTimeFormatter format = DateTimeFormatter.ofPattern("dd-MM-uuuu")
-            .withResolverStyle(ResolverStyle.STRICT);
-    LocalDate startdate = LocalDate.parse(startDate, format);
-    LocalDate enddate;
+    if (enddate != null && startdate.compareTo(enddate) > 0) {
 
-    if (endDate.equals("")) {
-      enddate = LocalDate.now();
-    } else {
-      enddate = LocalDate.parse(endDate, format);
-
-      if (startdate.compareTo(enddate) > 0) {
-
-        throw new IllegalArgumentException("Unable to apply strategy."
-                + "start date should be before end date");
-      }
+      throw new IllegalArgumentException("Unable to apply strategy."
+              + "start date should be before end date");
     }
 
     for (String tickerSymbol : stockNameAndWeight.keySet()) {
@@ -1004,7 +1389,7 @@ public class VirtualStockModel implements VirtualStockModelInterface {
     PortfolioInterface portfolio = getPortfolio(portfolioName);
     if (portfolio == null) {
       portfolio = new Portfolio(portfolioName.trim().toUpperCase());
-      portfolios.add(portfolio);
+      portfolios.put(portfolio.getName(), portfolio);
     }
 
     if (tickerSymbol == null || tickerSymbol.equals("")) {
@@ -1072,6 +1457,7 @@ public class VirtualStockModel implements VirtualStockModelInterface {
     }
 
     int i = 0;
+    List<PortfolioInterface> portfoliosWithStrategies = new ArrayList<>();
     for (File f : files) {
       int count = 0;
       if (f.isFile()) {
@@ -1095,13 +1481,9 @@ public class VirtualStockModel implements VirtualStockModelInterface {
               continue;
             }
 
-            portfolios.add(portfolio);
+            portfolios.put(portfolio.getName().trim().toUpperCase(), portfolio);
             if (( (Portfolio) portfolio ).getStrategies() != null) {
-              for (DollarCostStrategy dollarCostStrategy : ( (Portfolio) portfolio )
-                      .getStrategies()) {
-
-                checkForStocks(portfolio, dollarCostStrategy);
-              }
+              portfoliosWithStrategies.add(portfolio);
             }
           }
         } catch (FileNotFoundException e) {
@@ -1122,6 +1504,77 @@ public class VirtualStockModel implements VirtualStockModelInterface {
         }
       }
     }
+    catchUpStrategies(portfoliosWithStrategies);
+  }
+
+  /**
+   * A private helper method that buys the stocks due for the strategies of the given portfolios
+   * since they were last saved. Catching up mostly waits on fetching prices, so the stocks of all
+   * the strategies that are due are prefetched together first, and then each portfolio is caught
+   * up as a job on a thread of its own, the strategies of one portfolio being applied in order by
+   * the same job. The portfolios are saved only once every job has finished, and none of them is
+   * saved if any job failed.
+   *
+   * @param portfoliosWithStrategies the portfolios having strategies.
+   * @throws IllegalArgumentException when a strategy of a portfolio isn't valid.
+   * @throws IllegalStateException    when a portfolio can't be saved or the thread is interrupted.
+   */
+  private void catchUpStrategies(List<PortfolioInterface> portfoliosWithStrategies)
+          throws IllegalArgumentException, IllegalStateException {
+
+    LocalDate today = LocalDate.now();
+    Set<String> tickerSymbols = new LinkedHashSet<>();
+    for (PortfolioInterface portfolio : portfoliosWithStrategies) {
+      for (DollarCostStrategy dollarCostStrategy : portfolio.getStrategies()) {
+        LocalDate endDate = dollarCostStrategy.getEndDate();
+        if (dollarCostStrategy.getNextBuyDate().compareTo(
+                endDate == null || endDate.compareTo(today) > 0 ? today : endDate) <= 0) {
+          for (String tickerSymbol
+                  : dollarCostStrategy.getStockAndPercentOfInvestment().keySet()) {
+            tickerSymbols.add(tickerSymbol.trim().toUpperCase());
+          }
+        }
+      }
+    }
+    if (!tickerSymbols.isEmpty()) {
+      dataSource.prefetch(tickerSymbols, today);
+    }
+
+    ExecutorService jobs = TaskExecutors.newThreadPerTaskExecutor("strategy-catch-up");
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (PortfolioInterface portfolio : portfoliosWithStrategies) {
+        results.add(jobs.submit(() -> {
+          for (DollarCostStrategy dollarCostStrategy : portfolio.getStrategies()) {
+            checkForStocks(portfolio, dollarCostStrategy);
+          }
+        }));
+      }
+
+      RuntimeException failure = null;
+      for (Future<?> result : results) {
+        try {
+          result.get();
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                    : new IllegalStateException("Unable to apply the strategies", e.getCause());
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while applying the strategies");
+    } finally {
+      jobs.shutdown();
+    }
+
+    for (PortfolioInterface portfolio : portfoliosWithStrategies) {
+      savePortfolio(portfolio.getName());
+    }
   }
 
 
@@ -1130,6 +1583,15 @@ public class VirtualStockModel implements VirtualStockModelInterface {
                              double amount, int investmentInterval, String startDate,
                              String endDate, double commissionFee)
           throws IllegalArgumentException {
+    createStrategyBetween(strategyName, stockNameAndWeight, amount, investmentInterval,
+            parseStartDate(startDate), parseEndDate(endDate), commissionFee);
+  }
+
+  @Override
+  public void createStrategyBetween(String strategyName, Map<String, Double> stockNameAndWeight,
+                                    double amount, int investmentInterval, LocalDate startdate,
+                                    LocalDate enddate, double commissionFee)
+          throws IllegalArgumentException {
 
     DollarCostStrategy dollarCostStrategy = getStrategy(strategyName);
 
@@ -1138,18 +1600,7 @@ public class VirtualStockModel implements VirtualStockModelInterface {
     }
 
     validateInputForDollarCostAverageBasis(stockNameAndWeight, amount,
-            investmentInterval, startDate, endDate, commissionFee);
-
-    DateTimeFormatter format = DateTimeFormatter.ofPattern("dd-MM-uuuu")
-            .withResolverStyle(ResolverStyle.STRICT);
-    LocalDate startdate = LocalDate.parse(startDate, format);
-    LocalDate enddate;
-
-    if (endDate.equals("")) {
-      enddate = null;
-    } else {
-      enddate = LocalDate.parse(endDate, format);
-    }
+            investmentInterval, startdate, enddate, commissionFee);
 
     this.dollarCostStrategies.add(new DollarCostStrategy(strategyName.trim().toUpperCase(),
             startdate, enddate, investmentInterval, commissionFee, amount,
@@ -1168,18 +1619,10 @@ public class VirtualStockModel implements VirtualStockModelInterface {
               + " as it does not exist.");
     }
 
-    String startDate = getDateInFormat(dollarCostStrategy.getStartDate());
-
-    String endDate = "";
-    if (dollarCostStrategy.getEndDate() == null) {
-      endDate = "";
-    } else {
-      endDate = getDateInFormat(dollarCostStrategy.getEndDate());
-    }
-
-    dollarCostAveraging(portfolioName, dollarCostStrategy.getStockAndPercentOfInvestment(),
+    dollarCostAveragingBetween(portfolioName, dollarCostStrategy.getStockAndPercentOfInvestment(),
             dollarCostStrategy.getAmount(), dollarCostStrategy.getInvestmentInterval(),
-            startDate, endDate, dollarCostStrategy.getCommissionFee());
+            dollarCostStrategy.getStartDate(), dollarCostStrategy.getEndDate(),
+            dollarCostStrategy.getCommissionFee());
   }
 
 
@@ -1271,7 +1714,7 @@ public class VirtualStockModel implements VirtualStockModelInterface {
    */
   public void saveSession() throws IllegalArgumentException, IllegalStateException {
 
-    for (PortfolioInterface portfolio : this.portfolios) {
+    for (PortfolioInterface portfolio : this.portfolios.values()) {
       savePortfolio(portfolio.getName());
     }
     for (DollarCostStrategy dollarCostStrategy : this.dollarCostStrategies) {
@@ -1293,13 +1736,7 @@ public class VirtualStockModel implements VirtualStockModelInterface {
               + "for the save " + "operation.");
     }
 
-    for (PortfolioInterface portfolio : portfolios) {
-      if (portfolio.getName().equalsIgnoreCase(portfolioName)) {
-        //this is the portfolio to be saved in JSON format.
-        return true;
-      }
-    }
-    return false;
+    return portfolios.containsKey(portfolioName.trim().toUpperCase());
   }
 
   /**
@@ -1367,7 +1804,7 @@ public class VirtualStockModel implements VirtualStockModelInterface {
 
   /**
    * A private helper method to buy and add stocks to the portfolio for the strategies whose end
-   * date is in future.
+   * date is in future. The portfolio is not saved here.
    *
    * @param portfolio          the portfolio object
    * @param dollarCostStrategy the strategy for which stocks are checked
@@ -1389,9 +1826,6 @@ public class VirtualStockModel implements VirtualStockModelInterface {
     Map<String, Double> stockNameAndWeight = dollarCostStrategy.getStockAndPercentOfInvestment();
     int investmentInterval = dollarCostStrategy.getInvestmentInterval();
 
-    Calendar investmentCalendar = GregorianCalendar.from(investmentDate.atStartOfDay(
-            ZoneId.systemDefault()));
-
     LocalDate dateTillStockDataAvailable = null;
 
     LocalDate todaysDate = LocalDate.now();
@@ -1401,26 +1835,27 @@ public class VirtualStockModel implements VirtualStockModelInterface {
     } else {
       dateTillStockDataAvailable = todaysDate;
     }
+    Map<String, DensePriceSeries> priceSeries = new HashMap<>();
+    if (investmentDate.compareTo(dateTillStockDataAvailable) <= 0) {
+      isAmountCommissionPercentageValid(amount, commissionFee, stockNameAndWeight);
+      priceSeries = getPriceSeries(stockNameAndWeight.keySet(), investmentDate,
+              dateTillStockDataAvailable);
+    }
+
     while (investmentDate.compareTo(dateTillStockDataAvailable) <= 0) {
-      if (isHoliday(investmentCalendar)) {
-        investmentDate = investmentDate.plusDays(1);
-        investmentCalendar = GregorianCalendar.from(investmentDate
-                .atStartOfDay(ZoneId.systemDefault()));
+      if (!tradingCalendar.isTradingDay(investmentDate)) {
+        investmentDate = tradingCalendar.nextTradingDay(investmentDate);
         continue;
       }
-      String time = "15:59";
-      String investmentDateString = this.getDateInFormat(investmentDate) + " " + time;
 
-      invest(portfolio.getName(), stockNameAndWeight, amount, commissionFee, investmentDateString);
+      investOnDate(portfolio, stockNameAndWeight, amount, commissionFee, investmentDate,
+              priceSeries);
 
       investmentDate = actualInvestmentDate.plusDays(investmentInterval);
       actualInvestmentDate = investmentDate;
-      investmentCalendar = GregorianCalendar.from(investmentDate
-              .atStartOfDay(ZoneId.systemDefault()));
     }
 
     dollarCostStrategy.setNextBuyDate(actualInvestmentDate);
-    savePortfolio(portfolio.getName());
   }
 
 
@@ -1446,4 +1881,93 @@ public class VirtualStockModel implements VirtualStockModelInterface {
     return null;
   }
 
+  /**
+   * Values a range of portfolios on the given dates, splitting the range in halves that are valued
+   * in parallel until a single portfolio is left. The values of the portfolio at each position are
+   * stored at the same position of the list of values. The prices are looked up by the tasks as
+   * they value their portfolios and kept in a map shared by all of them, so a stock held by several
+   * portfolios is looked up only once for each day.
+   */
+  private static class PortfolioValuation extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DataSourceInterface dataSource; // looks up the prices.
+    private final List<PortfolioInterface> portfolios; // the portfolios to be valued.
+    private final int start; // position of the first portfolio of the range.
+    private final int end; // position after the last portfolio of the range.
+    private final Map<String, LocalDate> valuationDates; // day to value on, null in the future.
+    private final Map<String, Map<LocalDate, Double>> prices; // prices by ticker and day.
+    private final List<Map<String, Double>> values; // values of each portfolio by date.
+
+    /**
+     * Constructs the task valuing the portfolios between the given positions.
+     *
+     * @param dataSource     the data source the prices are looked up from.
+     * @param portfolios     the portfolios to be valued.
+     * @param start          position of the first portfolio of the range.
+     * @param end            position after the last portfolio of the range.
+     * @param valuationDates the day to value the portfolios on for each date, null for a date in
+     *                       the future.
+     * @param prices         the prices looked up so far keyed by ticker and day, shared by all
+     *                       the tasks.
+     * @param values         the values of each portfolio by date.
+     */
+    PortfolioValuation(DataSourceInterface dataSource, List<PortfolioInterface> portfolios,
+                       int start, int end, Map<String, LocalDate> valuationDates,
+                       Map<String, Map<LocalDate, Double>> prices,
+                       List<Map<String, Double>> values) {
+      this.dataSource = dataSource;
+      this.portfolios = portfolios;
+      this.start = start;
+      this.end = end;
+      this.valuationDates = valuationDates;
+      this.prices = prices;
+      this.values = values;
+    }
+
+    @Override
+    protected void compute() {
+
+      if (end - start > 1) {
+        int middle = ( start + end ) >>> 1;
+        invokeAll(new PortfolioValuation(dataSource, portfolios, start, middle, valuationDates,
+                        prices, values),
+                new PortfolioValuation(dataSource, portfolios, middle, end, valuationDates,
+                        prices, values));
+        return;
+      }
+
+      for (int i = start; i < end; i++) {
+        Map<String, Double> portfolioValues = new LinkedHashMap<>();
+        for (Map.Entry<String, LocalDate> date : valuationDates.entrySet()) {
+          LocalDate valuationDate = date.getValue();
+          if (valuationDate == null) {
+            portfolioValues.put(date.getKey(), 0.00);
+            continue;
+          }
+          portfolioValues.put(date.getKey(), portfolios.get(i).getSharesHeld(valuationDate)
+                  .entrySet().stream()
+                  .mapToDouble(s -> s.getValue() * getPriceAsOf(s.getKey(), valuationDate))
+                  .sum());
+        }
+        values.set(i, portfolioValues);
+      }
+    }
+
+    /**
+     * Gives the latest price of a stock at or before the given day, looking it up only if no task
+     * has done so yet.
+     *
+     * @param tickerSymbol the ticker symbol of the stock.
+     * @param day          the day.
+     * @return the price of the stock as of the day.
+     */
+    private double getPriceAsOf(String tickerSymbol, LocalDate day) {
+      return prices.computeIfAbsent(tickerSymbol, symbol -> new ConcurrentHashMap<>())
+              .computeIfAbsent(day, d -> dataSource.getPriceOfShareAsOf(tickerSymbol, d));
+    }
+
+  }
+
 }
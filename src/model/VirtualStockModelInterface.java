@@ -1,8 +1,16 @@
 package model;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * <p>This is the interface of the model of the virtual stock game. This provides functionalities
@@ -50,6 +58,14 @@ import java.util.Map;
  *
  * <p>These new methods are added to the existing VirtualStockModelInterface due to the same
  * reasons mentioned above.</p>
+ *
+ * <p>The methods that take dates also have variants taking LocalDate or LocalDateTime, for
+ * callers such as other programs that already have the dates and would otherwise format them
+ * only for the model to parse them back. The variants are named after the methods taking the
+ * dates as text, like getTotalValueOn for getTotalValue, rather than overloading them, so that
+ * a null literal passed as a date still calls the method taking text. The default
+ * implementations of these variants format the dates and call the methods taking them as
+ * text.</p>
  */
 public interface VirtualStockModelInterface {
 
@@ -97,6 +113,29 @@ public interface VirtualStockModelInterface {
     return;
   }
 
+  /**
+   * Buy a stock of a company and add it to one of the existing portfolios the same way as
+   * buySharesOfStock with the date in dd-MM-yyyy HH:mm format does.
+   *
+   * @param tickerSymbol  the ticker symbol of the company
+   * @param portfolioName the name of the portfolio to which the stock has to be added
+   * @param amount        the amount for which shares are to be bought
+   * @param date          the date and time at which the stock is to be bought
+   * @param commissionFee the fee paid as brokerage to buy the stocks. It cannot be negative.
+   * @throws IllegalArgumentException when one of the parameters is null or empty. The amount cannot
+   *                                  be negative and also when the amount is insufficient to buy at
+   *                                  least one share. If commission fee is negative.
+   */
+  default void buySharesOfStockAt(String tickerSymbol, String portfolioName, double amount,
+                                  LocalDateTime date, double commissionFee)
+          throws IllegalArgumentException {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be empty or null");
+    }
+    buySharesOfStock(tickerSymbol, portfolioName, amount,
+            date.format(DateTimeFormatter.ofPattern("dd-MM-uuuu HH:mm")), commissionFee);
+  }
+
   /**
    * Gives the total amount invested in buying the stocks on a particular date which is called the
    * total cost basis for the portfolio. This gives the total amount of all the stocks bought on or
@@ -112,7 +151,8 @@ public interface VirtualStockModelInterface {
 
   /**
    * Gives the total value of the portfolio on a specific date based on the stocks bought on or
-   * before the given date and the price of the share for that stock on that given date.
+   * before the given date and the price of the share for that stock on that given date. If the
+   * given date is in future, returns 0.00.
    *
    * @param portfolioName the name of the portfolio for which total value is to be found
    * @param date          the date on which the total value is to be found
@@ -124,6 +164,202 @@ public interface VirtualStockModelInterface {
    */
   double getTotalValue(String portfolioName, String date) throws IllegalArgumentException;
 
+  /**
+   * Gives the total cost basis of the portfolio on a specific date the same way as
+   * getTotalCostBasis with the date in dd-MM-yyyy format does.
+   *
+   * @param portfolioName the name of the portfolio for which totalCostBasis is to be found
+   * @param date          the date till which the totalCostBasis is found
+   * @return double the totalCostBasis for the portfolio on the given date
+   * @throws IllegalArgumentException when the portfolio name doesn't exist or name or date is
+   *                                  null
+   */
+  default double getTotalCostBasisOn(String portfolioName, LocalDate date)
+          throws IllegalArgumentException {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be empty or null");
+    }
+    return getTotalCostBasis(portfolioName, date.format(DateTimeFormatter.ofPattern("dd-MM-uuuu")));
+  }
+
+  /**
+   * Gives the total value of the portfolio on a specific date the same way as getTotalValue with
+   * the date in dd-MM-yyyy format does.
+   *
+   * @param portfolioName the name of the portfolio for which total value is to be found
+   * @param date          the date on which the total value is to be found
+   * @return double the total value or worth of the portfolio on the given date.
+   * @throws IllegalArgumentException when the name or date is null or the portfolio doesn't
+   *                                  exist.
+   */
+  default double getTotalValueOn(String portfolioName, LocalDate date)
+          throws IllegalArgumentException {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be empty or null");
+    }
+    return getTotalValue(portfolioName, date.format(DateTimeFormatter.ofPattern("dd-MM-uuuu")));
+  }
+
+  /**
+   * Gives the total cost basis of the portfolio on a specific date without blocking the caller,
+   * such as a user interface that has to stay responsive meanwhile. The default implementation
+   * finds it at once through getTotalCostBasis.
+   *
+   * @param portfolioName the name of the portfolio for which totalCostBasis is to be found
+   * @param date          the date till which the totalCostBasis is found
+   * @return the future totalCostBasis for the portfolio on the given date, which completes
+   *         exceptionally with IllegalArgumentException when the portfolio name doesn't exist or
+   *         name or date is not valid or empty,null
+   */
+  default CompletableFuture<Double> getTotalCostBasisAsync(String portfolioName, String date) {
+    CompletableFuture<Double> totalCostBasis = new CompletableFuture<>();
+    try {
+      totalCostBasis.complete(getTotalCostBasis(portfolioName, date));
+    } catch (RuntimeException e) {
+      totalCostBasis.completeExceptionally(e);
+    }
+    return totalCostBasis;
+  }
+
+  /**
+   * Gives the total value of the portfolio on a specific date without blocking the caller while
+   * the prices of its stocks are fetched. The default implementation finds it at once through
+   * getTotalValue.
+   *
+   * @param portfolioName the name of the portfolio for which total value is to be found
+   * @param date          the date on which the total value is to be found
+   * @return the future total value of the portfolio, which completes exceptionally with
+   *         IllegalArgumentException when one of the parameters is not valid or the portfolio
+   *         doesn't exist.
+   */
+  default CompletableFuture<Double> getTotalValueAsync(String portfolioName, String date) {
+    CompletableFuture<Double> totalValue = new CompletableFuture<>();
+    try {
+      totalValue.complete(getTotalValue(portfolioName, date));
+    } catch (RuntimeException e) {
+      totalValue.completeExceptionally(e);
+    }
+    return totalValue;
+  }
+
+  /**
+   * Gives the total value of the portfolio on every step days from a start date up to an end date,
+   * both in dd-MM-yyyy format, for example to chart how its worth changed. The value on each of
+   * those days is the same as getTotalValue gives for it. The default implementation calls
+   * getTotalValue for each day.
+   *
+   * @param portfolioName the name of the portfolio for which the values are to be found
+   * @param from          the first date on which the total value is to be found
+   * @param to            the last date up to which the total values are to be found
+   * @param step          the number of days between two dates on which the value is found
+   * @return the total values keyed by their dates in dd-MM-yyyy format, in order of date.
+   * @throws IllegalArgumentException when one of the parameters is not valid, that is when name,
+   *                                  a date is null or empty, the start date is after the end
+   *                                  date or the step is not positive. Also, exception is thrown
+   *                                  when the portfolio doesn't exist.
+   */
+  default Map<String, Double> getValueSeries(String portfolioName, String from, String to,
+                                             int step) throws IllegalArgumentException {
+
+    DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("dd-MM-uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+    LocalDate fromDate;
+    LocalDate toDate;
+    try {
+      fromDate = LocalDate.parse(from, dateFormat);
+      toDate = LocalDate.parse(to, dateFormat);
+    } catch (DateTimeParseException | NullPointerException e) {
+      throw new IllegalArgumentException("Entered date should be in format 'dd-MM-yyyy and a "
+              + "valid calendar date.'");
+    }
+    if (fromDate.compareTo(toDate) > 0) {
+      throw new IllegalArgumentException("Start date can't be after the end date");
+    }
+    if (step <= 0) {
+      throw new IllegalArgumentException("Number of days between the values should be positive");
+    }
+
+    Map<String, Double> values = new LinkedHashMap<>();
+    for (LocalDate date = fromDate; date.compareTo(toDate) <= 0; date = date.plusDays(step)) {
+      String day = date.format(dateFormat);
+      values.put(day, getTotalValue(portfolioName, day));
+    }
+    return values;
+  }
+
+  /**
+   * Gives the total value of the portfolio on every step days from a start date up to an end date
+   * the same way as getValueSeries with the dates in dd-MM-yyyy format does. The default
+   * implementation calls it with the dates formatted.
+   *
+   * @param portfolioName the name of the portfolio for which the values are to be found
+   * @param from          the first date on which the total value is to be found
+   * @param to            the last date up to which the total values are to be found
+   * @param step          the number of days between two dates on which the value is found
+   * @return the total values keyed by their dates, in order of date.
+   * @throws IllegalArgumentException when one of the parameters is not valid, that is when name,
+   *                                  a date is null, the start date is after the end date or the
+   *                                  step is not positive. Also, exception is thrown when the
+   *                                  portfolio doesn't exist.
+   */
+  default Map<LocalDate, Double> getValueSeriesBetween(String portfolioName, LocalDate from,
+                                                       LocalDate to, int step)
+          throws IllegalArgumentException {
+
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Dates cannot be null");
+    }
+    DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("dd-MM-uuuu");
+    Map<LocalDate, Double> values = new LinkedHashMap<>();
+    for (Map.Entry<String, Double> value : getValueSeries(portfolioName, from.format(dateFormat),
+            to.format(dateFormat), step).entrySet()) {
+      values.put(LocalDate.parse(value.getKey(), dateFormat), value.getValue());
+    }
+    return values;
+  }
+
+  /**
+   * Gives the total value of each of the given portfolios on each of the given dates, for example
+   * to value every portfolio at the end of a day. The value of a portfolio on a date is the same as
+   * getTotalValue gives for it. The default implementation calls getTotalValue for each portfolio
+   * and date in turn.
+   *
+   * @param portfolioNames the names of the portfolios to be valued
+   * @param dates          the dates on which the portfolios are to be valued, in dd-MM-yyyy format
+   * @return the total values keyed by portfolio name and then by date, in the order given.
+   * @throws IllegalArgumentException when one of the names or dates is not valid, that is when it
+   *                                  is null or empty, or a portfolio doesn't exist.
+   */
+  default Map<String, Map<String, Double>> getTotalValues(Collection<String> portfolioNames,
+                                                          Collection<String> dates)
+          throws IllegalArgumentException {
+
+    if (portfolioNames == null || dates == null) {
+      throw new IllegalArgumentException("Portfolio names and dates can't be null");
+    }
+    Map<String, Map<String, Double>> totalValues = new LinkedHashMap<>();
+    for (String portfolioName : portfolioNames) {
+      Map<String, Double> values = new LinkedHashMap<>();
+      for (String date : dates) {
+        values.put(date, getTotalValue(portfolioName, date));
+      }
+      totalValues.put(portfolioName.trim().toUpperCase(), values);
+    }
+    return totalValues;
+  }
+
+  /**
+   * Gives the total value of every portfolio on each of the given dates.
+   *
+   * @param dates the dates on which the portfolios are to be valued, in dd-MM-yyyy format
+   * @return the total values keyed by portfolio name and then by date.
+   * @throws IllegalArgumentException when one of the dates is not valid.
+   */
+  default Map<String, Map<String, Double>> getTotalValues(Collection<String> dates)
+          throws IllegalArgumentException {
+    return getTotalValues(getPortfolioNames(), dates);
+  }
+
   /**
    * Provides the content of a single portfolio and its stock details in a specific format.
    *
@@ -175,6 +411,34 @@ public interface VirtualStockModelInterface {
     return "";
   }
 
+  /**
+   * Invest a fixed amount into an existing portfolio containing multiple stocks the same way as
+   * invest with the date in dd-MM-yyyy HH:mm format does.
+   *
+   * @param portfolioName      the name of the portfolio on which the investment is to be made.
+   * @param stockNameAndWeight the different percentages for the stocks
+   * @param amount             the amount to be invested.
+   * @param commissionFee      the fee paid for brokerage for each stock bought.
+   * @param date               the date and time at which the stocks are to be bought.
+   * @return String the investment summary stating whether the investment was successfully or not
+   *         for each of the stocks.
+   * @throws IllegalArgumentException when portfolio name is null or empty. The given portfolio does
+   *                                  not exists. Also when the commission fee is negative. The
+   *                                  individual percentage given for the stocks should not be
+   *                                  negative and the sum of the percentages is either lesser or
+   *                                  greater then 100. If the date is null or when investment is to
+   *                                  done on a non-business day/hour.
+   */
+  default String investAt(String portfolioName, Map<String, Double> stockNameAndWeight,
+                          double amount, double commissionFee, LocalDateTime date)
+          throws IllegalArgumentException {
+    if (date == null) {
+      throw new IllegalArgumentException("Date cannot be empty or null");
+    }
+    return invest(portfolioName, stockNameAndWeight, amount, commissionFee,
+            date.format(DateTimeFormatter.ofPattern("dd-MM-uuuu HH:mm")));
+  }
+
   /**
    * <p>Dollar Cost Averaging is an higher-level investment strategy where one can create a
    * portfolio of N stocks, and invest $X in the portfolio every Y days starting on startDate until
@@ -224,6 +488,40 @@ public interface VirtualStockModelInterface {
     return;
   }
 
+  /**
+   * Invest a fixed amount in a portfolio every given number of days from a start date until an
+   * end date the same way as dollarCostAveraging with the dates in dd-MM-yyyy format does.
+   *
+   * @param portfolioName      the name of the portfolio for which Dollar Cost Averaging investment
+   *                           is made.
+   * @param stockNameAndWeight A map of stock names and corresponding percentage weight of the
+   *                           amount to be invested for that particular stock.
+   * @param amount             the fixed amount to be invested periodically.
+   * @param investmentInterval the frequency of the investment in days.
+   * @param startDate          the starting date of the investment.
+   * @param endDate            the end date of the investment, null for an investment without an
+   *                           end date.
+   * @param commissionFee      the fee paid for brokerage for each stock bought.
+   * @throws IllegalArgumentException when the investment interval is less than 1, start date is
+   *                                  null, start date is not before the end date, amount or
+   *                                  commission fee is negative, the sum of percentages for the
+   *                                  stocks is not equal to 100 or if the percentage is negative,
+   *                                  if the ticker symbol is invalid.
+   */
+  default void dollarCostAveragingBetween(String portfolioName,
+                                          Map<String, Double> stockNameAndWeight, double amount,
+                                          int investmentInterval, LocalDate startDate,
+                                          LocalDate endDate, double commissionFee)
+          throws IllegalArgumentException {
+    if (startDate == null) {
+      throw new IllegalArgumentException("The start date cannot be null or empty");
+    }
+    DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("dd-MM-uuuu");
+    dollarCostAveraging(portfolioName, stockNameAndWeight, amount, investmentInterval,
+            startDate.format(dateFormat), endDate == null ? "" : endDate.format(dateFormat),
+            commissionFee);
+  }
+
   /**
    * A method that takes a portfolio name, ticker symbol and add the stock(i.e. ticker symbol) to
    * the set of stocks the portfolio can contain. If the provided portfolio doesn't exist, it will
@@ -322,6 +620,39 @@ public interface VirtualStockModelInterface {
     return;
   }
 
+  /**
+   * Method to create a dollar cost averaging strategy the same way as createStrategy with the
+   * dates in dd-MM-yyyy format does.
+   *
+   * @param strategyName       the name of the strategy
+   * @param stockNameAndWeight A map of stock names and corresponding percentage weights of the
+   *                           amount to be invested for that particular stock.
+   * @param amount             the fixed amount to be invested periodically.
+   * @param investmentInterval the frequency of the investment in days.
+   * @param startDate          the starting date of the investment.
+   * @param endDate            the end date of the investment, null for a strategy without an end
+   *                           date.
+   * @param commissionFee      the fee paid for brokerage for each stock bought.
+   * @throws IllegalArgumentException when strategy name is null, empty or already exists. The
+   *                                  investment interval is less than 1 day, start date is null,
+   *                                  start date is not before the end date, amount or commission
+   *                                  fee is negative, the sum of percentages for the stocks is not
+   *                                  equal to 100 or if the percentage is negative, if the ticker
+   *                                  symbol is invalid.
+   */
+  default void createStrategyBetween(String strategyName, Map<String, Double> stockNameAndWeight,
+                                     double amount, int investmentInterval, LocalDate startDate,
+                                     LocalDate endDate, double commissionFee)
+          throws IllegalArgumentException {
+    if (startDate == null) {
+      throw new IllegalArgumentException("The start date cannot be null or empty");
+    }
+    DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("dd-MM-uuuu");
+    createStrategy(strategyName, stockNameAndWeight, amount, investmentInterval,
+            startDate.format(dateFormat), endDate == null ? "" : endDate.format(dateFormat),
+            commissionFee);
+  }
+
   /**
    * Method to set the created dollar cost averaging strategy using the createStrategy method on an
    * existing or new portfolio. Takes in the name of the strategy which was created and the name of
@@ -1,7 +1,13 @@
 package root;
 
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 import controller.Controller;
@@ -9,6 +15,7 @@ import controller.ControllerInterface;
 import datasource.DataSourceCreator;
 import datasource.DataSourceInterface;
 import guicontroller.GUIController;
+import model.TradingCalendar;
 import model.VirtualStockModel;
 import model.VirtualStockModelInterface;
 import view.GUIView;
@@ -32,6 +39,10 @@ public class StartApplication {
    * symbol and the date. This model object is in turn passed to the controller and the controller
    * is used to take commmands from the user and call the corresponding model method</p>
    *
+   * <p>The data source can be wrapped in stages like a cache or retries, given as a comma separated
+   * list after -stages, innermost first. With -threadperfetch the ALPHAAPI source fetches each
+   * price series on a thread of its own.</p>
+   *
    * @param arguments command line arguments that provides information on which data source, UI to
    *                  use.
    */
@@ -46,6 +57,30 @@ public class StartApplication {
       return;
     }
 
+    List<String> stages = new ArrayList<>();
+    boolean threadPerFetch = false;
+    List<String> remainingArguments = new ArrayList<>(Arrays.asList(arguments).subList(0, 3));
+    for (int i = 3; i < arguments.length; i++) {
+      if (arguments[i].trim().equalsIgnoreCase("-STAGES")) {
+        if (i == arguments.length - 1) {
+          System.out.println("Please provide the stages after -stages as mentioned in"
+                  + " setup-readme.txt");
+          return;
+        }
+        try {
+          stages = DataSourceCreator.getStages(arguments[i + 1]);
+        } catch (IllegalArgumentException e) {
+          System.out.println(e.getMessage() + "\n");
+          return;
+        }
+        i++;
+      } else if (arguments[i].trim().equalsIgnoreCase("-THREADPERFETCH")) {
+        threadPerFetch = true;
+      } else {
+        remainingArguments.add(arguments[i]);
+      }
+    }
+    arguments = remainingArguments.toArray(new String[0]);
 
     switch (arguments[2].trim().toUpperCase()) {
       case "USERINPUT":
@@ -68,14 +103,34 @@ public class StartApplication {
           }
         }
         datasourceobject = DataSourceCreator.getDataSource(dataSource,
-                new StringReader(datainput.toString()));
+                new StringReader(datainput.toString()), stages, threadPerFetch);
         System.out.println("DataSource read successfully. You can proceed with operations\n");
         break;
 
       case "ALPHAAPI":
         dataSource = "ALPHAAPI";
         rd = new InputStreamReader(System.in);
-        datasourceobject = DataSourceCreator.getDataSource(dataSource, rd);
+        datasourceobject = DataSourceCreator.getDataSource(dataSource, rd, stages,
+                threadPerFetch);
+        System.out.println("DataSource read successfully. You can proceed with operations\n");
+        break;
+
+      case "FILEINPUT":
+        dataSource = "FILEINPUT";
+        if (arguments.length == 3) {
+          System.out.println("Please provide the paths of the stock data files after the"
+                  + " datasource as mentioned in setup-readme.txt");
+          return;
+        }
+        rd = new InputStreamReader(System.in);
+        try {
+          datasourceobject = DataSourceCreator.getDataSource(dataSource, new StringReader(
+                  String.join("\n", Arrays.copyOfRange(arguments, 3, arguments.length))), stages,
+                  threadPerFetch);
+        } catch (IllegalArgumentException e) {
+          System.out.println("The stock data files could not be read: " + e.getMessage() + "\n");
+          return;
+        }
         System.out.println("DataSource read successfully. You can proceed with operations\n");
         break;
 
@@ -85,7 +140,18 @@ public class StartApplication {
 
     }
 
-    VirtualStockModelInterface model = new VirtualStockModel(datasourceobject);
+    TradingCalendar tradingCalendar = new TradingCalendar();
+    File holidays = new File("./holidays.txt");
+    if (holidays.exists()) {
+      try (FileReader holidaysReader = new FileReader(holidays)) {
+        tradingCalendar = new TradingCalendar(holidaysReader);
+      } catch (IOException | IllegalArgumentException e) {
+        System.out.println("The holidays file could not be read: " + e.getMessage()
+                + ". Only the standard holidays will be used.\n");
+      }
+    }
+
+    VirtualStockModelInterface model = new VirtualStockModel(datasourceobject, tradingCalendar);
     if (!arguments[0].trim().equalsIgnoreCase("-VIEW")) {
       System.out.println("Please provide valid options as mentioned in setup-readme.txt");
       return;
@@ -0,0 +1,311 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import datasource.AlphavantageAPI;
+import datasource.DiskPriceCache;
+import datasource.InputFromUser;
+import datasource.PriceSeries;
+import datasource.RateLimiter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AlphavantageAPITest {
+
+  private File directory;
+
+  /**
+   * An AlphavantageAPI that serves the given series instead of calling the API, and records
+   * whether each call asked for the full history.
+   */
+  private static class FakeAPI extends AlphavantageAPI {
+
+    private final PriceSeries full; // served when the full history is asked for.
+    private final PriceSeries compact; // served when the latest days are asked for.
+    private final List<Boolean> calls; // whether each call asked for the full history.
+    private final CountDownLatch release; // opened to let the calls return.
+
+    /**
+     * Constructs the fake API caching its series under the given directory.
+     *
+     * @param directory the directory of the cache on the disk.
+     * @param full      the series served as the full history.
+     * @param compact   the series served as the latest days.
+     */
+    FakeAPI(File directory, PriceSeries full, PriceSeries compact) {
+      this(directory, full, compact, new CountDownLatch(0));
+    }
+
+    /**
+     * Constructs the fake API whose calls return only once the given latch is opened.
+     *
+     * @param directory the directory of the cache on the disk.
+     * @param full      the series served as the full history.
+     * @param compact   the series served as the latest days.
+     * @param release   the latch opened to let the calls return.
+     */
+    FakeAPI(File directory, PriceSeries full, PriceSeries compact, CountDownLatch release) {
+      super(directory, new RateLimiter(100, 1, TimeUnit.SECONDS));
+      this.full = full;
+      this.compact = compact;
+      this.calls = Collections.synchronizedList(new ArrayList<>());
+      this.release = release;
+    }
+
+    @Override
+    protected PriceSeries fetchDataFromAPI(String stockSymbol, boolean fullHistory) {
+      calls.add(fullHistory);
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return fullHistory ? full : compact;
+    }
+  }
+
+  /**
+   * An AlphavantageAPI whose calls fail for the given stock and otherwise wait until the given
+   * number of calls are in flight at once, and record whether they all were.
+   */
+  private static class ConcurrentFakeAPI extends AlphavantageAPI {
+
+    private final PriceSeries full; // served for every stock that doesn't fail.
+    private final String failing; // the stock whose calls fail.
+    private final CountDownLatch inFlight; // counted down as each call starts.
+    private final List<Boolean> together; // whether each call saw the others in flight.
+
+    /**
+     * Constructs the fake API caching its series under the given directory.
+     *
+     * @param directory the directory of the cache on the disk.
+     * @param permits   the api calls allowed at once, which is also the size of its pool.
+     * @param full      the series served for every stock that doesn't fail.
+     * @param failing   the stock whose calls fail.
+     * @param calls     the number of calls expected in flight at once.
+     */
+    ConcurrentFakeAPI(File directory, int permits, PriceSeries full, String failing, int calls) {
+      super(directory, new RateLimiter(permits, 1, TimeUnit.SECONDS));
+      this.full = full;
+      this.failing = failing;
+      this.inFlight = new CountDownLatch(calls);
+      this.together = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @Override
+    protected PriceSeries fetchDataFromAPI(String stockSymbol, boolean fullHistory) {
+      inFlight.countDown();
+      try {
+        together.add(inFlight.await(5, TimeUnit.SECONDS));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (stockSymbol.equals(failing)) {
+        throw new IllegalArgumentException("No price data found for " + stockSymbol);
+      }
+      return full;
+    }
+  }
+
+  @Before
+  public void setUp() throws IOException {
+
+    directory = Files.createTempDirectory("price-cache").toFile();
+    directory.deleteOnExit();
+  }
+
+  /**
+   * Creates the series of AAPL from the given stock data.
+   *
+   * @param data the stock data, one price per line.
+   * @return the series.
+   */
+  private PriceSeries series(String data) {
+    return new InputFromUser(new StringReader(data)).getPrices("AAPL",
+            LocalDate.of(2018, 1, 1), LocalDate.of(2018, 12, 31));
+  }
+
+  /**
+   * Stores the given series of AAPL in the cache on the disk as if it was fetched the given number
+   * of hours ago.
+   *
+   * @param series   the series.
+   * @param hoursAgo the hours since the series was fetched.
+   */
+  private void cache(PriceSeries series, int hoursAgo) {
+
+    assertTrue(new DiskPriceCache(directory).write("AAPL", series));
+    assertTrue(new File(directory, "AAPL.bin").setLastModified(
+            System.currentTimeMillis() - TimeUnit.HOURS.toMillis(hoursAgo)));
+  }
+
+  /**
+   * Testing that a held series that is stale for a date is brought up to date with the latest days
+   * only, which replace the held days they overlap.
+   */
+  @Test
+  public void testRefreshMergesLatestDays() {
+
+    cache(series("AAPL,01-11-2018,100.0\n"
+            + "AAPL,02-11-2018,101.0\n"
+            + "AAPL,05-11-2018,102.0\n"), 2);
+    FakeAPI api = new FakeAPI(directory, series("AAPL,01-11-2018,1.0\n"),
+            series("AAPL,05-11-2018,202.0\n"
+                    + "AAPL,06-11-2018,203.0\n"
+                    + "AAPL,07-11-2018,204.0\n"));
+
+    assertEquals(204.0, api.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 7)), 0.0);
+    assertEquals(Collections.singletonList(false), api.calls);
+    assertEquals(100.0, api.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 1)), 0.0);
+    assertEquals(202.0, api.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 5)), 0.0);
+    assertEquals(5, new DiskPriceCache(directory).read("AAPL").size());
+  }
+
+  /**
+   * Testing that the full history is fetched when the latest days start after the last held day,
+   * as the days in between would be missing otherwise.
+   */
+  @Test
+  public void testRefreshWithGapFetchesFullHistory() {
+
+    cache(series("AAPL,01-10-2018,100.0\n"
+            + "AAPL,02-10-2018,101.0\n"), 2);
+    FakeAPI api = new FakeAPI(directory, series("AAPL,01-10-2018,150.0\n"
+            + "AAPL,15-10-2018,160.0\n"
+            + "AAPL,07-11-2018,204.0\n"),
+            series("AAPL,07-11-2018,204.0\n"));
+
+    assertEquals(204.0, api.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 7)), 0.0);
+    assertEquals(Arrays.asList(false, true), api.calls);
+    assertEquals(150.0, api.getPriceOfShare("AAPL", LocalDate.of(2018, 10, 1)), 0.0);
+    assertEquals(160.0, api.getPriceOfShare("AAPL", LocalDate.of(2018, 10, 15)), 0.0);
+    assertEquals(3, new DiskPriceCache(directory).read("AAPL").size());
+  }
+
+  /**
+   * Testing that a held series is fetched again only for a date after its last day, and only when
+   * it was fetched more than an hour ago.
+   */
+  @Test
+  public void testIsStale() {
+
+    cache(series("AAPL,01-11-2018,100.0\n"
+            + "AAPL,02-11-2018,101.0\n"), 2);
+    FakeAPI api = new FakeAPI(directory, series(""), series("AAPL,02-11-2018,101.0\n"
+            + "AAPL,05-11-2018,102.0\n"));
+
+    assertEquals(101.0, api.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 2)), 0.0);
+    assertEquals(Collections.emptyList(), api.calls);
+
+    assertEquals(101.0, api.getPriceOfShareAsOf("AAPL", LocalDate.of(2018, 11, 4)), 0.0);
+    assertEquals(Collections.singletonList(false), api.calls);
+
+    assertEquals(0.0, api.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 9)), 0.0);
+    assertEquals(Collections.singletonList(false), api.calls);
+
+    cache(series("AAPL,01-11-2018,100.0\n"), 0);
+    FakeAPI recent = new FakeAPI(directory, series(""), series(""));
+    assertEquals(100.0, recent.getPriceOfShareAsOf("AAPL", LocalDate.of(2018, 11, 4)), 0.0);
+    assertEquals(Collections.emptyList(), recent.calls);
+  }
+
+  /**
+   * Testing that lookups of the same stock made while its series is being fetched, blocking or
+   * not, wait for that fetch instead of calling the API again.
+   */
+  @Test
+  public void testConcurrentLookupsShareOneFetch() throws Exception {
+
+    CountDownLatch release = new CountDownLatch(1);
+    FakeAPI api = new FakeAPI(directory, series("AAPL,01-11-2018,100.0\n"), series(""),
+            release);
+    LocalDate date = LocalDate.of(2018, 11, 1);
+
+    ExecutorService callers = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Double>> lookups = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        lookups.add(callers.submit(() -> api.getPriceOfShare("AAPL", date)));
+      }
+      List<CompletableFuture<Double>> asyncLookups = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        asyncLookups.add(api.getPriceAsOfAsync("AAPL", date));
+      }
+      Thread.sleep(200);
+      release.countDown();
+
+      for (Future<Double> lookup : lookups) {
+        assertEquals(100.0, lookup.get(5, TimeUnit.SECONDS), 0.0);
+      }
+      for (CompletableFuture<Double> lookup : asyncLookups) {
+        assertEquals(100.0, lookup.get(5, TimeUnit.SECONDS), 0.0);
+      }
+    } finally {
+      callers.shutdown();
+    }
+    assertEquals(Collections.singletonList(true), api.calls);
+  }
+
+  /**
+   * Testing that a prefetch fetches the stocks at the same time, and that a stock that can't be
+   * fetched is not reported by the prefetch but by its lookup.
+   */
+  @Test
+  public void testPrefetchFetchesConcurrentlyAndDefersFailures() {
+
+    ConcurrentFakeAPI api = new ConcurrentFakeAPI(directory, 5,
+            series("AAPL,01-11-2018,100.0\n"), "BAD", 3);
+    LocalDate date = LocalDate.of(2018, 11, 1);
+
+    api.prefetch(Arrays.asList("AAPL", "MSFT", "BAD", "AAPL"), date);
+    assertEquals(Arrays.asList(true, true, true), api.together);
+
+    assertEquals(100.0, api.getPriceOfShare("AAPL", date), 0.0);
+    assertEquals(100.0, api.getPriceOfShare("MSFT", date), 0.0);
+    assertEquals(3, api.together.size());
+    try {
+      api.getPriceOfShare("BAD", date);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("No price data found for BAD", e.getMessage());
+    }
+  }
+
+  /**
+   * Testing that a prefetch made on the only fetching thread, from a callback of an asynchronous
+   * lookup, returns instead of waiting for a fetch that needs that thread.
+   */
+  @Test
+  public void testPrefetchOnFetchingThreadReturns() throws Exception {
+
+    ConcurrentFakeAPI api = new ConcurrentFakeAPI(directory, 1,
+            series("AAPL,01-11-2018,100.0\n"), "BAD", 1);
+    LocalDate date = LocalDate.of(2018, 11, 1);
+
+    CompletableFuture<Double> lookup = api.getPriceAsOfAsync("AAPL", date)
+            .thenApply(price -> {
+              api.prefetch(Collections.singletonList("MSFT"), date);
+              return price;
+            });
+    assertEquals(100.0, lookup.get(5, TimeUnit.SECONDS), 0.0);
+    assertEquals(100.0, api.getPriceOfShare("MSFT", date), 0.0);
+  }
+
+}
@@ -0,0 +1,90 @@
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+
+import datasource.CompressedPriceStore;
+import datasource.InputFromUser;
+import datasource.PriceSeries;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompressedPriceStoreTest {
+
+  /**
+   * Builds user input of the given number of weekdays of a stock starting from 01-01-1999, with
+   * prices of 4 decimals or, if asked, prices of any number of digits.
+   *
+   * @param tickerSymbol the ticker symbol of the stock.
+   * @param days         the number of days.
+   * @param anyDigits    true for prices of any number of digits.
+   * @return the user input.
+   */
+  private String stockData(String tickerSymbol, int days, boolean anyDigits) {
+
+    Random random = new Random(days);
+    StringBuilder data = new StringBuilder();
+    LocalDate date = LocalDate.of(1999, 1, 1);
+    double price = 100;
+    for (int i = 0; i < days; i++) {
+      price = Math.max(0.01, price * ( 1 + random.nextGaussian() * 0.02 ));
+      data.append(tickerSymbol).append(',')
+              .append(String.format("%02d-%02d-%04d", date.getDayOfMonth(),
+                      date.getMonthValue(), date.getYear())).append(',')
+              .append(anyDigits ? price : Math.round(price * 10000) / 10000.0).append('\n');
+      date = date.plusDays(date.getDayOfWeek().getValue() == 5 ? 3 : 1);
+    }
+    return data.toString();
+  }
+
+  /**
+   * Testing that every lookup on the store gives exactly the prices put in, across blocks and for
+   * both kinds of prices.
+   */
+  @Test
+  public void testLookupsMatchSeries() {
+
+    InputFromUser input = new InputFromUser(new StringReader(stockData("AAPL", 3000, false)
+            + stockData("GOOG", 1500, true) + stockData("TSLA", 1, false)));
+    CompressedPriceStore store = new CompressedPriceStore();
+    assertEquals(3, store.load(input, Arrays.asList("AAPL", "GOOG", "TSLA", "MSFT"),
+            LocalDate.of(1990, 1, 1), LocalDate.of(2030, 1, 1)));
+    assertEquals(4501, store.getDayCount());
+
+    for (String tickerSymbol : Arrays.asList("AAPL", "GOOG", "TSLA", "MSFT")) {
+      for (LocalDate date = LocalDate.of(1998, 12, 25); date.getYear() < 2011;
+           date = date.plusDays(1)) {
+        assertEquals(input.getPriceOfShare(tickerSymbol, date),
+                store.getPriceOfShare(tickerSymbol, date), 0.0);
+        assertEquals(input.getPriceOfShareAsOf(tickerSymbol, date),
+                store.getPriceOfShareAsOf(tickerSymbol, date), 0.0);
+      }
+    }
+  }
+
+  /**
+   * Testing that a range decodes the same days and prices as the series put in.
+   */
+  @Test
+  public void testRangeMatchesSeries() {
+
+    InputFromUser input = new InputFromUser(new StringReader(stockData("AAPL", 3000, false)));
+    CompressedPriceStore store = new CompressedPriceStore();
+    store.put("AAPL", input.getPrices("AAPL", LocalDate.of(1990, 1, 1),
+            LocalDate.of(2030, 1, 1)));
+
+    LocalDate from = LocalDate.of(2000, 6, 3);
+    LocalDate to = LocalDate.of(2006, 2, 11);
+    PriceSeries expected = input.getPrices("AAPL", from, to);
+    PriceSeries actual = store.getPrices("AAPL", from, to);
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.getEpochDay(i), actual.getEpochDay(i));
+      assertEquals(expected.getClosingPrice(i), actual.getClosingPrice(i), 0.0);
+    }
+    assertEquals(0, store.getPrices("AAPL", to, from).size());
+  }
+
+}
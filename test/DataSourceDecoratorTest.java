@@ -0,0 +1,205 @@
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import datasource.AlphavantageAPI;
+import datasource.CachingDataSource;
+import datasource.CircuitBreakerDataSource;
+import datasource.DataSourceCreator;
+import datasource.DataSourceInterface;
+import datasource.DataSourceUnavailableException;
+import datasource.MetricsDataSource;
+import datasource.RetryingDataSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DataSourceDecoratorTest {
+
+  private final LocalDate date = LocalDate.of(2018, 11, 1);
+  private final AtomicInteger calls = new AtomicInteger();
+
+  /**
+   * Creates a data source that counts its calls and is unavailable for the given number of calls
+   * before giving the price 10.0.
+   *
+   * @param unavailableCalls the number of calls that find the source unavailable.
+   * @return the data source.
+   */
+  private DataSourceInterface source(int unavailableCalls) {
+
+    return (tickerSymbol, localDate) -> {
+      if (calls.incrementAndGet() <= unavailableCalls) {
+        throw new DataSourceUnavailableException("down");
+      }
+      return 10.0;
+    };
+  }
+
+  /**
+   * Testing that a price found is asked of the decorated source only once.
+   */
+  @Test
+  public void testCacheAsksOnce() {
+
+    DataSourceInterface cache = new CachingDataSource(source(0));
+    assertEquals(10.0, cache.getPriceOfShare("AAPL", date), 0.0);
+    assertEquals(10.0, cache.getPriceOfShare("AAPL", date), 0.0);
+    assertEquals(10.0, cache.getPriceOfShare("AAPL", date.plusDays(1)), 0.0);
+    assertEquals(2, calls.get());
+  }
+
+  /**
+   * Testing that an unavailable source is retried until it answers.
+   */
+  @Test
+  public void testRetryUntilAvailable() {
+
+    DataSourceInterface retry = new RetryingDataSource(source(2), 3, 1, TimeUnit.MILLISECONDS);
+    assertEquals(10.0, retry.getPriceOfShare("AAPL", date), 0.0);
+    assertEquals(3, calls.get());
+  }
+
+  /**
+   * Testing that the last failure is thrown once the attempts run out and that other failures are
+   * not retried.
+   */
+  @Test
+  public void testRetryGivesUp() {
+
+    DataSourceInterface retry = new RetryingDataSource(source(5), 3, 1, TimeUnit.MILLISECONDS);
+    try {
+      retry.getPriceOfShare("AAPL", date);
+      fail();
+    } catch (DataSourceUnavailableException e) {
+      assertEquals(3, calls.get());
+    }
+
+    calls.set(0);
+    retry = new RetryingDataSource((tickerSymbol, localDate) -> {
+      calls.incrementAndGet();
+      throw new IllegalArgumentException("no such stock");
+    }, 3, 1, TimeUnit.MILLISECONDS);
+    try {
+      retry.getPriceOfShare("AAPL", date);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(1, calls.get());
+    }
+  }
+
+  /**
+   * Testing that the calls stop after the failures in a row and resume after a successful trial.
+   */
+  @Test
+  public void testCircuitBreaker() throws InterruptedException {
+
+    CircuitBreakerDataSource breaker = new CircuitBreakerDataSource(source(2), 2, 50,
+            TimeUnit.MILLISECONDS);
+    for (int i = 0; i < 4; i++) {
+      try {
+        breaker.getPriceOfShare("AAPL", date);
+        fail();
+      } catch (DataSourceUnavailableException e) {
+        // the first two reach the source, the others fail at once.
+      }
+    }
+    assertEquals(2, calls.get());
+    assertTrue(breaker.isOpen());
+
+    Thread.sleep(60);
+    assertEquals(10.0, breaker.getPriceOfShare("AAPL", date), 0.0);
+    assertFalse(breaker.isOpen());
+    assertEquals(3, calls.get());
+  }
+
+  /**
+   * Testing that the metrics stage counts the calls and failures.
+   */
+  @Test
+  public void testMetrics() {
+
+    MetricsDataSource metrics = new MetricsDataSource(source(1));
+    try {
+      metrics.getPriceOfShare("AAPL", date);
+      fail();
+    } catch (DataSourceUnavailableException e) {
+      // counted as a failure.
+    }
+    metrics.getPriceOfShare("AAPL", date);
+    metrics.getPrices("AAPL", date, date.plusDays(2));
+    metrics.prefetch(Collections.singletonList("AAPL"), date);
+
+    assertEquals(2, metrics.getLookups());
+    assertEquals(1, metrics.getRangeLookups());
+    assertEquals(1, metrics.getPrefetches());
+    assertEquals(1, metrics.getFailures());
+    assertTrue(metrics.getRangeLookupNanos() > 0);
+  }
+
+  /**
+   * Testing that the creator wraps the source in the stages, innermost first.
+   */
+  @Test
+  public void testCreatorStages() {
+
+    DataSourceInterface source = DataSourceCreator.getDataSource("userinput",
+            new StringReader("AAPL,01-11-2018,222.22\n"), Arrays.asList("cache", " Metrics "));
+    assertTrue(source instanceof MetricsDataSource);
+    assertEquals(222.22, source.getPriceOfShare("AAPL", date), 0.0);
+    assertEquals(1, ( (MetricsDataSource) source ).getLookups());
+
+    try {
+      DataSourceCreator.getDataSource("userinput", new StringReader(""),
+              Collections.singletonList("compress"));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid datasource stage provided: compress", e.getMessage());
+    }
+  }
+
+  /**
+   * Testing that stages given as a comma separated list are checked and named in capital case,
+   * innermost first.
+   */
+  @Test
+  public void testCreatorParsesStages() {
+
+    assertEquals(Arrays.asList("RETRY", "CIRCUITBREAKER", "CACHE"),
+            DataSourceCreator.getStages("retry, CircuitBreaker ,cache"));
+
+    for (String stages : new String[]{"cache,compress", "cache,", " "}) {
+      try {
+        DataSourceCreator.getStages(stages);
+        fail();
+      } catch (IllegalArgumentException e) {
+        //Do Nothing
+      }
+    }
+  }
+
+  /**
+   * Testing that fetching on a thread per task is passed on to ALPHAAPI and ignored by the sources
+   * that don't fetch remotely.
+   */
+  @Test
+  public void testCreatorThreadPerFetch() {
+
+    assertTrue(DataSourceCreator.getDataSource("alphaapi", new StringReader(""),
+            Collections.singletonList("cache"), true) instanceof CachingDataSource);
+    assertTrue(DataSourceCreator.getDataSource("ALPHAAPI", new StringReader(""), true)
+            instanceof AlphavantageAPI);
+
+    DataSourceInterface userInput = DataSourceCreator.getDataSource("USERINPUT",
+            new StringReader("AAPL,01-11-2018,10.0\n"), Collections.emptyList(), true);
+    assertEquals(10.0, userInput.getPriceOfShare("AAPL", date), 0.0);
+  }
+
+}
@@ -0,0 +1,118 @@
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import datasource.DataSourceInterface;
+import datasource.PriceSeries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DataSourceInterfaceTest {
+
+  private final List<LocalDate> lookups = new ArrayList<>();
+
+  /**
+   * A data source that only has getPriceOfShare, so the range and as-of lookups are the default
+   * ones. It has no price for the 3rd and 4th of November 2018, as on a weekend, and counts its
+   * lookups.
+   */
+  private final DataSourceInterface dataSource = (tickerSymbol, date) -> {
+    lookups.add(date);
+    if (date.getMonthValue() == 11 && ( date.getDayOfMonth() == 3
+            || date.getDayOfMonth() == 4 )) {
+      return 0.00;
+    }
+    return date.getDayOfMonth();
+  };
+
+  /**
+   * Testing that the default range lookup looks up each day once and leaves out the days priced
+   * 0.00.
+   */
+  @Test
+  public void testGetPricesDropsDaysWithoutPrice() {
+
+    PriceSeries prices = dataSource.getPrices("AAPL", LocalDate.of(2018, 11, 1),
+            LocalDate.of(2018, 11, 6));
+
+    assertEquals(6, lookups.size());
+    assertEquals(4, prices.size());
+    List<Double> closingPrices = new ArrayList<>();
+    for (int i = 0; i < prices.size(); i++) {
+      closingPrices.add(prices.getClosingPrice(i));
+    }
+    assertEquals(Arrays.asList(1.0, 2.0, 5.0, 6.0), closingPrices);
+    assertEquals(LocalDate.of(2018, 11, 5).toEpochDay(), prices.getEpochDay(2));
+  }
+
+  /**
+   * Testing that the default range lookup gives an empty series without any lookup when the first
+   * date is after the last date, and a single day when they are the same.
+   */
+  @Test
+  public void testGetPricesReversedRange() {
+
+    assertEquals(0, dataSource.getPrices("AAPL", LocalDate.of(2018, 11, 6),
+            LocalDate.of(2018, 11, 1)).size());
+    assertEquals(0, lookups.size());
+
+    assertEquals(1, dataSource.getPrices("AAPL", LocalDate.of(2018, 11, 6),
+            LocalDate.of(2018, 11, 6)).size());
+    assertEquals(1, lookups.size());
+  }
+
+  /**
+   * Testing that the default range lookup reports null dates.
+   */
+  @Test
+  public void testGetPricesNullDates() {
+
+    for (LocalDate[] range : new LocalDate[][]{{null, LocalDate.of(2018, 11, 6)},
+        {LocalDate.of(2018, 11, 1), null}}) {
+      try {
+        dataSource.getPrices("AAPL", range[0], range[1]);
+        fail();
+      } catch (IllegalArgumentException e) {
+        assertEquals("Dates of the range can't be null", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Testing that the default as-of lookup gives the price of the date or the last day before it
+   * with a price, within the look back window only.
+   */
+  @Test
+  public void testGetPriceOfShareAsOf() {
+
+    assertEquals(2.0, dataSource.getPriceOfShareAsOf("AAPL", LocalDate.of(2018, 11, 2)), 0.0);
+    assertEquals(2.0, dataSource.getPriceOfShareAsOf("AAPL", LocalDate.of(2018, 11, 4)), 0.0);
+
+    DataSourceInterface sparse = (tickerSymbol, date) ->
+            date.equals(LocalDate.of(2018, 10, 1)) ? 50.0 : 0.00;
+    assertEquals(50.0, sparse.getPriceOfShareAsOf("AAPL",
+            LocalDate.of(2018, 10, 1).plusDays(PriceSeries.LOOK_BACK_DAYS)), 0.0);
+    assertEquals(0.0, sparse.getPriceOfShareAsOf("AAPL",
+            LocalDate.of(2018, 10, 2).plusDays(PriceSeries.LOOK_BACK_DAYS)), 0.0);
+  }
+
+  /**
+   * Testing that the default as-of lookup reports a null date as an IllegalArgumentException.
+   */
+  @Test
+  public void testGetPriceOfShareAsOfNullDate() {
+
+    try {
+      dataSource.getPriceOfShareAsOf("AAPL", null);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("Date can't be null", e.getMessage());
+    }
+    assertEquals(0, lookups.size());
+  }
+
+}
@@ -0,0 +1,81 @@
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import datasource.DensePriceSeries;
+import datasource.DenseSeriesDataSource;
+import datasource.InputFromUser;
+import datasource.PriceSeries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DensePriceSeriesTest {
+
+  private final InputFromUser input = new InputFromUser(new StringReader(
+          "AAPL,01-11-2018,222.22\n"
+          + "AAPL,02-11-2018,207.48\n"
+          + "AAPL,05-11-2018,201.59\n"
+          + "AAPL,07-11-2018,209.95\n"
+          + "GOOG,01-11-2018,1070.0\n"));
+
+  /**
+   * Testing that every lookup on the dense series gives the same price as the series it was built
+   * from, inside and around its days.
+   */
+  @Test
+  public void testLookupsMatchSeries() {
+
+    PriceSeries series = input.getPrices("AAPL", LocalDate.of(2018, 1, 1),
+            LocalDate.of(2018, 12, 31));
+    DensePriceSeries dense = new DensePriceSeries(series);
+    assertEquals(LocalDate.of(2018, 11, 1), dense.getFirstDate());
+    assertEquals(LocalDate.of(2018, 11, 7), dense.getLastDate());
+
+    for (LocalDate date = LocalDate.of(2018, 10, 25); date.getMonthValue() < 12;
+         date = date.plusDays(1)) {
+      assertEquals(series.getPrice(date), dense.getPrice(date), 0.0);
+      assertEquals(series.getPriceAsOf(date), dense.getPriceAsOf(date), 0.0);
+    }
+    assertTrue(dense.covers(LocalDate.of(2018, 11, 6)));
+    assertFalse(dense.covers(LocalDate.of(2018, 11, 8)));
+  }
+
+  /**
+   * Testing that an empty series has no prices and no dates.
+   */
+  @Test
+  public void testEmptySeries() {
+
+    DensePriceSeries dense = new DensePriceSeries(input.getPrices("MSFT",
+            LocalDate.of(2018, 1, 1), LocalDate.of(2018, 12, 31)));
+    assertNull(dense.getFirstDate());
+    assertFalse(dense.covers(LocalDate.of(1970, 1, 1)));
+    assertEquals(0.0, dense.getPriceAsOf(LocalDate.of(1970, 1, 1)), 0.0);
+  }
+
+  /**
+   * Testing that the data source answers from the loaded prices and from the decorated data source
+   * outside them.
+   */
+  @Test
+  public void testDataSourceMatchesDecorated() {
+
+    DenseSeriesDataSource dataSource = new DenseSeriesDataSource(input,
+            LocalDate.of(2018, 11, 2), LocalDate.of(2018, 11, 30));
+
+    for (LocalDate date = LocalDate.of(2018, 10, 30); date.getMonthValue() < 12;
+         date = date.plusDays(1)) {
+      for (String tickerSymbol : new String[]{"AAPL", "GOOG"}) {
+        assertEquals(input.getPriceOfShare(tickerSymbol, date),
+                dataSource.getPriceOfShare(tickerSymbol, date), 0.0);
+        assertEquals(input.getPriceOfShareAsOf(tickerSymbol, date),
+                dataSource.getPriceOfShareAsOf(tickerSymbol, date), 0.0);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,142 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import datasource.DiskPriceCache;
+import datasource.InputFromUser;
+import datasource.PriceSeries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DiskPriceCacheTest {
+
+  private final InputFromUser input = new InputFromUser(new StringReader(
+          "AAPL,01-11-2018,222.22\n"
+          + "AAPL,02-11-2018,207.48\n"
+          + "AAPL,05-11-2018,201.59\n"
+          + "GOOG,01-11-2018,1070.0\n"));
+
+  private File directory;
+  private DiskPriceCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+
+    directory = Files.createTempDirectory("price-cache").toFile();
+    directory.deleteOnExit();
+    cache = new DiskPriceCache(directory);
+  }
+
+  /**
+   * Gets the series of a stock from the test data.
+   *
+   * @param tickerSymbol the ticker symbol of the stock.
+   * @return its series.
+   */
+  private PriceSeries series(String tickerSymbol) {
+    return input.getPrices(tickerSymbol, LocalDate.of(2018, 1, 1), LocalDate.of(2018, 12, 31));
+  }
+
+  /**
+   * Asserts that two series have the same days and prices.
+   *
+   * @param expected the expected series.
+   * @param actual   the actual series.
+   */
+  private void assertSameSeries(PriceSeries expected, PriceSeries actual) {
+
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.getEpochDay(i), actual.getEpochDay(i));
+      assertEquals(expected.getClosingPrice(i), actual.getClosingPrice(i), 0.0);
+    }
+  }
+
+  /**
+   * Testing that a series written to the cache is read back with the same days and prices, and
+   * that a ticker symbol not written isn't found.
+   */
+  @Test
+  public void testRoundTrip() {
+
+    assertTrue(cache.write("AAPL", series("AAPL")));
+    assertTrue(cache.write("MSFT", series("MSFT")));
+
+    assertSameSeries(series("AAPL"), cache.read("AAPL"));
+    assertSameSeries(series("AAPL"), new DiskPriceCache(directory).read("AAPL"));
+    assertEquals(0, cache.read("MSFT").size());
+    assertTrue(cache.getLastWritten("AAPL") > 0);
+    assertNull(cache.read("GOOG"));
+    assertEquals(0, cache.getLastWritten("GOOG"));
+  }
+
+  /**
+   * Testing that writing a series again replaces the one stored before and leaves no temporary
+   * file behind.
+   */
+  @Test
+  public void testReplace() {
+
+    assertTrue(cache.write("AAPL", series("AAPL")));
+    assertTrue(cache.write("AAPL", series("GOOG")));
+
+    assertSameSeries(series("GOOG"), cache.read("AAPL"));
+    assertEquals(Arrays.asList("AAPL.bin"), Arrays.asList(directory.list()));
+  }
+
+  /**
+   * Testing that a file that is truncated, has the wrong magic number or the wrong number of days
+   * isn't read.
+   */
+  @Test
+  public void testCorruptFilesRejected() throws IOException {
+
+    File file = new File(directory, "AAPL.bin");
+
+    assertTrue(cache.write("AAPL", series("AAPL")));
+    try (RandomAccessFile data = new RandomAccessFile(file, "rw")) {
+      data.setLength(data.length() - 3);
+    }
+    assertNull(cache.read("AAPL"));
+
+    assertTrue(cache.write("AAPL", series("AAPL")));
+    try (RandomAccessFile data = new RandomAccessFile(file, "rw")) {
+      data.writeInt(0x12345678);
+    }
+    assertNull(cache.read("AAPL"));
+
+    assertTrue(cache.write("AAPL", series("AAPL")));
+    try (RandomAccessFile data = new RandomAccessFile(file, "rw")) {
+      data.seek(4);
+      data.writeInt(4);
+    }
+    assertNull(cache.read("AAPL"));
+
+    try (RandomAccessFile data = new RandomAccessFile(file, "rw")) {
+      data.setLength(5);
+    }
+    assertNull(cache.read("AAPL"));
+  }
+
+  /**
+   * Testing that a ticker symbol that can't safely be a file name isn't cached.
+   */
+  @Test
+  public void testUnsafeTickerSymbol() {
+
+    assertFalse(cache.write("../AAPL", series("AAPL")));
+    assertNull(cache.read("../AAPL"));
+    assertEquals(0, directory.list().length);
+  }
+
+}
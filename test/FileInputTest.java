@@ -0,0 +1,121 @@
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import datasource.DataSourceInterface;
+import datasource.FileInput;
+import datasource.PriceSeries;
+
+import static org.junit.Assert.assertEquals;
+
+public class FileInputTest {
+
+  private static final String STOCK_DATA = "TickerSymbol,Date,Price\n"
+          + "AAPL,02-11-2018,207.48\n"
+          + "AAPL,01-11-2018,222.22\n"
+          + " GOOG , 01-11-2018 , 1070.0 \r\n"
+          + "AAPL,01-11-2018,1.00\n"
+          + "AAPL,05-11-2018,2.0159E2\n"
+          + "TSLA,31-02-2018,300.0\n"
+          + "TSLA,01-11-2018,abc\n"
+          + "TSLA,01-11-2018\n"
+          + ",01-11-2018,5.0\n"
+          + "TSLA,1-11-2018,5.0\n"
+          + "TSLA,02-11-2018,opening,344.28\n"
+          + "GOOG,02-11-2018,1057.79";
+
+  /**
+   * Writes the given stock data to a temporary file.
+   *
+   * @param data the stock data.
+   * @return the path of the file.
+   * @throws IOException if the file can't be written.
+   */
+  private String stockFile(String data) throws IOException {
+
+    File file = File.createTempFile("stock-data", ".csv");
+    file.deleteOnExit();
+    Files.write(file.toPath(), data.getBytes(StandardCharsets.US_ASCII));
+    return file.getPath();
+  }
+
+  /**
+   * Testing that the prices of valid lines are found whatever their order, that the first price of
+   * a date is kept and that lines not in the format are ignored.
+   */
+  @Test
+  public void testValidLinesIndexed() throws IOException {
+
+    DataSourceInterface fileInput = new FileInput(new StringReader(stockFile(STOCK_DATA)));
+
+    assertEquals(222.22, fileInput.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 1)), 0.0);
+    assertEquals(207.48, fileInput.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 2)), 0.0);
+    assertEquals(201.59, fileInput.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 5)), 0.0);
+    assertEquals(1070.0, fileInput.getPriceOfShare("GOOG", LocalDate.of(2018, 11, 1)), 0.0);
+    assertEquals(1057.79, fileInput.getPriceOfShare("GOOG", LocalDate.of(2018, 11, 2)), 0.0);
+    assertEquals(344.28, fileInput.getPriceOfShare("TSLA", LocalDate.of(2018, 11, 2)), 0.0);
+    assertEquals(0.00, fileInput.getPriceOfShare("TSLA", LocalDate.of(2018, 11, 1)), 0.0);
+    assertEquals(0.00, fileInput.getPriceOfShare("MSFT", LocalDate.of(2018, 11, 1)), 0.0);
+    assertEquals(207.48, fileInput.getPriceOfShareAsOf("AAPL", LocalDate.of(2018, 11, 4)), 0.0);
+    assertEquals(0.00, fileInput.getPriceOfShareAsOf("AAPL", LocalDate.of(2018, 10, 31)), 0.0);
+    assertEquals(201.59, fileInput.getPriceOfShareAsOf("AAPL", LocalDate.of(2018, 11, 15)), 0.0);
+    assertEquals(0.00, fileInput.getPriceOfShareAsOf("AAPL", LocalDate.of(2018, 11, 16)), 0.0);
+
+    PriceSeries series = fileInput.getPrices("AAPL", LocalDate.of(2018, 11, 2),
+            LocalDate.of(2018, 11, 30));
+    assertEquals(2, series.size());
+    assertEquals(LocalDate.of(2018, 11, 2), series.getFirstDate());
+    assertEquals(201.59, series.getClosingPrice(1), 0.0);
+    assertEquals(0, fileInput.getPrices("AAPL", LocalDate.of(2018, 11, 30),
+            LocalDate.of(2018, 11, 1)).size());
+  }
+
+  /**
+   * Testing that a file mapped in parts and data spread over two files give the same prices as one
+   * file mapped at once.
+   */
+  @Test
+  public void testSegmentsAndFilesMatchSingleMapping() throws IOException {
+
+    String path = stockFile(STOCK_DATA);
+    DataSourceInterface whole = new FileInput(new StringReader(path));
+    DataSourceInterface segmented = new FileInput(new StringReader(path), 64);
+    int split = STOCK_DATA.indexOf("TSLA");
+    DataSourceInterface twoFiles = new FileInput(new StringReader(
+            stockFile(STOCK_DATA.substring(0, split)) + "\n\n"
+                    + stockFile(STOCK_DATA.substring(split))));
+
+    for (String tickerSymbol : new String[]{"AAPL", "GOOG", "TSLA"}) {
+      for (int day = 28; day <= 37; day++) {
+        LocalDate date = LocalDate.of(2018, 10, 1).plusDays(day);
+        assertEquals(whole.getPriceOfShare(tickerSymbol, date),
+                segmented.getPriceOfShare(tickerSymbol, date), 0.0);
+        assertEquals(whole.getPriceOfShare(tickerSymbol, date),
+                twoFiles.getPriceOfShare(tickerSymbol, date), 0.0);
+      }
+    }
+    assertEquals(1057.79, segmented.getPriceOfShare("GOOG", LocalDate.of(2018, 11, 2)), 0.0);
+  }
+
+  /**
+   * Testing that a file that doesn't exist is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingFile() {
+    new FileInput(new StringReader("/no/such/stock-data.csv"));
+  }
+
+  /**
+   * Testing that no file at all is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoFile() {
+    new FileInput(new StringReader("\n"));
+  }
+
+}
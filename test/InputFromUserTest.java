@@ -0,0 +1,80 @@
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import datasource.InputFromUser;
+import datasource.PriceSeries;
+
+import static org.junit.Assert.assertEquals;
+
+public class InputFromUserTest {
+
+  /**
+   * Testing that prices given out of order of date are sorted into the series of their ticker
+   * symbol.
+   */
+  @Test
+  public void testUnsortedInput() {
+
+    InputFromUser input = new InputFromUser(new StringReader("AAPL,05-11-2018,201.59\n"
+            + "GOOG,02-11-2018,1057.79\n"
+            + "AAPL,01-11-2018,222.22\n"
+            + "GOOG,01-11-2018,1070.0\n"
+            + "AAPL,02-11-2018,207.48\n"));
+
+    PriceSeries series = input.getPrices("AAPL", LocalDate.of(2018, 1, 1),
+            LocalDate.of(2018, 12, 31));
+    assertEquals(3, series.size());
+    assertEquals(222.22, series.getClosingPrice(0), 0.0);
+    assertEquals(207.48, series.getClosingPrice(1), 0.0);
+    assertEquals(201.59, series.getClosingPrice(2), 0.0);
+    assertEquals(LocalDate.of(2018, 11, 5), series.getLastDate());
+    assertEquals(1057.79, input.getPriceOfShare("GOOG", LocalDate.of(2018, 11, 2)), 0.0);
+    assertEquals(207.48, input.getPriceOfShareAsOf("AAPL", LocalDate.of(2018, 11, 4)), 0.0);
+    assertEquals(201.59, input.getPriceOfShareAsOf("AAPL", LocalDate.of(2018, 11, 15)), 0.0);
+    assertEquals(0.00, input.getPriceOfShareAsOf("AAPL", LocalDate.of(2018, 11, 16)), 0.0);
+  }
+
+  /**
+   * Testing that the price given first is kept when a date is given more than once, whether the
+   * lines are the same or not.
+   */
+  @Test
+  public void testDuplicateLines() {
+
+    InputFromUser input = new InputFromUser(new StringReader("AAPL,01-11-2018,222.22\n"
+            + "AAPL,02-11-2018,207.48\n"
+            + "AAPL,01-11-2018,222.22\n"
+            + "AAPL,01-11-2018,100.00\n"
+            + "AAPL,02-11-2018,1.00\n"));
+
+    assertEquals(222.22, input.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 1)), 0.0);
+    assertEquals(207.48, input.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 2)), 0.0);
+    assertEquals(2, input.getPrices("AAPL", LocalDate.of(2018, 1, 1),
+            LocalDate.of(2018, 12, 31)).size());
+  }
+
+  /**
+   * Testing that a ticker symbol that isn't in the input, or only in lines not in the format, has
+   * no prices.
+   */
+  @Test
+  public void testUnknownTicker() {
+
+    InputFromUser input = new InputFromUser(new StringReader("AAPL,01-11-2018,222.22\n"
+            + "TSLA,31-02-2018,300.0\n"
+            + "TSLA,01-11-2018,abc\n"
+            + "TSLA 01-11-2018 344.28\n"));
+
+    LocalDate date = LocalDate.of(2018, 11, 1);
+    assertEquals(0.00, input.getPriceOfShare("MSFT", date), 0.0);
+    assertEquals(0.00, input.getPriceOfShareAsOf("MSFT", date), 0.0);
+    assertEquals(0, input.getPrices("MSFT", date, date).size());
+    assertEquals(0.00, input.getPriceOfShare("TSLA", date), 0.0);
+    assertEquals(0, input.getPrices("TSLA", LocalDate.of(2018, 1, 1),
+            LocalDate.of(2018, 12, 31)).size());
+    assertEquals(0.00, input.getPriceOfShare("aapl", date), 0.0);
+  }
+
+}
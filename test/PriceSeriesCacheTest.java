@@ -0,0 +1,76 @@
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import datasource.InputFromUser;
+import datasource.PriceSeries;
+import datasource.PriceSeriesCache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PriceSeriesCacheTest {
+
+  private final InputFromUser input = new InputFromUser(new StringReader(
+          "AAPL,01-11-2018,222.22\n"
+          + "AAPL,02-11-2018,207.48\n"
+          + "GOOG,01-11-2018,1070.0\n"
+          + "TSLA,01-11-2018,344.28\n"));
+
+  /**
+   * Gets the series of a stock from the test data.
+   *
+   * @param tickerSymbol the ticker symbol of the stock.
+   * @return its series.
+   */
+  private PriceSeries series(String tickerSymbol) {
+    return input.getPrices(tickerSymbol, LocalDate.of(2018, 1, 1), LocalDate.of(2018, 12, 31));
+  }
+
+  /**
+   * Testing that the least recently used series is evicted once the budget is exceeded and that
+   * the counters follow the lookups.
+   */
+  @Test
+  public void testLeastRecentlyUsedEvicted() {
+
+    // two days take 152 bytes and one day 140, so two series fit in 300 bytes.
+    PriceSeriesCache cache = new PriceSeriesCache(300);
+    cache.put("AAPL", series("AAPL"));
+    cache.put("GOOG", series("GOOG"));
+    assertEquals(292, cache.getSizeInBytes());
+
+    assertEquals(2, cache.get("AAPL").size());
+    cache.put("TSLA", series("TSLA"));
+
+    assertNull(cache.get("GOOG"));
+    assertEquals(1, cache.get("TSLA").size());
+    assertEquals(2, cache.size());
+    assertEquals(292, cache.getSizeInBytes());
+    assertEquals(2, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, cache.getEvictions());
+  }
+
+  /**
+   * Testing that replacing a series updates the size and a series over the budget isn't cached.
+   */
+  @Test
+  public void testReplaceAndOversizedSeries() {
+
+    PriceSeriesCache cache = new PriceSeriesCache(150);
+    PriceSeries google = series("GOOG");
+    cache.put("GOOG", series("TSLA"));
+    cache.put("GOOG", google);
+    assertSame(google, cache.get("GOOG"));
+    assertEquals(140, cache.getSizeInBytes());
+
+    cache.put("AAPL", series("AAPL"));
+    assertNull(cache.get("AAPL"));
+    assertEquals(1, cache.size());
+    assertEquals(0, cache.getEvictions());
+  }
+
+}
@@ -0,0 +1,109 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+
+import datasource.PriceSeries;
+import datasource.PriceSeriesParser;
+
+/**
+ * A micro benchmark of the parser of the csv data returned by the Alphavantage API. It parses a
+ * payload of about 20 years of daily prices, the size of a full history, with the streaming parser
+ * and with splitting the payload into strings, as the data source did before, and prints the time
+ * taken per parse by each.
+ */
+public class PriceSeriesParserBenchmark {
+
+  private static final int DAYS = 5200;
+  private static final int WARMUP_ROUNDS = 200;
+  private static final int MEASURED_ROUNDS = 500;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args not used.
+   * @throws IOException never, the payload is read from memory.
+   */
+  public static void main(String[] args) throws IOException {
+
+    byte[] payload = createPayload();
+    System.out.println("Payload of " + DAYS + " days, " + payload.length + " bytes");
+
+    long checksum = 0;
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      checksum += parseWithParser(payload).size();
+      checksum += parseBySplitting(payload);
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      checksum += parseWithParser(payload).size();
+    }
+    long parserNanos = ( System.nanoTime() - start ) / MEASURED_ROUNDS;
+
+    start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      checksum += parseBySplitting(payload);
+    }
+    long splitNanos = ( System.nanoTime() - start ) / MEASURED_ROUNDS;
+
+    System.out.println("PriceSeriesParser: " + parserNanos / 1000 + " us per parse");
+    System.out.println("String split:      " + splitNanos / 1000 + " us per parse");
+    System.out.println("(checksum " + checksum + ")");
+  }
+
+  /**
+   * Parses the payload as the data source does, streaming it through the parser.
+   *
+   * @param payload the csv data.
+   * @return the parsed series.
+   * @throws IOException never, the payload is read from memory.
+   */
+  private static PriceSeries parseWithParser(byte[] payload) throws IOException {
+    return PriceSeriesParser.parse(new ByteArrayInputStream(payload));
+  }
+
+  /**
+   * Parses the payload by building a string of it and splitting it into lines and fields.
+   *
+   * @param payload the csv data.
+   * @return the number of days parsed.
+   */
+  private static int parseBySplitting(byte[] payload) {
+
+    String csv = new String(payload, StandardCharsets.US_ASCII);
+    int days = 0;
+    for (String line : csv.split("\n")) {
+      String[] data = line.split(",");
+      if (data.length >= 5 && !data[0].equals("timestamp")) {
+        LocalDate.parse(data[0]);
+        Double.parseDouble(data[4]);
+        days++;
+      }
+    }
+    return days;
+  }
+
+  /**
+   * Creates a payload in the format returned by the API, with the latest day first.
+   *
+   * @return the csv data.
+   */
+  private static byte[] createPayload() {
+
+    Random random = new Random(42);
+    StringBuilder csv = new StringBuilder("timestamp,open,high,low,close,volume\r\n");
+    LocalDate date = LocalDate.of(2019, 1, 1);
+    double price = 100;
+    for (int i = 0; i < DAYS; i++) {
+      price = Math.max(1, price + random.nextGaussian());
+      csv.append(date).append(',')
+              .append(String.format("%.4f,%.4f,%.4f,%.4f", price, price + 1, price - 1, price))
+              .append(',').append(random.nextInt(10000000)).append("\r\n");
+      date = date.minusDays(1);
+    }
+    return csv.toString().getBytes(StandardCharsets.US_ASCII);
+  }
+
+}
@@ -0,0 +1,97 @@
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import datasource.PriceSeries;
+import datasource.PriceSeriesParser;
+
+import static org.junit.Assert.assertEquals;
+
+public class PriceSeriesParserTest {
+
+  /**
+   * Parses the given csv data through a stream.
+   *
+   * @param csv the csv data.
+   * @return the parsed series.
+   * @throws IOException never, the data is read from memory.
+   */
+  private PriceSeries parse(String csv) throws IOException {
+    return PriceSeriesParser.parse(new ByteArrayInputStream(
+            csv.getBytes(StandardCharsets.US_ASCII)));
+  }
+
+  /**
+   * Testing that the days come out oldest first with the closing price of each day.
+   */
+  @Test
+  public void testParseLatestDayFirst() throws IOException {
+
+    PriceSeries series = parse("timestamp,open,high,low,close,volume\r\n"
+            + "2018-11-30,1089.0700,1095.5700,1077.8800,1094.4300,2580612\r\n"
+            + "2018-11-29,1076.0800,1094.2450,1076.0000,1088.3000,1468900\r\n"
+            + "2016-02-29,700.0000,710.0000,690.0000,697.7700,100\r\n");
+
+    assertEquals(3, series.size());
+    assertEquals(LocalDate.of(2016, 2, 29), series.getFirstDate());
+    assertEquals(LocalDate.of(2018, 11, 30), series.getLastDate());
+    assertEquals(1088.30, series.getPrice(LocalDate.of(2018, 11, 29)), 0.0);
+    assertEquals(1094.43, series.getPrice(LocalDate.of(2018, 11, 30)), 0.0);
+    assertEquals(697.77, series.getPrice(LocalDate.of(2016, 2, 29)), 0.0);
+    assertEquals(0.00, series.getPrice(LocalDate.of(2018, 11, 28)), 0.0);
+  }
+
+  /**
+   * Testing that the parsed prices are the same as Double.parseDouble gives.
+   */
+  @Test
+  public void testPricesMatchParseDouble() throws IOException {
+
+    String[] prices = {"0.1000", "123.4567", "99999.9999", "1e2", "7", "0.3", "1234.50"};
+    StringBuilder csv = new StringBuilder();
+    LocalDate date = LocalDate.of(2018, 1, 31);
+    for (String price : prices) {
+      csv.append(date).append(",1,1,1,").append(price).append(",10\n");
+      date = date.minusDays(1);
+    }
+    PriceSeries series = parse(csv.toString());
+
+    date = LocalDate.of(2018, 1, 31);
+    for (String price : prices) {
+      assertEquals(Double.parseDouble(price), series.getPrice(date), 0.0);
+      date = date.minusDays(1);
+    }
+  }
+
+  /**
+   * Testing that an error message returned instead of csv data gives an empty series.
+   */
+  @Test
+  public void testErrorMessageGivesEmptySeries() throws IOException {
+
+    PriceSeries series = parse("{\n    \"Error Message\": \"Invalid API call. Please retry or "
+            + "visit the documentation (https://www.alphavantage.co/documentation/) for "
+            + "TIME_SERIES_DAILY.\"\n}");
+
+    assertEquals(0, series.size());
+  }
+
+  /**
+   * Testing that lines with invalid dates or prices are skipped and a last line without a line
+   * break is read.
+   */
+  @Test
+  public void testInvalidLinesSkipped() throws IOException {
+
+    PriceSeries series = parse("2018-02-30,1,1,1,5.0,1\n"
+            + "2018-02-28,1,1,1,abc,1\n"
+            + "2018-02-27,1,1\n"
+            + "2018-02-26,1,1,1,12.25,1");
+
+    assertEquals(1, series.size());
+    assertEquals(12.25, series.getPrice(LocalDate.of(2018, 2, 26)), 0.0);
+  }
+}
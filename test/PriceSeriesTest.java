@@ -0,0 +1,68 @@
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import datasource.InputFromUser;
+import datasource.PriceSeries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PriceSeriesTest {
+
+  /**
+   * Creates the series of AAPL from the given stock data.
+   *
+   * @param data the stock data, one price per line.
+   * @return the series.
+   */
+  private PriceSeries series(String data) {
+    return new InputFromUser(new StringReader(data)).getPrices("AAPL",
+            LocalDate.of(2018, 1, 1), LocalDate.of(2018, 12, 31));
+  }
+
+  /**
+   * Testing that a newer part overlapping the series replaces the days both have and adds the days
+   * after them.
+   */
+  @Test
+  public void testMergeWithOverlap() {
+
+    PriceSeries full = series("AAPL,01-11-2018,100.0\n"
+            + "AAPL,02-11-2018,101.0\n"
+            + "AAPL,05-11-2018,102.0\n");
+    PriceSeries compact = series("AAPL,02-11-2018,201.0\n"
+            + "AAPL,05-11-2018,202.0\n"
+            + "AAPL,06-11-2018,203.0\n");
+
+    PriceSeries merged = full.mergeWith(compact);
+    assertEquals(4, merged.size());
+    assertEquals(100.0, merged.getPrice(LocalDate.of(2018, 11, 1)), 0.0);
+    assertEquals(201.0, merged.getPrice(LocalDate.of(2018, 11, 2)), 0.0);
+    assertEquals(202.0, merged.getPrice(LocalDate.of(2018, 11, 5)), 0.0);
+    assertEquals(203.0, merged.getPrice(LocalDate.of(2018, 11, 6)), 0.0);
+    assertEquals(3, full.size());
+  }
+
+  /**
+   * Testing that a newer part starting after the series is added after all its days, leaving the
+   * days in between without prices, and that an empty part leaves the series as it is.
+   */
+  @Test
+  public void testMergeWithGap() {
+
+    PriceSeries full = series("AAPL,01-10-2018,100.0\n"
+            + "AAPL,02-10-2018,101.0\n");
+    PriceSeries compact = series("AAPL,07-11-2018,204.0\n"
+            + "AAPL,08-11-2018,205.0\n");
+
+    PriceSeries merged = full.mergeWith(compact);
+    assertEquals(4, merged.size());
+    assertEquals(LocalDate.of(2018, 10, 1), merged.getFirstDate());
+    assertEquals(LocalDate.of(2018, 11, 8), merged.getLastDate());
+    assertEquals(0.0, merged.getPrice(LocalDate.of(2018, 10, 15)), 0.0);
+    assertSame(full, full.mergeWith(series("")));
+  }
+
+}
@@ -0,0 +1,99 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import datasource.RateLimiter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+  /**
+   * Testing that no more than the allowed permits are handed out within a period and that permits
+   * are handed out again once the period of the earlier ones is over.
+   */
+  @Test
+  public void testWindowExpiry() throws InterruptedException {
+
+    RateLimiter rateLimiter = new RateLimiter(2, 200, TimeUnit.MILLISECONDS);
+    assertTrue(rateLimiter.tryAcquire());
+    assertTrue(rateLimiter.tryAcquire());
+    assertFalse(rateLimiter.tryAcquire());
+
+    Thread.sleep(250);
+    assertTrue(rateLimiter.tryAcquire());
+    assertTrue(rateLimiter.tryAcquire());
+    assertFalse(rateLimiter.tryAcquire());
+  }
+
+  /**
+   * Testing that requests waiting for a permit are served in the order they were made, one per
+   * period.
+   */
+  @Test
+  public void testPendingRequestsServedInOrder() throws Exception {
+
+    RateLimiter rateLimiter = new RateLimiter(1, 100, TimeUnit.MILLISECONDS);
+    assertTrue(rateLimiter.tryAcquire());
+
+    List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+    List<Long> grantTimes = Collections.synchronizedList(new ArrayList<>());
+    List<CompletableFuture<Void>> permits = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      int request = i;
+      permits.add(rateLimiter.acquireAsync().thenRun(() -> {
+        order.add(request);
+        grantTimes.add(System.nanoTime());
+      }));
+    }
+    assertFalse(rateLimiter.tryAcquire());
+
+    CompletableFuture.allOf(permits.toArray(new CompletableFuture<?>[0]))
+            .get(5, TimeUnit.SECONDS);
+    assertEquals(Arrays.asList(0, 1, 2, 3, 4), order);
+    for (int i = 1; i < grantTimes.size(); i++) {
+      assertTrue(grantTimes.get(i) - grantTimes.get(i - 1) >= TimeUnit.MILLISECONDS.toNanos(80));
+    }
+  }
+
+  /**
+   * Testing that a thread interrupted while waiting for a permit gives up its request, so the
+   * request after it is served in its place.
+   */
+  @Test
+  public void testInterruptedWaitGivesUpRequest() throws Exception {
+
+    RateLimiter rateLimiter = new RateLimiter(1, 400, TimeUnit.MILLISECONDS);
+    long start = System.nanoTime();
+    assertTrue(rateLimiter.tryAcquire());
+
+    AtomicBoolean interrupted = new AtomicBoolean(false);
+    Thread waiter = new Thread(() -> {
+      try {
+        rateLimiter.acquire();
+      } catch (InterruptedException e) {
+        interrupted.set(true);
+      }
+    });
+    waiter.start();
+    Thread.sleep(50);
+    waiter.interrupt();
+    waiter.join(1000);
+    assertTrue(interrupted.get());
+
+    // the next request gets the permit the interrupted one gave up, not one a period later.
+    rateLimiter.acquireAsync().get(5, TimeUnit.SECONDS);
+    long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertTrue(waited >= 390);
+    assertTrue(waited < 750);
+  }
+
+}
@@ -0,0 +1,94 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import datasource.DataSourceInterface;
+import datasource.InputFromUser;
+import datasource.PriceSeries;
+import datasource.RecordingDataSource;
+import datasource.ReplayDataSource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RecordReplayDataSourceTest {
+
+  private File archiveDirectory;
+  private DataSourceInterface recorded;
+
+  @Before
+  public void setUp() throws IOException {
+
+    archiveDirectory = Files.createTempDirectory("replay-archive").toFile();
+    archiveDirectory.deleteOnExit();
+    recorded = new InputFromUser(new StringReader("AAPL,01-11-2018,222.22\n"
+            + "AAPL,02-11-2018,207.48\n"
+            + "AAPL,05-11-2018,201.59\n"
+            + "GOOG,01-11-2018,1070.0\n"));
+  }
+
+  /**
+   * Testing that the whole series of a stock looked up once is replayed, including days that were
+   * not looked up while recording.
+   */
+  @Test
+  public void testReplayServesRecordedSeries() {
+
+    DataSourceInterface recorder = new RecordingDataSource(recorded, archiveDirectory);
+    assertEquals(207.48, recorder.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 2)), 0.0);
+    recorder.getPrices("GOOG", LocalDate.of(2018, 11, 1), LocalDate.of(2018, 11, 1));
+
+    DataSourceInterface replay = new ReplayDataSource(archiveDirectory);
+    assertEquals(222.22, replay.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 1)), 0.0);
+    assertEquals(207.48, replay.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 2)), 0.0);
+    assertEquals(1070.0, replay.getPriceOfShare("GOOG", LocalDate.of(2018, 11, 1)), 0.0);
+    assertEquals(0.00, replay.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 3)), 0.0);
+
+    PriceSeries series = replay.getPrices("AAPL", LocalDate.of(2018, 10, 1),
+            LocalDate.of(2018, 12, 1));
+    assertEquals(2, series.size());
+  }
+
+  /**
+   * Testing that a stock that wasn't recorded has no price.
+   */
+  @Test
+  public void testReplayOfStockNotRecorded() {
+
+    DataSourceInterface replay = new ReplayDataSource(archiveDirectory);
+    assertEquals(0.00, replay.getPriceOfShare("MSFT", LocalDate.of(2018, 11, 1)), 0.0);
+    assertEquals(0, replay.getPrices("MSFT", LocalDate.of(2018, 1, 1),
+            LocalDate.of(2018, 12, 1)).size());
+  }
+
+  /**
+   * Testing that the latency is waited for once per stock and once for a prefetch of several.
+   */
+  @Test
+  public void testReplayLatency() {
+
+    DataSourceInterface recorder = new RecordingDataSource(recorded, archiveDirectory);
+    recorder.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 5));
+    recorder.getPriceOfShare("GOOG", LocalDate.of(2018, 11, 5));
+
+    DataSourceInterface replay = new ReplayDataSource(archiveDirectory, 200,
+            TimeUnit.MILLISECONDS);
+    long start = System.nanoTime();
+    replay.prefetch(Arrays.asList("AAPL", "GOOG"), LocalDate.of(2018, 11, 5));
+    long prefetchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertTrue(prefetchMillis >= 200 && prefetchMillis < 400);
+
+    start = System.nanoTime();
+    assertEquals(201.59, replay.getPriceOfShare("AAPL", LocalDate.of(2018, 11, 5)), 0.0);
+    assertEquals(1070.0, replay.getPriceOfShare("GOOG", LocalDate.of(2018, 11, 1)), 0.0);
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 100);
+  }
+
+}
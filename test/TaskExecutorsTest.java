@@ -0,0 +1,124 @@
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import datasource.TaskExecutors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TaskExecutorsTest {
+
+  private static final int TASKS = 50;
+
+  /**
+   * Runs tasks on the given executor that each wait until all of them have started, which only
+   * finishes when every task is on a thread of its own, and gives the threads they ran on.
+   *
+   * @param executor the executor.
+   * @return the threads the tasks ran on.
+   * @throws Exception when a task fails or they don't all start within five seconds.
+   */
+  private List<Thread> runBlockingTasks(ExecutorService executor) throws Exception {
+
+    CountDownLatch started = new CountDownLatch(TASKS);
+    List<Future<Thread>> results = new ArrayList<>();
+    try {
+      for (int i = 0; i < TASKS; i++) {
+        results.add(executor.submit(() -> {
+          started.countDown();
+          assertTrue(started.await(5, TimeUnit.SECONDS));
+          return Thread.currentThread();
+        }));
+      }
+      List<Thread> threads = new ArrayList<>();
+      for (Future<Thread> result : results) {
+        threads.add(result.get(10, TimeUnit.SECONDS));
+      }
+      return threads;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Tells whether the given thread is a virtual thread, which is never so on a runtime without
+   * them.
+   *
+   * @param thread the thread.
+   * @return true if the thread is virtual else false.
+   */
+  private boolean isVirtual(Thread thread) throws Exception {
+
+    try {
+      Method isVirtual = Thread.class.getMethod("isVirtual");
+      return (Boolean) isVirtual.invoke(thread);
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Testing that virtual threads are found exactly when the runtime has them.
+   */
+  @Test
+  public void testFindsVirtualThreadsOfRuntime() {
+
+    boolean runtimeHasVirtualThreads;
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      runtimeHasVirtualThreads = true;
+    } catch (NoSuchMethodException e) {
+      runtimeHasVirtualThreads = false;
+    }
+    assertEquals(runtimeHasVirtualThreads, TaskExecutors.hasVirtualThreads());
+  }
+
+  /**
+   * Testing that the executor runs every task on a thread of its own, a virtual one where the
+   * runtime has them and otherwise a named daemon thread of the fallback pool.
+   */
+  @Test
+  public void testThreadPerTaskExecutor() throws Exception {
+
+    List<Thread> threads = runBlockingTasks(
+            TaskExecutors.newThreadPerTaskExecutor("test-thread-per-task"));
+
+    assertEquals(TASKS, threads.stream().distinct().count());
+    for (Thread thread : threads) {
+      if (TaskExecutors.hasVirtualThreads()) {
+        assertTrue(isVirtual(thread));
+      } else {
+        assertTrue(thread.isDaemon());
+        assertEquals("test-thread-per-task", thread.getName());
+      }
+    }
+  }
+
+  /**
+   * Testing that the fallback pool runs every task on a daemon platform thread of its own with the
+   * given name.
+   */
+  @Test
+  public void testDaemonThreadPerTaskExecutor() throws Exception {
+
+    List<Thread> threads = runBlockingTasks(
+            TaskExecutors.newDaemonThreadPerTaskExecutor("test-daemon"));
+
+    assertEquals(TASKS, threads.stream().distinct().count());
+    for (Thread thread : threads) {
+      assertTrue(thread.isDaemon());
+      assertEquals("test-daemon", thread.getName());
+      assertFalse(isVirtual(thread));
+    }
+  }
+
+}
@@ -0,0 +1,74 @@
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import model.TradingCalendar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TradingCalendarTest {
+
+  /**
+   * Testing that weekends and the public holidays aren't trading days.
+   */
+  @Test
+  public void testWeekendsAndPublicHolidays() {
+
+    TradingCalendar calendar = new TradingCalendar();
+    assertTrue(calendar.isTradingDay(LocalDate.of(2018, 11, 21)));
+    assertFalse(calendar.isTradingDay(LocalDate.of(2018, 11, 22)));
+    assertFalse(calendar.isTradingDay(LocalDate.of(2018, 11, 24)));
+    assertFalse(calendar.isTradingDay(LocalDate.of(2018, 1, 15)));
+    assertFalse(calendar.isTradingDay(LocalDate.of(2018, 5, 28)));
+    assertFalse(calendar.isTradingDay(LocalDate.of(2018, 12, 25)));
+    assertTrue(calendar.isTradingDay(LocalDate.of(2018, 3, 30)));
+  }
+
+  /**
+   * Testing that the next and previous trading days skip closures across the end of a year.
+   */
+  @Test
+  public void testNextAndPreviousTradingDay() {
+
+    TradingCalendar calendar = new TradingCalendar();
+    assertEquals(LocalDate.of(2018, 11, 21),
+            calendar.nextTradingDay(LocalDate.of(2018, 11, 21)));
+    assertEquals(LocalDate.of(2018, 11, 23),
+            calendar.nextTradingDay(LocalDate.of(2018, 11, 22)));
+    assertEquals(LocalDate.of(2018, 1, 2),
+            calendar.nextTradingDay(LocalDate.of(2017, 12, 30)));
+    assertEquals(LocalDate.of(2017, 12, 29),
+            calendar.previousTradingDay(LocalDate.of(2018, 1, 1)));
+    assertEquals(LocalDate.of(2018, 11, 21),
+            calendar.previousTradingDay(LocalDate.of(2018, 11, 22)));
+  }
+
+  /**
+   * Testing that the holidays given are closures on top of the rules.
+   */
+  @Test
+  public void testHolidaysFromInput() {
+
+    TradingCalendar calendar = new TradingCalendar(new StringReader(
+            "# Good Friday\n30-03-2018\n\n05-12-2018\n"));
+    assertFalse(calendar.isTradingDay(LocalDate.of(2018, 3, 30)));
+    assertFalse(calendar.isTradingDay(LocalDate.of(2018, 12, 5)));
+    assertFalse(calendar.isTradingDay(LocalDate.of(2018, 12, 25)));
+    assertEquals(LocalDate.of(2018, 4, 2),
+            calendar.nextTradingDay(LocalDate.of(2018, 3, 30)));
+    assertEquals(LocalDate.of(2018, 12, 4),
+            calendar.previousTradingDay(LocalDate.of(2018, 12, 5)));
+  }
+
+  /**
+   * Testing that a holiday that isn't a valid date is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidHoliday() {
+    new TradingCalendar(new StringReader("30-02-2018\n"));
+  }
+
+}
@@ -1,6 +1,18 @@
 import org.junit.Test;
 
 import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 import datasource.DataSourceCreator;
 import datasource.DataSourceInterface;
@@ -8,6 +20,8 @@ import model.VirtualStockModel;
 import model.VirtualStockModelInterface;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class VirtualStockModelTest {
 
@@ -1642,4 +1656,471 @@ public class VirtualStockModelTest {
 
   }
 
-}
\ No newline at end of file
+  /**
+   * Testing the totalPortfolioWorth on a day without prices that isn't a known holiday takes the
+   * latest closing price before it, also after the last price, while a day more than 10 days after
+   * the last price is worth 0.0.
+   */
+  @Test
+  public void testTotalPortfolioWorthOnDayWithoutPrices() {
+
+    String stockPrices = "GOOG,26-09-2018,900.67\n"
+            + "GOOG,28-09-2018,910.00\n";
+
+    StringReader reader = new StringReader(stockPrices);
+    DataSourceInterface dataSource = DataSourceCreator.getDataSource("UserInput",
+            reader);
+
+    VirtualStockModelInterface virtualStockModel = new VirtualStockModel(dataSource);
+
+    virtualStockModel.createPortfolio("MyFirstPortfolio");
+
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio",
+            10000, "26-09-2018 12:30");
+
+    assertEquals(9907.37, virtualStockModel.getTotalValue(
+            "MyFirstPortfolio", "27-09-2018"), 0.001);
+    assertEquals(10010.0, virtualStockModel.getTotalValue(
+            "MyFirstPortfolio", "28-09-2018"), 0.001);
+    assertEquals(10010.0, virtualStockModel.getTotalValue(
+            "MyFirstPortfolio", "01-10-2018"), 0.001);
+    assertEquals(10010.0, virtualStockModel.getTotalValue(
+            "MyFirstPortfolio", "08-10-2018"), 0.001);
+    assertEquals(0.0, virtualStockModel.getTotalValue(
+            "MyFirstPortfolio", "09-10-2018"), 0.001);
+  }
+
+  /**
+   * Testing that the asynchronous total value is the same as the blocking one and that an unknown
+   * portfolio completes it exceptionally.
+   */
+  @Test
+  public void testTotalPortfolioWorthAsync() {
+
+    String stockPrices = "GOOG,26-09-2018,900.67\n"
+            + "GOOG,28-09-2018,910.00\n"
+            + "AAPL,26-09-2018,220.42\n"
+            + "AAPL,28-09-2018,225.74\n";
+
+    StringReader reader = new StringReader(stockPrices);
+    DataSourceInterface dataSource = DataSourceCreator.getDataSource("UserInput",
+            reader);
+
+    VirtualStockModelInterface virtualStockModel = new VirtualStockModel(dataSource);
+
+    virtualStockModel.createPortfolio("MyFirstPortfolio");
+
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio",
+            10000, "26-09-2018 12:30");
+    virtualStockModel.buySharesOfStock("AAPL", "MyFirstPortfolio",
+            1000, "26-09-2018 12:30");
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio",
+            1000, "28-09-2018 12:30");
+
+    for (String date : new String[]{"26-09-2018", "27-09-2018", "28-09-2018"}) {
+      assertEquals(virtualStockModel.getTotalValue("MyFirstPortfolio", date),
+              virtualStockModel.getTotalValueAsync("MyFirstPortfolio", date).join(), 0.0);
+    }
+    assertTrue(virtualStockModel.getTotalValueAsync("NoPortfolio", "28-09-2018")
+            .isCompletedExceptionally());
+  }
+
+  /**
+   * Testing that the shares held are counted by buy date when the stocks are bought out of order
+   * of their dates.
+   */
+  @Test
+  public void testTotalPortfolioWorthWithStocksBoughtOutOfOrder() {
+
+    String stockPrices = "GOOG,25-09-2018,890.00\n"
+            + "GOOG,26-09-2018,900.67\n"
+            + "GOOG,28-09-2018,910.00\n"
+            + "AAPL,26-09-2018,220.42\n";
+
+    StringReader reader = new StringReader(stockPrices);
+    DataSourceInterface dataSource = DataSourceCreator.getDataSource("UserInput",
+            reader);
+
+    VirtualStockModelInterface virtualStockModel = new VirtualStockModel(dataSource);
+
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio",
+            10000, "28-09-2018 12:30");
+    assertEquals(9100.0, virtualStockModel.getTotalValue(
+            "MyFirstPortfolio", "28-09-2018"), 0.001);
+
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio",
+            1000, "25-09-2018 12:30");
+    virtualStockModel.buySharesOfStock("AAPL", "MyFirstPortfolio",
+            1000, "26-09-2018 12:30");
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio",
+            2000, "26-09-2018 12:30");
+
+    assertEquals(890.0, virtualStockModel.getTotalValue(
+            "MyFirstPortfolio", "25-09-2018"), 0.001);
+    assertEquals(2702.01 + 881.68, virtualStockModel.getTotalValue(
+            "MyFirstPortfolio", "26-09-2018"), 0.001);
+    assertEquals(11830.0 + 881.68, virtualStockModel.getTotalValue(
+            "MyFirstPortfolio", "28-09-2018"), 0.001);
+  }
+
+  /**
+   * Testing that the cost basis counts the stocks bought by each date when they are bought out of
+   * order of their dates.
+   */
+  @Test
+  public void testTotalCostBasisWithStocksBoughtOutOfOrder() {
+
+    String stockPrices = "GOOG,25-09-2018,890.00\n"
+            + "GOOG,26-09-2018,900.67\n"
+            + "GOOG,28-09-2018,910.00\n";
+
+    StringReader reader = new StringReader(stockPrices);
+    DataSourceInterface dataSource = DataSourceCreator.getDataSource("UserInput",
+            reader);
+
+    VirtualStockModelInterface virtualStockModel = new VirtualStockModel(dataSource);
+
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio",
+            10000, "28-09-2018 12:30", 5);
+    assertEquals(9105.0, virtualStockModel.getTotalCostBasis(
+            "MyFirstPortfolio", "28-09-2018"), 0.001);
+
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio",
+            1000, "25-09-2018 12:30", 5);
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio",
+            2000, "26-09-2018 12:30", 5);
+
+    assertEquals(0.0, virtualStockModel.getTotalCostBasis(
+            "MyFirstPortfolio", "24-09-2018"), 0.001);
+    assertEquals(895.0, virtualStockModel.getTotalCostBasis(
+            "MyFirstPortfolio", "25-09-2018"), 0.001);
+    assertEquals(895.0 + 1806.34, virtualStockModel.getTotalCostBasis(
+            "MyFirstPortfolio", "27-09-2018"), 0.001);
+    assertEquals(895.0 + 1806.34 + 9105.0, virtualStockModel.getTotalCostBasis(
+            "MyFirstPortfolio", "28-09-2018"), 0.001);
+  }
+
+  /**
+   * Testing that every value of a value series is the same as the total value on its date, across
+   * weekends, a holiday, stocks bought out of order and days after the last price.
+   */
+  @Test
+  public void testValueSeriesMatchesTotalValue() {
+
+    StringBuilder stockPrices = new StringBuilder();
+    for (int day = 1; day <= 27; day++) {
+      if (day % 7 == 3 || day % 7 == 4 || day == 22) {
+        continue;
+      }
+      stockPrices.append(String.format("GOOG,%02d-11-2018,%.2f\n", day, 1000 + day * 3.17));
+      if (day % 2 == 0) {
+        stockPrices.append(String.format("AAPL,%02d-11-2018,%.2f\n", day, 200 + day * 1.31));
+      }
+    }
+
+    StringReader reader = new StringReader(stockPrices.toString());
+    DataSourceInterface dataSource = DataSourceCreator.getDataSource("UserInput",
+            reader);
+
+    VirtualStockModelInterface virtualStockModel = new VirtualStockModel(dataSource);
+
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio",
+            5000, "14-11-2018 12:30");
+    virtualStockModel.buySharesOfStock("AAPL", "MyFirstPortfolio",
+            1000, "06-11-2018 12:30");
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio",
+            3000, "02-11-2018 12:30");
+    virtualStockModel.buySharesOfStock("AAPL", "MyFirstPortfolio",
+            2000, "20-11-2018 12:30");
+
+    for (int step : new int[]{1, 3}) {
+      Map<String, Double> values = virtualStockModel.getValueSeries("MyFirstPortfolio",
+              "31-10-2018", "02-12-2018", step);
+      assertEquals(( 32 / step ) + 1, values.size());
+      for (Map.Entry<String, Double> value : values.entrySet()) {
+        assertEquals(virtualStockModel.getTotalValue("MyFirstPortfolio", value.getKey()),
+                value.getValue(), 0.0);
+      }
+    }
+  }
+
+  /**
+   * Testing that valuing several portfolios at once gives the same values as valuing each on its
+   * own and that a portfolio that doesn't exist is reported.
+   */
+  @Test
+  public void testTotalValuesOfPortfolios() {
+
+    String stockPrices = "GOOG,26-09-2018,900.67\n"
+            + "GOOG,28-09-2018,910.00\n"
+            + "AAPL,26-09-2018,220.42\n"
+            + "AAPL,28-09-2018,225.74\n"
+            + "MSFT,28-09-2018,114.37\n";
+
+    StringReader reader = new StringReader(stockPrices);
+    DataSourceInterface dataSource = DataSourceCreator.getDataSource("UserInput",
+            reader);
+
+    VirtualStockModelInterface virtualStockModel = new VirtualStockModel(dataSource);
+
+    virtualStockModel.buySharesOfStock("GOOG", "First", 10000, "26-09-2018 12:30");
+    virtualStockModel.buySharesOfStock("AAPL", "First", 1000, "28-09-2018 12:30");
+    virtualStockModel.buySharesOfStock("AAPL", "Second", 3000, "26-09-2018 12:30");
+    virtualStockModel.buySharesOfStock("MSFT", "Second", 3000, "28-09-2018 12:30");
+    virtualStockModel.buySharesOfStock("GOOG", "Third", 5000, "28-09-2018 12:30");
+    virtualStockModel.createPortfolio("Empty");
+
+    List<String> dates = Arrays.asList("26-09-2018", "27-09-2018", "29-09-2018");
+    Map<String, Map<String, Double>> totalValues = virtualStockModel.getTotalValues(dates);
+    assertEquals(Arrays.asList("FIRST", "SECOND", "THIRD", "EMPTY"),
+            new ArrayList<>(totalValues.keySet()));
+    for (String portfolioName : totalValues.keySet()) {
+      for (String date : dates) {
+        assertEquals(virtualStockModel.getTotalValue(portfolioName, date),
+                totalValues.get(portfolioName).get(date), 0.0);
+      }
+    }
+    assertEquals(1, virtualStockModel.getTotalValues(Arrays.asList("second"), dates).size());
+
+    try {
+      virtualStockModel.getTotalValues(Arrays.asList("First", "Fourth"), dates);
+      fail("Valuing a portfolio that doesn't exist should fail");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Portfolio: FOURTH doesn't exist", e.getMessage());
+    }
+  }
+
+  /**
+   * Testing that valuing a portfolio of several stocks prefetches each of them once, together and
+   * before any price is looked up.
+   */
+  @Test
+  public void testTotalValuePrefetchesStocksFirst() {
+
+    List<String> calls = new ArrayList<>();
+    DataSourceInterface dataSource = new DataSourceInterface() {
+      @Override
+      public double getPriceOfShare(String tickerSymbol, LocalDate date) {
+        return 10.0;
+      }
+
+      @Override
+      public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date) {
+        calls.add("lookup " + tickerSymbol);
+        return 10.0;
+      }
+
+      @Override
+      public void prefetch(Collection<String> tickerSymbols, LocalDate date) {
+        calls.add("prefetch " + new TreeSet<>(tickerSymbols) + " " + tickerSymbols.size());
+      }
+    };
+    VirtualStockModelInterface virtualStockModel = new VirtualStockModel(dataSource);
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio", 100, "26-09-2018 12:30");
+    virtualStockModel.buySharesOfStock("AAPL", "MyFirstPortfolio", 100, "26-09-2018 12:30");
+    virtualStockModel.buySharesOfStock("MSFT", "MyFirstPortfolio", 100, "27-09-2018 12:30");
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio", 100, "27-09-2018 12:30");
+
+    assertEquals(400.0, virtualStockModel.getTotalValue("MyFirstPortfolio", "28-09-2018"), 0.0);
+    assertEquals("prefetch [AAPL, GOOG, MSFT] 3", calls.get(0));
+    assertEquals(new HashSet<>(Arrays.asList("lookup AAPL", "lookup GOOG", "lookup MSFT")),
+            new HashSet<>(calls.subList(1, calls.size())));
+    assertEquals(4, calls.size());
+  }
+
+  /**
+   * Testing that a date in the future is valued at 0.00 however recent the latest price is, by
+   * each of the ways of valuing a portfolio.
+   */
+  @Test
+  public void testTotalValueInFutureIsZero() throws Exception {
+
+    DataSourceInterface dataSource = (tickerSymbol, date) -> 10.0;
+    VirtualStockModelInterface virtualStockModel = new VirtualStockModel(dataSource);
+    virtualStockModel.buySharesOfStock("GOOG", "MyFirstPortfolio", 100, "26-09-2018 12:30");
+
+    DateTimeFormatter format = DateTimeFormatter.ofPattern("dd-MM-uuuu");
+    LocalDate today = LocalDate.now();
+    String todayText = today.format(format);
+    String tomorrow = today.plusDays(1).format(format);
+
+    assertEquals(100.0, virtualStockModel.getTotalValue("MyFirstPortfolio", todayText), 0.0);
+    assertEquals(0.0, virtualStockModel.getTotalValue("MyFirstPortfolio", tomorrow), 0.0);
+    assertEquals(0.0, virtualStockModel.getTotalValueAsync("MyFirstPortfolio", tomorrow).get(),
+            0.0);
+
+    Map<String, Double> values = virtualStockModel.getValueSeries("MyFirstPortfolio",
+            todayText, today.plusDays(2).format(format), 1);
+    assertEquals(Arrays.asList(100.0, 0.0, 0.0), new ArrayList<>(values.values()));
+    assertEquals(Arrays.asList(0.0, 0.0), new ArrayList<>(virtualStockModel.getValueSeries(
+            "MyFirstPortfolio", tomorrow, today.plusDays(2).format(format), 1).values()));
+
+    Map<String, Double> totalValues = virtualStockModel.getTotalValues(
+            Arrays.asList(todayText, tomorrow)).get("MYFIRSTPORTFOLIO");
+    assertEquals(100.0, totalValues.get(todayText), 0.0);
+    assertEquals(0.0, totalValues.get(tomorrow), 0.0);
+  }
+
+  /**
+   * Testing that valuing several portfolios at once looks up a stock held by several of them only
+   * once for each day.
+   */
+  @Test
+  public void testTotalValuesShareLookups() {
+
+    List<String> lookups = Collections.synchronizedList(new ArrayList<>());
+    DataSourceInterface dataSource = new DataSourceInterface() {
+      @Override
+      public double getPriceOfShare(String tickerSymbol, LocalDate date) {
+        return 10.0;
+      }
+
+      @Override
+      public double getPriceOfShareAsOf(String tickerSymbol, LocalDate date) {
+        lookups.add(tickerSymbol + " " + date);
+        return 10.0;
+      }
+    };
+    VirtualStockModelInterface virtualStockModel = new VirtualStockModel(dataSource);
+
+    for (String portfolioName : new String[]{"First", "Second", "Third", "Fourth"}) {
+      virtualStockModel.buySharesOfStock("GOOG", portfolioName, 100, "26-09-2018 12:30");
+    }
+    virtualStockModel.buySharesOfStock("AAPL", "Second", 50, "26-09-2018 12:30");
+
+    Map<String, Map<String, Double>> totalValues = virtualStockModel.getTotalValues(
+            Arrays.asList("27-09-2018", "28-09-2018"));
+
+    assertEquals(150.0, totalValues.get("SECOND").get("28-09-2018"), 0.0);
+    assertEquals(100.0, totalValues.get("FOURTH").get("27-09-2018"), 0.0);
+    assertEquals(new HashSet<>(Arrays.asList("GOOG 2018-09-27", "GOOG 2018-09-28",
+            "AAPL 2018-09-27", "AAPL 2018-09-28")), new HashSet<>(lookups));
+    assertEquals(4, lookups.size());
+  }
+
+  /**
+   * Testing that buying and valuing with dates as LocalDate and LocalDateTime gives the same
+   * portfolio and values as with the dates as text.
+   */
+  @Test
+  public void testTypedDatesMatchTextDates() {
+
+    String stockPrices = "GOOG,01-11-2018,1070.0\n"
+            + "GOOG,02-11-2018,1057.79\n"
+            + "GOOG,05-11-2018,1040.09\n"
+            + "AAPL,01-11-2018,222.22\n"
+            + "AAPL,02-11-2018,207.48\n"
+            + "AAPL,05-11-2018,201.59\n";
+
+    VirtualStockModelInterface textModel = new VirtualStockModel(
+            DataSourceCreator.getDataSource("UserInput", new StringReader(stockPrices)));
+    VirtualStockModelInterface typedModel = new VirtualStockModel(
+            DataSourceCreator.getDataSource("UserInput", new StringReader(stockPrices)));
+
+    textModel.buySharesOfStock("GOOG", "MyFirstPortfolio", 5000, "01-11-2018 12:30", 10);
+    typedModel.buySharesOfStockAt("goog", "myFirstPortfolio ", 5000,
+            LocalDateTime.of(2018, 11, 1, 12, 30), 10);
+    Map<String, Double> stockWeights = new HashMap<>();
+    stockWeights.put("GOOG", 60.0);
+    stockWeights.put("AAPL", 40.0);
+    textModel.invest("MyFirstPortfolio", stockWeights, 3000, 5, "02-11-2018 10:00");
+    typedModel.investAt("MyFirstPortfolio", stockWeights, 3000, 5,
+            LocalDateTime.of(2018, 11, 2, 10, 0));
+
+    assertEquals(textModel.displayAllPortfolios(), typedModel.displayAllPortfolios());
+    for (int day = 1; day <= 6; day++) {
+      String date = String.format("%02d-11-2018", day);
+      LocalDate localDate = LocalDate.of(2018, 11, day);
+      assertEquals(textModel.getTotalCostBasis("MyFirstPortfolio", date),
+              typedModel.getTotalCostBasisOn("MyFirstPortfolio", localDate), 0.0);
+      assertEquals(textModel.getTotalValue("MyFirstPortfolio", date),
+              typedModel.getTotalValueOn("MyFirstPortfolio", localDate), 0.0);
+    }
+
+    Map<LocalDate, Double> values = typedModel.getValueSeriesBetween("MyFirstPortfolio",
+            LocalDate.of(2018, 11, 1), LocalDate.of(2018, 11, 5), 2);
+    assertEquals(Arrays.asList(LocalDate.of(2018, 11, 1), LocalDate.of(2018, 11, 3),
+            LocalDate.of(2018, 11, 5)), new ArrayList<>(values.keySet()));
+    assertEquals(new ArrayList<>(textModel.getValueSeries("MyFirstPortfolio", "01-11-2018",
+            "05-11-2018", 2).values()), new ArrayList<>(values.values()));
+
+    try {
+      typedModel.buySharesOfStockAt("GOOG", "MyFirstPortfolio", 5000,
+              LocalDateTime.of(2018, 11, 3, 12, 30), 0);
+      fail("Above line should have thrown exception");
+    } catch (IllegalArgumentException e) {
+      //Do Nothing
+    }
+  }
+
+  /**
+   * Testing that dollar cost averaging over a data source that looks up each day on its own asks
+   * for the prices of the investment days only, and buys on each of them.
+   */
+  @Test
+  public void testDollarCostAveragingLooksUpInvestmentDaysOnly() {
+
+    List<LocalDate> lookups = new ArrayList<>();
+    DataSourceInterface dataSource = (tickerSymbol, date) -> {
+      lookups.add(date);
+      return 10.0;
+    };
+    VirtualStockModelInterface virtualStockModel = new VirtualStockModel(dataSource);
+
+    Map<String, Double> stockWeights = new HashMap<>();
+    stockWeights.put("goog", 100.0);
+    virtualStockModel.dollarCostAveraging("MyFirstPortfolio", stockWeights, 1000, 7,
+            "01-10-2018", "31-10-2018", 5.0);
+
+    assertEquals(Arrays.asList(LocalDate.of(2018, 10, 1), LocalDate.of(2018, 10, 8),
+            LocalDate.of(2018, 10, 15), LocalDate.of(2018, 10, 22),
+            LocalDate.of(2018, 10, 29)), lookups);
+    assertEquals(5025.0, virtualStockModel.getTotalCostBasis("MyFirstPortfolio",
+            "31-10-2018"), 0.0);
+  }
+
+  /**
+   * Testing that portfolio names are trimmed and put in capital case when a portfolio is created,
+   * whether directly or by buying into it, and when it is looked up, and that the names are listed
+   * in the order the portfolios were created.
+   */
+  @Test
+  public void testPortfolioNameNormalisationAndOrder() {
+
+    String stockPrices = "GOOG,09-08-2017,234.67\n";
+
+    StringReader reader = new StringReader(stockPrices);
+    DataSourceInterface dataSource = DataSourceCreator.getDataSource("UserInput", reader);
+
+    VirtualStockModelInterface virtualStockModel = new VirtualStockModel(dataSource);
+
+    virtualStockModel.createPortfolio("  second ");
+    virtualStockModel.createPortfolio("First");
+    virtualStockModel.buySharesOfStock("GOOG", "third\t", 500, "09-08-2017 12:56");
+    virtualStockModel.createPortfolio("aNother");
+
+    assertEquals(Arrays.asList("SECOND", "FIRST", "THIRD", "ANOTHER"),
+            virtualStockModel.getPortfolioNames());
+
+    for (String name : new String[]{"SECOND", "second", " Second\t", "first ", "THIRD"}) {
+      try {
+        virtualStockModel.createPortfolio(name);
+        fail("Above line should have thrown exception");
+      } catch (IllegalArgumentException e) {
+        //Do Nothing
+      }
+    }
+
+    virtualStockModel.buySharesOfStock("GOOG", " FIRST", 500, "09-08-2017 12:56");
+    virtualStockModel.buySharesOfStock("GOOG", "first", 500, "09-08-2017 12:56");
+    assertEquals(4 * 234.67, virtualStockModel.getTotalCostBasis("First  ",
+            "09-08-2017"), 0.001);
+    assertEquals(2 * 234.67, virtualStockModel.getTotalValue(" third",
+            "09-08-2017"), 0.001);
+    assertEquals(virtualStockModel.displayPortfolio("THIRD"),
+            virtualStockModel.displayPortfolio(" Third "));
+    assertEquals(new HashSet<>(Arrays.asList("SECOND", "FIRST", "THIRD", "ANOTHER")),
+            virtualStockModel.displayAllPortfolios().keySet());
+  }
+
+}